@@ -0,0 +1,58 @@
+package com.example.demo.benchmark;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 求解器基准的数据集目录：每个数据集由订单数与种子唯一确定，首次使用时生成 JSON 文件并保存到
+ * 数据目录，之后直接读取已保存的文件，保证不同机器、不同配置比较的是同一批问题。
+ */
+public enum DatasetCatalogue {
+
+    ORDERS_100("orders-100", 100, 1L),
+    ORDERS_1000("orders-1000", 1_000, 2L),
+    ORDERS_10000("orders-10000", 10_000, 3L);
+
+    private final String datasetName;
+    private final int orderCount;
+    private final long seed;
+
+    DatasetCatalogue(String datasetName, int orderCount, long seed) {
+        this.datasetName = datasetName;
+        this.orderCount = orderCount;
+        this.seed = seed;
+    }
+
+    public String getDatasetName() {
+        return datasetName;
+    }
+
+    /**
+     * 返回该数据集保存的文件，不存在时先生成。
+     */
+    public File ensureSaved(File dataDirectory, OrderScheduleFileIO solutionFileIO) {
+        File file = new File(dataDirectory, datasetName + "." + solutionFileIO.getInputFileExtension());
+        if (!file.exists()) {
+            dataDirectory.mkdirs();
+            solutionFileIO.write(SyntheticOrderSchedules.generateProblem(orderCount, seed), file);
+        }
+        return file;
+    }
+
+    /**
+     * 按名称（逗号分隔）选择数据集；为空时返回全部。
+     */
+    public static List<DatasetCatalogue> select(String datasetNames) {
+        if (datasetNames == null || datasetNames.isBlank()) {
+            return List.of(values());
+        }
+        return Arrays.stream(datasetNames.split(","))
+                .map(String::trim)
+                .map(name -> Arrays.stream(values())
+                        .filter(dataset -> dataset.datasetName.equals(name))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown dataset (" + name + ").")))
+                .toList();
+    }
+}
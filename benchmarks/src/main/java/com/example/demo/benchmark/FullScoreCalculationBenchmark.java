@@ -0,0 +1,32 @@
+package com.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.impl.score.director.InnerScore;
+
+/**
+ * 完整得分计算：每次调用都把整个方案重新装入 score director 并从头计算得分
+ * （对应求解开始、问题变更以及分析接口的开销）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FullScoreCalculationBenchmark extends ScoreBenchmarkState {
+
+    @Benchmark
+    public InnerScore<HardMediumSoftScore> calculateFromScratch() {
+        scoreDirector.setWorkingSolution(solution);
+        return scoreDirector.calculateScore();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.TimeGrain;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.impl.score.director.InnerScore;
+
+/**
+ * 增量得分计算：每次调用修改一个订单的一个规划变量（员工、产线或开始时间槽，取自该订单的值域），
+ * 然后计算得分，对应本地搜索中一步 ChangeMove 的开销。变更序列由固定种子预先生成。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IncrementalScoreCalculationBenchmark extends ScoreBenchmarkState {
+
+    private static final int CHANGE_COUNT = 1 << 14;
+
+    private Change[] changes;
+    private int nextChange;
+
+    private record Change(Order order, String variableName, Object value) {
+
+        void apply() {
+            switch (variableName) {
+                case "employee" -> order.setEmployee((Employee) value);
+                case "line" -> order.setLine((Line) value);
+                default -> order.setStartingTimeGrain((TimeGrain) value);
+            }
+        }
+    }
+
+    @Override
+    protected void prepare() {
+        Random random = new Random(SEED);
+        List<Order> orders = new ArrayList<>();
+        for (Order order : solution.getOrders()) {
+            if (!order.isPinned()) {
+                orders.add(order);
+            }
+        }
+        changes = new Change[CHANGE_COUNT];
+        for (int i = 0; i < CHANGE_COUNT; i++) {
+            Order order = SyntheticOrderSchedules.pick(orders, random);
+            changes[i] = switch (random.nextInt(3)) {
+                case 0 -> new Change(order, "employee", SyntheticOrderSchedules.pick(order.getEmployeeRange(), random));
+                case 1 -> new Change(order, "line", SyntheticOrderSchedules.pick(order.getLineRange(), random));
+                default -> new Change(order, "startingTimeGrain",
+                        SyntheticOrderSchedules.pick(order.getTimeGrainRange(), random));
+            };
+        }
+        scoreDirector.setWorkingSolution(solution);
+        scoreDirector.calculateScore();
+    }
+
+    @Benchmark
+    public InnerScore<HardMediumSoftScore> changeOneVariable() {
+        Change change = changes[nextChange];
+        nextChange = (nextChange + 1) & (CHANGE_COUNT - 1);
+        scoreDirector.beforeVariableChanged(change.order(), change.variableName());
+        change.apply();
+        scoreDirector.afterVariableChanged(change.order(), change.variableName());
+        return scoreDirector.calculateScore();
+    }
+}
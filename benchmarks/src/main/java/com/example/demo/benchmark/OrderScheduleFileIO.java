@@ -0,0 +1,53 @@
+package com.example.demo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.example.demo.entity.OrderSchedule;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import ai.timefold.solver.persistence.common.api.domain.solution.SolutionFileIO;
+
+/**
+ * 以与 REST 接口相同的 JSON 格式读写 {@link OrderSchedule}。读取后执行与控制器相同的准备步骤
+ * （订单 id、班次日历、订单级值域），保证基准求解的问题与线上一致。
+ */
+public class OrderScheduleFileIO implements SolutionFileIO<OrderSchedule> {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            // 只读的派生字段（如 scheduledDateTime）会出现在输出中
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Override
+    public String getInputFileExtension() {
+        return "json";
+    }
+
+    @Override
+    public OrderSchedule read(File inputSolutionFile) {
+        try {
+            OrderSchedule schedule = objectMapper.readValue(inputSolutionFile, OrderSchedule.class);
+            schedule.assignOrderIds();
+            schedule.buildShiftCalendars();
+            schedule.buildValueRanges();
+            return schedule;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed reading inputSolutionFile (" + inputSolutionFile + ").", e);
+        }
+    }
+
+    @Override
+    public void write(OrderSchedule schedule, File outputSolutionFile) {
+        try {
+            objectMapper.writeValue(outputSolutionFile, schedule);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed writing outputSolutionFile (" + outputSolutionFile + ").", e);
+        }
+    }
+}
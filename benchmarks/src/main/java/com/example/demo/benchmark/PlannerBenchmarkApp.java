@@ -0,0 +1,50 @@
+package com.example.demo.benchmark;
+
+import java.io.File;
+import java.util.List;
+
+import ai.timefold.solver.benchmark.api.PlannerBenchmarkFactory;
+import ai.timefold.solver.benchmark.config.PlannerBenchmarkConfig;
+
+/**
+ * 使用 Timefold Benchmarker 在数据集目录上比较多组求解器配置（构造启发式、局部搜索类型、终止策略等），
+ * 在 benchmark.directory 下输出 HTML 报告与各统计项的 CSV。无界面运行：
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dbenchmark.datasets=orders-100,orders-1000
+ * </pre>
+ * 可用的系统属性：
+ * <ul>
+ * <li>benchmark.config：基准配置 classpath 资源，默认 {@value #DEFAULT_CONFIG_RESOURCE}</li>
+ * <li>benchmark.datasets：逗号分隔的数据集名（见 {@link DatasetCatalogue}），默认全部</li>
+ * <li>benchmark.dataDirectory：数据集 JSON 保存目录，默认 {@value #DEFAULT_DATA_DIRECTORY}</li>
+ * <li>benchmark.directory：报告输出目录，默认 {@value #DEFAULT_REPORT_DIRECTORY}</li>
+ * </ul>
+ */
+public final class PlannerBenchmarkApp {
+
+    static final String DEFAULT_CONFIG_RESOURCE = "benchmarkConfig.xml";
+    static final String DEFAULT_DATA_DIRECTORY = "local/data";
+    static final String DEFAULT_REPORT_DIRECTORY = "local/benchmarkReport";
+
+    private PlannerBenchmarkApp() {
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        OrderScheduleFileIO solutionFileIO = new OrderScheduleFileIO();
+        File dataDirectory = new File(System.getProperty("benchmark.dataDirectory", DEFAULT_DATA_DIRECTORY));
+        List<File> inputSolutionFiles = DatasetCatalogue.select(System.getProperty("benchmark.datasets")).stream()
+                .map(dataset -> dataset.ensureSaved(dataDirectory, solutionFileIO))
+                .toList();
+
+        PlannerBenchmarkConfig benchmarkConfig = PlannerBenchmarkConfig.createFromXmlResource(
+                System.getProperty("benchmark.config", DEFAULT_CONFIG_RESOURCE));
+        benchmarkConfig.setBenchmarkDirectory(
+                new File(System.getProperty("benchmark.directory", DEFAULT_REPORT_DIRECTORY)));
+        // 配置文件只描述求解器组合，问题列表由数据集目录提供
+        benchmarkConfig.getInheritedSolverBenchmarkConfig().getProblemBenchmarksConfig()
+                .setInputSolutionFileList(inputSolutionFiles);
+
+        PlannerBenchmarkFactory.create(benchmarkConfig).buildPlannerBenchmark().benchmark();
+    }
+}
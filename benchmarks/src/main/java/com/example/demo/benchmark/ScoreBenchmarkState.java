@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.example.demo.constraint.OrderScheduleConstraintProvider;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.score.director.ScoreDirectorFactory;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+
+/**
+ * 得分计算基准的公共状态：按订单数生成合成问题，并为整个约束提供者（{@value #ALL_CONSTRAINTS}）
+ * 或其中单条约束构建 score director。
+ */
+@State(Scope.Benchmark)
+public abstract class ScoreBenchmarkState {
+
+    public static final String ALL_CONSTRAINTS = "ALL";
+    static final long SEED = 37L;
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int orderCount;
+
+    // 约束名与 OrderScheduleConstraintProvider 中 asConstraint(...) 的名称一致
+    @Param({ALL_CONSTRAINTS,
+            "Line function must match order requirement",
+            "Employee must have required skill",
+            "Overtime must start within 15 minutes after shift end",
+            "Order must be scheduled within its allowed window",
+            "Only one order per line per overlapping time",
+            "Only one order per employee per overlapping time",
+            "Minimize overtime (minutes outside employee's shift window)",
+            "Finish orders as early as possible",
+            "Balance orders across employees",
+            "Minimize employee switching lines per day",
+            "Minimize idle minutes within employee shift (weighted toward shift start)",
+            "Balance orders across lines"})
+    public String constraint;
+
+    protected OrderSchedule solution;
+    protected InnerScoreDirector<OrderSchedule, HardMediumSoftScore> scoreDirector;
+
+    @Setup(Level.Trial)
+    public void setUpScoreDirector() {
+        solution = SyntheticOrderSchedules.generate(orderCount, SEED);
+        scoreDirector = buildScoreDirectorFactory(constraint).buildScoreDirector();
+        prepare();
+    }
+
+    // 子类的额外准备（JMH 不保证父子类 @Setup 的执行顺序，因此由这里显式调用）
+    protected void prepare() {
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownScoreDirector() {
+        scoreDirector.close();
+    }
+
+    static ScoreDirectorFactory<OrderSchedule, HardMediumSoftScore> buildScoreDirectorFactory(String constraint) {
+        SolverConfig solverConfig = new SolverConfig()
+                .withSolutionClass(OrderSchedule.class)
+                .withEntityClasses(Order.class);
+        if (ALL_CONSTRAINTS.equals(constraint)) {
+            solverConfig.withConstraintProviderClass(OrderScheduleConstraintProvider.class);
+        } else {
+            SelectedConstraintProvider.select(constraint);
+            solverConfig.withConstraintProviderClass(SelectedConstraintProvider.class);
+        }
+        DefaultSolverFactory<OrderSchedule> solverFactory =
+                (DefaultSolverFactory<OrderSchedule>) SolverFactory.<OrderSchedule>create(solverConfig);
+        return solverFactory.getScoreDirectorFactory();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.benchmark;
+
+import java.util.Arrays;
+
+import com.example.demo.constraint.OrderScheduleConstraintProvider;
+
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+
+/**
+ * 只保留 {@link OrderScheduleConstraintProvider} 中的单条约束，用于按约束测量得分计算开销。
+ * Timefold 通过无参构造实例化约束提供者，因此选中的约束名通过静态字段传入，须在构建
+ * ScoreDirectorFactory 之前设置（每个 JMH fork 是独立 JVM，互不影响）。
+ */
+public class SelectedConstraintProvider extends OrderScheduleConstraintProvider {
+
+    private static volatile String selectedConstraintName;
+
+    static void select(String constraintName) {
+        selectedConstraintName = constraintName;
+    }
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        String selected = selectedConstraintName;
+        Constraint[] constraints = Arrays.stream(super.defineConstraints(constraintFactory))
+                .filter(constraint -> constraint.getConstraintRef().constraintName().equals(selected))
+                .toArray(Constraint[]::new);
+        if (constraints.length == 0) {
+            throw new IllegalStateException("Unknown constraint name (" + selected + ").");
+        }
+        return constraints;
+    }
+}
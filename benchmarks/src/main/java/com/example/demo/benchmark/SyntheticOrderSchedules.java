@@ -0,0 +1,47 @@
+package com.example.demo.benchmark;
+
+import java.util.List;
+import java.util.Random;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.service.GeneratorParameters;
+import com.example.demo.service.ProblemGenerator;
+
+/**
+ * 基准用的合成问题：由 {@link ProblemGenerator} 按 {@link GeneratorParameters#forOrderCount} 生成，
+ * 相同 (orderCount, seed) 总是生成完全相同的实例，并已完成求解前的准备步骤。
+ * {@link #generate} 在自身值域内为每个订单随机赋值，便于直接计算完整得分；
+ * {@link #generateProblem} 生成未分配的问题，作为求解器基准的数据集。
+ */
+public final class SyntheticOrderSchedules {
+
+    private static final ProblemGenerator GENERATOR = new ProblemGenerator();
+
+    private SyntheticOrderSchedules() {
+    }
+
+    public static OrderSchedule generate(int orderCount, long seed) {
+        OrderSchedule schedule = generateProblem(orderCount, seed);
+        Random random = new Random(seed);
+        for (Order order : schedule.getOrders()) {
+            if (!order.isPinned()) {
+                order.setEmployee(pick(order.getEmployeeRange(), random));
+                order.setLine(pick(order.getLineRange(), random));
+                order.setStartingTimeGrain(pick(order.getTimeGrainRange(), random));
+            }
+        }
+        return schedule;
+    }
+
+    public static OrderSchedule generateProblem(int orderCount, long seed) {
+        OrderSchedule schedule = GENERATOR.generate(GeneratorParameters.forOrderCount(orderCount, seed));
+        schedule.buildShiftCalendars();
+        schedule.buildValueRanges();
+        return schedule;
+    }
+
+    static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.constraint;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.TimeGrain;
+
+import ai.timefold.solver.core.api.score.stream.uni.UniConstraintCollector;
+
+/**
+ * 按（员工, 日期）分组时增量维护班次内的占用情况，并给出加权空闲分钟（越靠近班次开始的空闲权重越大）。
+ * <p>
+ * 空闲段 [a, b)（相对班次开始的分钟）的加权值为 (b - a) * (1 - (a + b) / 2D)，即 (b - a) - (b² - a²) / 2D，
+ * 其中 D 为班次时长。空闲段与占用段恰好划分 [0, D]，因此总惩罚只依赖占用并集的长度 U 与 Σ(e² - s²)：
+ * (D - U) - (D² - Σ(e² - s²)) / 2D。两者在插入/撤回订单时只需更新受影响的区间，单次代价 O(log k)。
+ */
+public final class IdleTimeCollector implements UniConstraintCollector<Order, IdleTimeCollector.Occupancy, Integer> {
+
+    private static final int MINUTES_PER_DAY = TimeGrain.MINUTES_PER_DAY;
+
+    @Override
+    public Supplier<Occupancy> supplier() {
+        return Occupancy::new;
+    }
+
+    @Override
+    public BiFunction<Occupancy, Order, Runnable> accumulator() {
+        return (occupancy, order) -> {
+            // 同组订单的员工与开始日期相同，班次窗口由第一条订单确定
+            if (!occupancy.hasShiftWindow()) {
+                int day = order.getStartDay();
+                int shiftStartMod = order.getEmployee().getShift().getStartMinuteOfDay();
+                int shiftEndMod = order.getEmployee().getShift().getEndMinuteOfDay();
+                occupancy.setShiftWindow(shiftWindowStart(day, shiftStartMod),
+                        shiftWindowEnd(day, shiftStartMod, shiftEndMod));
+            }
+            return occupancy.insert(order.getStartMinute(), order.getEndMinute());
+        };
+    }
+
+    @Override
+    public Function<Occupancy, Integer> finisher() {
+        return Occupancy::weightedIdleMinutes;
+    }
+
+    // 指定日期（epoch day）的班次窗口开始分钟
+    static int shiftWindowStart(int day, int shiftStartMod) {
+        return day * MINUTES_PER_DAY + shiftStartMod;
+    }
+
+    // 指定日期（epoch day）的班次窗口结束分钟；结束不晚于开始时视为跨天（夜班）
+    static int shiftWindowEnd(int day, int shiftStartMod, int shiftEndMod) {
+        int end = day * MINUTES_PER_DAY + shiftEndMod;
+        return shiftEndMod > shiftStartMod ? end : end + MINUTES_PER_DAY;
+    }
+
+    /**
+     * 班次内的占用覆盖计数：key 为相对班次开始的分钟，value 为从该点到下一个 key 之间被多少订单占用。
+     */
+    public static final class Occupancy {
+
+        private final TreeMap<Integer, Integer> coverage = new TreeMap<>();
+        private int shiftStart;
+        private int shiftLength;
+        // 被至少一个订单占用的分钟数 U，以及 Σ(e² - s²)
+        private int coveredMinutes;
+        private long coveredSquareSum;
+
+        boolean hasShiftWindow() {
+            return shiftLength > 0;
+        }
+
+        void setShiftWindow(int start, int end) {
+            this.shiftStart = start;
+            this.shiftLength = end - start;
+        }
+
+        /**
+         * 加入区间 [start, end)（绝对分钟，会裁剪到班次窗口），返回撤回该区间的操作。
+         */
+        Runnable insert(int start, int end) {
+            int from = Math.max(start, shiftStart) - shiftStart;
+            int to = Math.min(end, shiftStart + shiftLength) - shiftStart;
+            if (to <= from) {
+                return () -> {
+                };
+            }
+            add(from, to, 1);
+            return () -> add(from, to, -1);
+        }
+
+        int weightedIdleMinutes() {
+            if (shiftLength <= 0) {
+                return 0;
+            }
+            long length = shiftLength;
+            double penalty = (length - coveredMinutes)
+                    - (length * length - coveredSquareSum) / (2.0 * length);
+            return Math.max(0, (int) Math.round(penalty));
+        }
+
+        private void add(int from, int to, int delta) {
+            split(from);
+            split(to);
+            int point = from;
+            while (point < to) {
+                int next = coverage.higherKey(point);
+                int before = coverage.get(point);
+                int after = before + delta;
+                if (before == 0 && after > 0) {
+                    cover(point, next, 1);
+                } else if (before > 0 && after == 0) {
+                    cover(point, next, -1);
+                }
+                coverage.put(point, after);
+                point = next;
+            }
+            // 内部边界两侧同增同减，只有两端可能变得多余
+            removeIfRedundant(from);
+            removeIfRedundant(to);
+        }
+
+        private void split(int point) {
+            Map.Entry<Integer, Integer> floor = coverage.floorEntry(point);
+            if (floor == null) {
+                coverage.put(point, 0);
+            } else if (floor.getKey() != point) {
+                coverage.put(point, floor.getValue());
+            }
+        }
+
+        private void removeIfRedundant(int point) {
+            Integer count = coverage.get(point);
+            if (count == null) {
+                return;
+            }
+            Map.Entry<Integer, Integer> lower = coverage.lowerEntry(point);
+            if (lower == null ? count == 0 : lower.getValue().intValue() == count) {
+                coverage.remove(point);
+            }
+        }
+
+        private void cover(int from, int to, int sign) {
+            coveredMinutes += sign * (to - from);
+            coveredSquareSum += sign * ((long) to * to - (long) from * from);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.constraint;
+
+import com.example.demo.entity.SequencedOrder;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintCollectors;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+import ai.timefold.solver.core.api.score.stream.Joiners;
+
+/**
+ * 产线排序模型的约束：与 {@link OrderScheduleConstraintProvider} 含义一致，
+ * 但产线内不重叠已由序列结构保证，因此没有 uniqueLinePerShift。
+ * 空闲时间等只影响结果评估的软约束不在此建模，最终得分由 OrderScheduleConstraintProvider 重新计算。
+ */
+public class LineSequenceConstraintProvider implements ConstraintProvider {
+
+  @Override
+  public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+    return new Constraint[] {
+        // 硬约束
+        lineFunctionMatch(constraintFactory),      // 生产线功能匹配约束
+        employeeSkillMatch(constraintFactory),     // 员工技能匹配约束
+        overtimeMustFollowShiftEnd(constraintFactory), // 加班时间约束
+        orderWithinWindow(constraintFactory),     // 订单时间窗口约束
+        uniqueEmployeePerShift(constraintFactory), // 员工唯一性约束
+        // 中约束
+        minimizeOvertime(constraintFactory),       // 最小化加班约束
+        // 软约束
+        finishEarly(constraintFactory),            // 尽早完成约束
+        balanceOrdersPerEmployee(constraintFactory), // 均衡分配订单给员工
+        minimizeLineSwitchingPerEmployee(constraintFactory) // 最小化生产线切换
+    };
+  }
+
+  // 硬约束：加班必须在班次结束后 5 分钟内开始
+  private Constraint overtimeMustFollowShiftEnd(ConstraintFactory constraintFactory) {
+    final int allowedGapMin = 5;
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getEmployee() != null && o.getStartMinute() != null
+            && o.getEmployee().getShiftCalendar() != null)
+        .filter(o -> o.getEmployee().getShiftCalendar()
+            .isLateOvertimeStart(o.getStartMinute(), o.getEndMinute(), allowedGapMin))
+        .penalize(HardMediumSoftScore.ONE_HARD)
+        .asConstraint("Overtime must start within 15 minutes after shift end");
+  }
+
+  // 硬约束：生产线功能必须满足订单需求
+  private Constraint lineFunctionMatch(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getLine() != null && o.getOrder().getRequiredLineFunction() != null
+            && o.getLine().getFunctions() != null
+            && !o.getLine().hasFunction(o.getOrder().getRequiredLineFunction(),
+                o.getOrder().getRequiredLineFunctionMask()))
+        .penalize(HardMediumSoftScore.ONE_HARD)
+        .asConstraint("Line function must match order requirement");
+  }
+
+  // 硬约束：员工技能必须满足订单需求（值域已按技能过滤，此处兜底）
+  private Constraint employeeSkillMatch(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getEmployee() != null && o.getOrder().getRequiredSkill() != null
+            && !o.getEmployee().hasSkill(o.getOrder().getRequiredSkill(), o.getOrder().getRequiredSkillMask()))
+        .penalize(HardMediumSoftScore.ONE_HARD)
+        .asConstraint("Employee must have required skill");
+  }
+
+  // 硬约束：订单开始日期不晚于最晚生产日期（不早于最早日期已由开始时间推导保证）
+  private Constraint orderWithinWindow(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getStartMinute() != null && o.getOrder().getLatestDate() != null
+            && o.getStartDay() > o.getOrder().getLatestDate().toEpochDay())
+        .penalize(HardMediumSoftScore.ONE_HARD)
+        .asConstraint("Order must be scheduled within its allowed window");
+  }
+
+  // 硬约束：同一员工不能同时处理时间重叠的订单（跨产线）
+  private Constraint uniqueEmployeePerShift(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEachUniquePair(SequencedOrder.class,
+            Joiners.equal(SequencedOrder::getEmployee),
+            Joiners.overlapping(SequencedOrder::getStartMinute, SequencedOrder::getEndMinute))
+        .penalize(HardMediumSoftScore.ONE_HARD)
+        .asConstraint("Only one order per employee per overlapping time");
+  }
+
+  // 中约束：尽量不加班
+  private Constraint minimizeOvertime(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getEmployee() != null && o.getStartMinute() != null
+            && o.getEmployee().getShiftCalendar() != null)
+        .filter(o -> overtimeMinutes(o) > 0)
+        .penalize(HardMediumSoftScore.ONE_MEDIUM, LineSequenceConstraintProvider::overtimeMinutes)
+        .asConstraint("Minimize overtime (minutes outside employee's shift window)");
+  }
+
+  // 软约束：订单尽早完成
+  private Constraint finishEarly(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getStartMinute() != null && o.getOrder().getEarliestDate() != null)
+        .penalize(HardMediumSoftScore.ofSoft(20), o -> (int) Math.max(0,
+            o.getStartDay() - o.getOrder().getEarliestDate().toEpochDay()))
+        .asConstraint("Finish orders as early as possible");
+  }
+
+  // 软约束：尽量均衡分配订单给员工（每个员工 n 个订单惩罚 n*(n-1)）
+  private Constraint balanceOrdersPerEmployee(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getEmployee() != null)
+        .groupBy(SequencedOrder::getEmployee, ConstraintCollectors.count())
+        .penalize(HardMediumSoftScore.ONE_SOFT, (employee, count) -> OrderScheduleConstraintProvider.orderedPairCount(count))
+        .asConstraint("Balance orders across employees");
+  }
+
+  // 软约束：同一员工在同一天尽量不要更换生产线
+  private Constraint minimizeLineSwitchingPerEmployee(ConstraintFactory constraintFactory) {
+    return constraintFactory.forEach(SequencedOrder.class)
+        .filter(o -> o.getEmployee() != null && o.getStartMinute() != null)
+        .groupBy(SequencedOrder::getEmployee, SequencedOrder::getStartDay,
+            ConstraintCollectors.toSet(SequencedOrder::getLine))
+        .filter((employee, day, lineSet) -> lineSet.size() > 1)
+        .penalize(HardMediumSoftScore.ofSoft(50), (employee, day, lineSet) -> lineSet.size() - 1)
+        .asConstraint("Minimize employee switching lines per day");
+  }
+
+  private static int overtimeMinutes(SequencedOrder o) {
+    return o.getEmployee().getShiftCalendar().dailyWindowOvertimeMinutes(o.getStartMinute(), o.getEndMinute());
+  }
+}
@@ -5,270 +5,479 @@ import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftSc
 import ai.timefold.solver.core.api.solver.ScoreAnalysisFetchPolicy;
 import ai.timefold.solver.core.api.solver.SolutionManager;
 import ai.timefold.solver.core.api.solver.SolverConfigOverride;
-import ai.timefold.solver.core.api.solver.SolverManager;
-import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
 import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
 
 import com.example.demo.entity.Employee;
-import com.example.demo.entity.Shift;
-import com.example.demo.entity.OrderSchedule;
-import com.example.demo.entity.Order;
 import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.Shift;
+import com.example.demo.entity.TimeGrain;
+import com.example.demo.service.AnalysisDetail;
+import com.example.demo.service.GeneratorParameters;
+import com.example.demo.service.JobScheduler;
+import com.example.demo.service.JobState;
+import com.example.demo.service.JobStatus;
+import com.example.demo.service.LineSequenceSolver;
+import com.example.demo.service.MoveThreadSolverManagers;
+import com.example.demo.service.OrderAssignment;
+import com.example.demo.service.OrderScheduleChanges;
+import com.example.demo.service.PartitionStrategy;
+import com.example.demo.service.PartitionedSolver;
+import com.example.demo.service.Partitioning;
+import com.example.demo.service.PlanningModel;
+import com.example.demo.service.ProblemGenerator;
+import com.example.demo.service.RollingHorizon;
+import com.example.demo.service.ScheduleAnalysis;
+import com.example.demo.service.ScoreAnalysisCache;
+import com.example.demo.service.SolutionDeltaBroadcaster;
+import com.example.demo.service.SolveJob;
+import com.example.demo.wire.OrderScheduleHttpMessageConverter;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Duration;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Slf4j
 @RestController
 @RequestMapping("/schedules")
 public class SolverController {
 
-    private static final int MAX_JOBS_CACHE_SIZE = 2;
+    // 提交方标识（例如 MES 实例名），同一优先级内各提交方的任务轮流开始
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
 
-    private final SolverManager<OrderSchedule, String> solverManager;
+    private final MoveThreadSolverManagers solverManagers;
     private final SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager;
-    private final ConcurrentMap<String, Job> jobIdToJob = new ConcurrentHashMap<>();
+    private final LineSequenceSolver lineSequenceSolver;
+    private final PartitionedSolver partitionedSolver;
+    private final ProblemGenerator problemGenerator;
+    private final JobScheduler jobScheduler;
+    private final SolutionDeltaBroadcaster broadcaster;
+    private final ScoreAnalysisCache analysisCache;
 
     // @Autowired
-    public SolverController(SolverManager<OrderSchedule, String> solverManager,
-            SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager) {
-        this.solverManager = solverManager;
+    public SolverController(MoveThreadSolverManagers solverManagers,
+            SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager,
+            LineSequenceSolver lineSequenceSolver, PartitionedSolver partitionedSolver,
+            ProblemGenerator problemGenerator, JobScheduler jobScheduler, SolutionDeltaBroadcaster broadcaster,
+            ScoreAnalysisCache analysisCache) {
+        this.solverManagers = solverManagers;
         this.solutionManager = solutionManager;
+        this.lineSequenceSolver = lineSequenceSolver;
+        this.partitionedSolver = partitionedSolver;
+        this.problemGenerator = problemGenerator;
+        this.jobScheduler = jobScheduler;
+        this.broadcaster = broadcaster;
+        this.analysisCache = analysisCache;
     }
 
     // --- 列出所有 jobId ---
     @GetMapping("/list")
     public Collection<String> list() {
-        return jobIdToJob.keySet();
+        return jobScheduler.getJobIds();
     }
 
     // --- 启动求解（POST）---
+    // model：规划模型，默认 ASSIGNMENT；LINE_SEQUENCE 使用产线排序模型
+    // moveThreadCount：分配模型的移动线程数，NONE（默认）、AUTO 或具体数值，见 MoveThreadSolverManagers
+    // partitionBy：分配模型按 FUNCTION / LINE_GROUP / DATE_WINDOW（每 partitionWindowDays 天）拆成子问题并行求解，
+    //   polish=false 时跳过合并后的全局优化，见 PartitionedSolver
+    // priority：排队优先级，越大越先开始（默认 0）；请求头 X-Client-Id 标识提交方，见 JobScheduler
+    // generator：不传 problem 时用于生成问题的查询参数（seed、orderCount 等，见 GeneratorParameters）
+    // 请求体可以是完整 JSON、紧凑格式或逐行流式解析的 NDJSON（见 OrderScheduleHttpMessageConverter），
+    // 并可用 Content-Encoding: gzip 压缩
     @PostMapping("/solve")
-    public String solve(@RequestBody(required = false) OrderSchedule problem) {
-        // 如果前端不传 problem，则使用默认问题
-        OrderSchedule inputProblem = (problem != null) ? problem : createDefaultProblem();
+    public String solve(@RequestBody(required = false) OrderSchedule problem,
+            @RequestParam(required = false) PlanningModel model,
+            @RequestParam(required = false) String moveThreadCount,
+            @RequestParam(required = false) PartitionStrategy partitionBy,
+            @RequestParam(defaultValue = "" + Partitioning.DEFAULT_WINDOW_DAYS) int partitionWindowDays,
+            @RequestParam(defaultValue = "true") boolean polish,
+            @RequestParam(defaultValue = "0") int priority,
+            @RequestHeader(name = CLIENT_ID_HEADER, required = false) String clientId,
+            GeneratorParameters generator) {
+        // 如果前端不传 problem，则按查询参数生成问题（未指定时为默认规模）
+        OrderSchedule inputProblem = (problem != null) ? problem : problemGenerator.generate(generator);
+        prepareProblem(inputProblem);
+        // 先解析线程数，非法取值在创建 job 之前报错
+        int resolvedMoveThreadCount = model == PlanningModel.LINE_SEQUENCE ? 0
+                : solverManagers.resolveMoveThreadCount(moveThreadCount);
+        Partitioning partitioning = null;
+        if (partitionBy != null) {
+            if (model == PlanningModel.LINE_SEQUENCE) {
+                throw new IllegalArgumentException("Partitioned solving (partitionBy=" + partitionBy
+                        + ") is only available for the " + PlanningModel.ASSIGNMENT + " model.");
+            }
+            partitioning = new Partitioning(partitionBy, partitionWindowDays, polish);
+        }
 
         String jobId = UUID.randomUUID().toString();
-        jobIdToJob.put(jobId, Job.ofSchedule(inputProblem));
+        // 有空闲名额时立即开始，否则排队，由 JobScheduler 在名额释放时开始；队列已满时返回 429
+        jobScheduler.submit(jobId, clientId, priority, model, resolvedMoveThreadCount, partitioning, inputProblem,
+                this::startSolving);
+        return jobId;
+    }
+
+    // --- 滚动排程：以 jobId 的最新方案为基础提交新任务 ---
+    // now（默认当前时间）之前已结束的订单移出问题，在 now + freeze 之前开始的订单自动固定，
+    // 其余订单以原分配热启动、只在冻结窗口之后移动，见 RollingHorizon。新任务沿用原任务的模型、线程数与分区方式
+    @PostMapping("{jobId}/replan")
+    public String replan(@PathVariable("jobId") String jobId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime now,
+            @RequestParam(defaultValue = "PT24H") Duration freeze,
+            @RequestParam(defaultValue = "0") int priority,
+            @RequestHeader(name = CLIENT_ID_HEADER, required = false) String clientId) {
+        SolveJob previous = getJobAndCheckForExceptions(jobId);
+        OrderSchedule problem = RollingHorizon.replan(jobScheduler.getSchedule(jobId),
+                now == null ? LocalDateTime.now() : now, freeze);
+        prepareProblem(problem);
+
+        String newJobId = UUID.randomUUID().toString();
+        log.info("Re-planning jobId: {} as jobId: {} from {} ({} orders left)", jobId, newJobId,
+                problem.getPlanningStart(), problem.getOrders().size());
+        jobScheduler.submit(newJobId, clientId, priority, previous.getModel(), previous.getMoveThreadCount(),
+                previous.getPartitioning(), problem, this::startSolving);
+        return newJobId;
+    }
+
+    // 启动时从任务存储恢复：被中断的任务从最近的检查点热启动
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        jobScheduler.recover(this::startSolving);
+    }
+
+    // 由 JobScheduler 在分到名额时调用；求解结束时必须回调 complete 或 fail 以释放名额
+    private void startSolving(SolveJob job) {
+        String jobId = job.getJobId();
+        OrderSchedule inputProblem = job.getSchedule();
+        PlanningModel model = job.getModel();
+        int moveThreadCount = job.getMoveThreadCount();
+        TerminationConfig terminationConfig = new TerminationConfig()
+                .withSpentLimit(Duration.ofSeconds(300))
+                .withBestScoreLimit("0hard/0medium/0soft");
+
+        if (model == PlanningModel.LINE_SEQUENCE) {
+            SolverJob<?, String> solverJob = lineSequenceSolver.solve(jobId, inputProblem, terminationConfig,
+                    schedule -> jobScheduler.updateBestSolution(jobId, schedule),
+                    schedule -> jobScheduler.complete(jobId, schedule),
+                    (id, exception) -> {
+                        log.error("Failed solving jobId: {}", id, exception);
+                        jobScheduler.fail(id, exception);
+                    });
+            jobScheduler.setMoveEvaluationCounter(jobId, solverJob::getMoveEvaluationCount);
+            return;
+        }
+        if (job.getPartitioning() != null) {
+            partitionedSolver.solve(jobId, inputProblem, job.getPartitioning(), terminationConfig,
+                    schedule -> jobScheduler.updateBestSolution(jobId, schedule),
+                    schedule -> jobScheduler.complete(jobId, schedule),
+                    (id, exception) -> {
+                        log.error("Failed solving jobId: {}", id, exception);
+                        jobScheduler.fail(id, exception);
+                    });
+            jobScheduler.setMoveEvaluationCounter(jobId, () -> partitionedSolver.getMoveEvaluationCount(jobId));
+            return;
+        }
 
         SolverConfigOverride<OrderSchedule> withTerminationConfig = new SolverConfigOverride<OrderSchedule>()
-                .withTerminationConfig(new TerminationConfig()
-                        .withSpentLimit(Duration.ofSeconds(300))
-                        .withBestScoreLimit("0hard/0medium/0soft"));
+                .withTerminationConfig(terminationConfig);
 
-        solverManager.solveBuilder()
+        log.info("Solving jobId: {} with move thread count: {}", jobId,
+                moveThreadCount == 0 ? MoveThreadSolverManagers.NONE : moveThreadCount);
+        SolverJob<?, String> solverJob = solverManagers.assign(jobId, moveThreadCount).solveBuilder()
                 .withProblemId(jobId)
-                .withProblemFinder(id -> jobIdToJob.get(id).schedule())
-                .withFirstInitializedSolutionEventConsumer(event -> {
-                    log.info("+++++++++ First +++++++++");
-                    log.info("Solving First. First score: {}", event.solution().getScore());
-                    log.info("=========================");
-                })
+                .withProblem(inputProblem)
+                .withFirstInitializedSolutionEventConsumer(event ->
+                        log.info("Solving jobId: {} initialized. First score: {}", jobId, event.solution().getScore()))
+                // 求解初期每秒可能有数百个更优解：这里只登记，由 JobScheduler 合并限频后在后台发布
                 .withBestSolutionEventConsumer(event -> {
-                    log.info("+++++++++ Best +++++++++");
-                    jobIdToJob.put(jobId, Job.ofSchedule(event.solution()));
-                    log.info("Found better score: {}", event.solution().getScore());
-                    // printSolution(event.solution());
-                    log.info("=========================");
+                    log.debug("Found better score: {}", event.solution().getScore());
+                    jobScheduler.updateBestSolution(jobId, event.solution());
                 })
                 .withFinalBestSolutionEventConsumer(event -> {
-                    log.info("+++++++++ Final +++++++++");
-                    log.info("Solving finished. Final score: {}", event.solution().getScore());
-                    printSolution(event.solution());
-                    log.info("=========================");
+                    log.info("Solving jobId: {} finished. Final score: {}", jobId, event.solution().getScore());
+                    solverManagers.release(jobId);
+                    jobScheduler.complete(jobId, event.solution());
                 })
                 .withExceptionHandler((id, exception) -> {
                     log.error("Failed solving jobId: {}", id, exception);
-                    jobIdToJob.put(id, Job.ofException(exception));
+                    solverManagers.release(id);
+                    jobScheduler.fail(id, exception);
                 })
                 .withConfigOverride(withTerminationConfig)
                 .run();
+        jobScheduler.setMoveEvaluationCounter(jobId, solverJob::getMoveEvaluationCount);
+    }
 
-        cleanJobs();
-        return jobId;
+    // --- 生成合成问题（不求解）---
+    @GetMapping(path = "generate", produces = {MediaType.APPLICATION_JSON_VALUE,
+            OrderScheduleHttpMessageConverter.COMPACT_JSON_VALUE, OrderScheduleHttpMessageConverter.COLUMNAR_VALUE,
+            OrderScheduleHttpMessageConverter.NDJSON_VALUE})
+    public OrderSchedule generate(GeneratorParameters parameters) {
+        return problemGenerator.generate(parameters);
     }
 
     // --- 获取当前方案（含中间结果）---
-    @GetMapping(path = "{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public OrderSchedule getSchedule(@PathVariable("jobId") String jobId) {
-        OrderSchedule schedule = getScheduleAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        schedule.setSolverStatus(solverStatus); // 假设 ShiftSchedule 有 setSolverStatus
-        return schedule;
+    // ETag 为方案版本，If-None-Match 命中时返回 304，不再序列化整个方案
+    // Accept 可选紧凑格式（引用式 JSON、列式二进制或 NDJSON），见 OrderScheduleHttpMessageConverter
+    @GetMapping(path = "{jobId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            OrderScheduleHttpMessageConverter.COMPACT_JSON_VALUE, OrderScheduleHttpMessageConverter.COLUMNAR_VALUE,
+            OrderScheduleHttpMessageConverter.NDJSON_VALUE})
+    public ResponseEntity<OrderSchedule> getSchedule(@PathVariable("jobId") String jobId, WebRequest request) {
+        SolveJob job = getJobAndCheckForExceptions(jobId);
+        // 先读版本再读方案：方案至少与 ETag 一样新
+        String eTag = "\"" + JobScheduler.versionTag(job.getVersion()) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(currentSchedule(job));
     }
 
-    // --- 仅获取状态 ---
+    // --- 仅获取状态（排队中的任务含排队位置）---
+    // 状态记录随版本生成，轮询时不查询 SolverManager；排队位置变化也会改变 ETag
     @GetMapping(path = "{jobId}/status", produces = MediaType.APPLICATION_JSON_VALUE)
-    public OrderSchedule getStatus(@PathVariable("jobId") String jobId) {
-        OrderSchedule schedule = getScheduleAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        // 返回一个轻量对象（只含 score 和 status）
-        OrderSchedule statusOnly = new OrderSchedule();
-        statusOnly.setScore(schedule.getScore());
-        statusOnly.setSolverStatus(solverStatus);
-        return statusOnly;
+    public ResponseEntity<JobStatus> getStatus(@PathVariable("jobId") String jobId, WebRequest request) {
+        SolveJob job = getJobAndCheckForExceptions(jobId);
+        JobStatus status = job.getStatus();
+        Integer queuePosition = status.state() == JobState.QUEUED ? jobScheduler.getQueuePosition(jobId) : null;
+        String eTag = "\"" + JobScheduler.versionTag(status.version())
+                + (queuePosition == null ? "" : "-" + queuePosition) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(status.withQueuePosition(queuePosition));
     }
 
-    // --- 终止求解 ---
+    // --- 当前方案的得分分析 ---
+    // 每个方案版本只计算一次并缓存，见 ScoreAnalysisCache；ETag 与 GET /schedules/{jobId} 相同，版本未变时返回 304
+    // detail：SUMMARY（只有总分）、CONSTRAINTS（每个约束的得分与匹配数）或 MATCHES（默认，另附得分最差的前 top 个匹配）
+    @GetMapping(path = "{jobId}/analysis", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ScheduleAnalysis> getAnalysis(@PathVariable("jobId") String jobId,
+            @RequestParam(defaultValue = "MATCHES") AnalysisDetail detail,
+            @RequestParam(defaultValue = "10") int top,
+            WebRequest request) {
+        SolveJob job = getJobAndCheckForExceptions(jobId);
+        long version = job.getVersion();
+        String eTag = "\"" + JobScheduler.versionTag(version) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        // 并发请求可能已缓存了更新的版本，ETag 以实际返回的版本为准
+        ScheduleAnalysis analysis = analysisCache.get(jobId, version, () -> jobScheduler.getSchedule(jobId));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag("\"" + JobScheduler.versionTag(analysis.version()) + "\"")
+                .body(analysis.project(detail, Math.max(0, top)));
+    }
+
+    // --- 订阅方案变化（SSE）：每个更优解只推送有变化的订单 ---
+    // fromVersion：客户端已有的版本标记（例如 GET /schedules/{jobId} 返回的 ETag），浏览器重连时由 Last-Event-ID 自动提供
+    @GetMapping(path = "{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable("jobId") String jobId,
+            @RequestParam(required = false) String fromVersion,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        SolveJob job = getJobAndCheckForExceptions(jobId);
+        return broadcaster.subscribe(job,
+                JobScheduler.parseVersionTag(lastEventId != null ? lastEventId : fromVersion),
+                () -> jobScheduler.getSchedule(jobId));
+    }
+
+    // --- 终止求解（排队中的任务直接取消）---
     @DeleteMapping(path = "{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public OrderSchedule terminateSolving(@PathVariable("jobId") String jobId) {
-        solverManager.terminateEarly(jobId);
-        return getSchedule(jobId);
+        if (!jobScheduler.cancelQueued(jobId)) {
+            solverManagers.terminateEarly(jobId);
+            lineSequenceSolver.terminateEarly(jobId);
+            partitionedSolver.terminateEarly(jobId);
+        }
+        return currentSchedule(getJobAndCheckForExceptions(jobId));
     }
 
+    // --- 求解中修改问题：新增/删除订单、固定订单、修改员工班次、停用员工或产线 ---
+    // 只支持整体求解的分配模型。求解中的任务由求解器在两步之间应用变更，从当前最优解继续搜索，
+    // 返回的 future 在变更应用后完成；排队中的任务直接修改待求解的问题，见 OrderScheduleChanges
+
+    // 新增订单（例如插单），返回订单 id；未提供 id 时自动生成
+    @PostMapping(path = "{jobId}/orders", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<String> addOrder(@PathVariable("jobId") String jobId, @RequestBody Order order) {
+        OrderSchedule schedule = changeableSchedule(jobId);
+        if (order.getId() == null) {
+            order.setId("o-" + UUID.randomUUID());
+        } else if (find(schedule.getOrders(), Order::getId, order.getId()) != null) {
+            throw new IllegalArgumentException("Order already exists: " + order.getId());
+        }
+        return applyProblemChange(jobId, "add order " + order.getId(), OrderScheduleChanges.addOrder(order))
+                .thenApply(applied -> order.getId());
+    }
+
+    @DeleteMapping(path = "{jobId}/orders/{orderId}")
+    public CompletableFuture<Void> removeOrder(@PathVariable("jobId") String jobId,
+            @PathVariable("orderId") String orderId) {
+        require(changeableSchedule(jobId).getOrders(), Order::getId, orderId, "Order");
+        return applyProblemChange(jobId, "remove order " + orderId, OrderScheduleChanges.removeOrder(orderId));
+    }
+
+    // 固定订单；可选的请求体 {"employee","line","timeGrain"}（按名称/id 引用）先改为指定的分配
+    @PutMapping(path = "{jobId}/orders/{orderId}/pin")
+    public CompletableFuture<Void> pinOrder(@PathVariable("jobId") String jobId,
+            @PathVariable("orderId") String orderId,
+            @RequestBody(required = false) OrderAssignment assignment) {
+        OrderSchedule schedule = changeableSchedule(jobId);
+        Order order = require(schedule.getOrders(), Order::getId, orderId, "Order");
+        boolean assigned = order.getEmployee() != null && order.getLine() != null
+                && order.getStartingTimeGrain() != null;
+        if (assignment != null) {
+            if (assignment.employee() != null) {
+                require(schedule.getEmployees(), Employee::getName, assignment.employee(), "Employee");
+            }
+            if (assignment.line() != null) {
+                require(schedule.getLines(), Line::getName, assignment.line(), "Line");
+            }
+            if (assignment.timeGrain() != null) {
+                require(schedule.getTimeGrains(), TimeGrain::getId, assignment.timeGrain(), "Time grain");
+            }
+            assigned = (assignment.employee() != null || order.getEmployee() != null)
+                    && (assignment.line() != null || order.getLine() != null)
+                    && (assignment.timeGrain() != null || order.getStartingTimeGrain() != null);
+        }
+        if (!assigned) {
+            throw new IllegalArgumentException("Order " + orderId
+                    + " is not fully assigned yet, specify its employee, line and timeGrain to pin it.");
+        }
+        return applyProblemChange(jobId, "pin order " + orderId, OrderScheduleChanges.pinOrder(orderId, assignment));
+    }
+
+    @DeleteMapping(path = "{jobId}/orders/{orderId}/pin")
+    public CompletableFuture<Void> unpinOrder(@PathVariable("jobId") String jobId,
+            @PathVariable("orderId") String orderId) {
+        require(changeableSchedule(jobId).getOrders(), Order::getId, orderId, "Order");
+        return applyProblemChange(jobId, "unpin order " + orderId, OrderScheduleChanges.unpinOrder(orderId));
+    }
+
+    // 修改员工的班次（可用时间）；不传请求体表示不再有固定班次
+    @PutMapping(path = "{jobId}/employees/{name}/shift")
+    public CompletableFuture<Void> changeShift(@PathVariable("jobId") String jobId, @PathVariable("name") String name,
+            @RequestBody(required = false) Shift shift) {
+        require(changeableSchedule(jobId).getEmployees(), Employee::getName, name, "Employee");
+        return applyProblemChange(jobId, "change the shift of employee " + name,
+                OrderScheduleChanges.changeShift(name, shift));
+    }
+
+    // 停用员工（例如请假），其订单重新安排
+    @DeleteMapping(path = "{jobId}/employees/{name}")
+    public CompletableFuture<Void> removeEmployee(@PathVariable("jobId") String jobId,
+            @PathVariable("name") String name) {
+        require(changeableSchedule(jobId).getEmployees(), Employee::getName, name, "Employee");
+        return applyProblemChange(jobId, "remove employee " + name, OrderScheduleChanges.removeEmployee(name));
+    }
+
+    // 停用产线（例如设备故障），其订单重新安排
+    @DeleteMapping(path = "{jobId}/lines/{name}")
+    public CompletableFuture<Void> removeLine(@PathVariable("jobId") String jobId, @PathVariable("name") String name) {
+        require(changeableSchedule(jobId).getLines(), Line::getName, name, "Line");
+        return applyProblemChange(jobId, "remove line " + name, OrderScheduleChanges.removeLine(name));
+    }
+
+    // 分析客户端上传的方案（不属于任何任务）；任务的方案请使用 GET /schedules/{jobId}/analysis
     @PutMapping(path = "analyze", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ScoreAnalysis<HardMediumSoftScore> analyze(@RequestBody OrderSchedule problem,
             @RequestParam(required = false) ScoreAnalysisFetchPolicy fetchPolicy) {
+        prepareProblem(problem);
         return fetchPolicy == null ? solutionManager.analyze(problem) : solutionManager.analyze(problem, fetchPolicy);
     }
 
     // --- 辅助方法 ---
 
-    private OrderSchedule getScheduleAndCheckForExceptions(String jobId) {
-        Job job = jobIdToJob.get(jobId);
+    // 求解/分析前把订单引用的员工/产线副本换回共享实例，补齐订单 id，构建班次日历索引与订单级值域
+    private void prepareProblem(OrderSchedule problem) {
+        problem.relinkPlanningValues();
+        problem.assignOrderIds();
+        problem.buildShiftCalendars();
+        problem.buildValueRanges();
+    }
+
+    private SolveJob getJobAndCheckForExceptions(String jobId) {
+        SolveJob job = jobScheduler.getJob(jobId);
         if (job == null) {
             throw new RuntimeException("Job not found: " + jobId); // 可封装为自定义异常
         }
-        if (job.exception() != null) {
-            throw new RuntimeException("Job failed: " + job.exception().getMessage(), job.exception());
+        if (job.getException() != null) {
+            throw new RuntimeException("Job failed: " + job.getException().getMessage(), job.getException());
         }
-        return job.schedule();
+        return job;
     }
 
-    private void cleanJobs() {
-        if (jobIdToJob.size() <= MAX_JOBS_CACHE_SIZE) {
-            return;
+    // 可修改问题的任务的当前方案（用于校验引用）：只支持整体求解的分配模型，且任务尚未结束
+    private OrderSchedule changeableSchedule(String jobId) {
+        SolveJob job = getJobAndCheckForExceptions(jobId);
+        if (job.getModel() == PlanningModel.LINE_SEQUENCE || job.getPartitioning() != null) {
+            throw new IllegalArgumentException("Live problem changes are only available for unpartitioned "
+                    + PlanningModel.ASSIGNMENT + " jobs.");
         }
-        // 找出已完成的任务（NOT_SOLVING）并按时间排序
-        var completedJobs = jobIdToJob.entrySet().stream()
-                .filter(entry -> {
-                    SolverStatus status = solverManager.getSolverStatus(entry.getKey());
-                    return status == SolverStatus.NOT_SOLVING;
-                })
-                .sorted((e1, e2) -> e1.getValue().createdAt().compareTo(e2.getValue().createdAt()))
-                .toList();
-
-        int toRemove = completedJobs.size() - MAX_JOBS_CACHE_SIZE;
-        if (toRemove > 0) {
-            for (int i = 0; i < toRemove; i++) {
-                String jobId = completedJobs.get(i).getKey();
-                jobIdToJob.remove(jobId);
-                log.debug("Cleaned up old job: {}", jobId);
-            }
+        if (job.getState().isFinished()) {
+            throw new IllegalStateException("Job " + jobId + " is " + job.getState()
+                    + ", submit a new job to re-plan.");
         }
+        return jobScheduler.getSchedule(jobId);
     }
 
-    // --- 默认问题（用于测试）---
-    private OrderSchedule createDefaultProblem() {
-        // 构建示例数据：固定班次、员工（绑定班次）、生产线、订单（规划的字段为 null）
-        LocalDate day1 = LocalDate.of(2030, 4, 1);
-        LocalDate day2 = LocalDate.of(2030, 4, 2);
-        LocalDate day3 = LocalDate.of(2030, 4, 3);
-        LocalDate day4 = LocalDate.of(2030, 4, 4);
-
-        // 三班倒：早班 / 中班 / 夜班（夜班跨到次日）
-        Shift s1 = new Shift(day1.atTime(6, 0), day1.atTime(14, 0), "Morning");
-        Shift s2 = new Shift(day1.atTime(14, 0), day1.atTime(22, 0), "Evening");
-        Shift s3 = new Shift(day1.atTime(22, 0), day2.atTime(6, 0), "Night");
-
-        // List<Shift> shifts = List.of(s1, s2, s3);
-
-        // 员工绑定到三班（每班两人作为示例）
-        Employee e1 = new Employee("Ann", Set.of("Assembly", "Welding"), s1);
-        Employee e2 = new Employee("Bob", Set.of("Assembly", "Cutting"), s1);
-        Employee e3 = new Employee("Carl", Set.of("Assembly"), s2);
-        Employee e4 = new Employee("Dana", Set.of("Assembly", "Welding"), s2);
-        Employee e5 = new Employee("Eve", Set.of("Assembly", "Welding", "Cutting"), s3);
-        Employee e6 = new Employee("Fay", Set.of("Assembly"), s3);
-
-        List<Employee> employees = List.of(e1, e2, e3, e4, e5, e6);
-
-        // 多条生产线，不同功能
-        Line line1 = new Line("L1", List.of("Cutting", "Assembly", "Welding"));
-        Line line2 = new Line("L2", List.of("Cutting", "Assembly", "Welding"));
-        Line line3 = new Line("L3", List.of("Cutting", "Assembly", "Welding"));
-        List<Line> lines = List.of(line1, line2, line3);
-
-        // dateTimes 值域：从 day1 到 day4（含）按 TimeGrain 生成每个 15 分钟时间槽（与班次无关）
-        List<java.time.LocalDateTime> dateTimes = new java.util.ArrayList<>();
-        java.time.LocalDateTime slot = day1.atTime(6, 00);
-        java.time.LocalDateTime endSlot = day4.atTime(5, 45); // 最后一个 15 分钟槽为 23:45
-        while (!slot.isAfter(endSlot)) {
-            dateTimes.add(slot);
-            slot = slot.plusMinutes(com.example.demo.entity.TimeGrain.GRAIN_LENGTH_IN_MINUTES);
-        }
-
-        // 扩充示例订单：workHours 以分钟为单位
-        Order o1 = new Order("Widget-A", 100, 120, day1, day2, "Welding", "Cutting"); // 2 小时
-        Order o2 = new Order("Widget-B", 50, 60, day1, day3, "Assembly", "Assembly"); // 1 小时
-        Order o3 = new Order("Widget-C", 80, 30, day1, day2, "Welding", "Welding"); // 0.5 小时
-        Order o4 = new Order("Widget-D", 20, 45, day2, day3, "Cutting", "Cutting");
-        Order o5 = new Order("Widget-E", 200, 180, day1, day3, "Welding", "Welding"); // 3 小时
-        Order o6 = new Order("Widget-F", 10, 15, day2, day2, "Assembly", "Assembly");
-        Order o7 = new Order("Widget-G", 60, 90, day3, day3, "Cutting", "Cutting");
-        Order o8 = new Order("Widget-H", 40, 30, day1, day3, "Assembly", "Assembly");
-        Order o9 = new Order("Widget-I", 25, 20, day2, day3, "Welding", "Cutting");
-        Order o10 = new Order("Widget-J", 15, 10, day1, day1, "Assembly", "Assembly");
-        Order o11 = new Order("Widget-K", 70, 60, day3, day3, "Welding", "Welding");
-        Order o12 = new Order("Widget-L", 5, 15, day1, day3, "Cutting", "Cutting");
-        
-        // 示例：把 o1、o2 固定到指定员工/产线/时间
-        o1.setEmployee(e1);
-        o1.setLine(line1);
-        o1.setScheduledDateTime(day1.atTime(8,0));
-        o1.setPinned(true);
-
-        o2.setEmployee(e2);
-        o2.setLine(line2);
-        o2.setScheduledDateTime(day1.atTime(9,30));
-        o2.setPinned(true);
-
-        List<Order> ordersTmp = List.of(o1, o2, o3, o4, o5, o6, o7, o8, o9, o10, o11, o12);
-        List<Order> orders = new ArrayList<>();
-        orders.addAll(ordersTmp);
-
-        for (int i = 0; i < 100; i++) {
-            orders.add(new Order("Order-" + (i + 1), 10, 45 + (i % 5) * 15,
-                    day1.plusDays(i % 3), day3, "Assembly", "Assembly"));
+    // 排队中的任务直接修改问题，否则提交给正在求解的 SolverManager
+    private CompletableFuture<Void> applyProblemChange(String jobId, String description,
+            ProblemChange<OrderSchedule> change) {
+        log.info("Applying problem change to jobId: {}: {}", jobId, description);
+        if (jobScheduler.changeQueuedProblem(jobId, change)) {
+            return CompletableFuture.completedFuture(null);
         }
-
-        OrderSchedule problem = new OrderSchedule(employees, lines, dateTimes, orders);
-        return problem;
+        return solverManagers.addProblemChange(jobId, change);
     }
 
-    // --- 内部记录类 ---
-    private record Job(OrderSchedule schedule, LocalDateTime createdAt, Throwable exception) {
-        static Job ofSchedule(OrderSchedule schedule) {
-            return new Job(schedule, LocalDateTime.now(), null);
+    private static <T> T require(List<T> items, Function<T, String> id, String value, String kind) {
+        T item = find(items, id, value);
+        if (item == null) {
+            throw new IllegalArgumentException(kind + " not found: " + value);
         }
+        return item;
+    }
 
-        static Job ofException(Throwable error) {
-            return new Job(null, LocalDateTime.now(), error);
+    private static <T> T find(List<T> items, Function<T, String> id, String value) {
+        if (items != null) {
+            for (T item : items) {
+                if (value.equals(id.apply(item))) {
+                    return item;
+                }
+            }
         }
+        return null;
     }
 
-    private void printSolution(OrderSchedule solution) {
-        log.info("订单分配结果");
-        if (solution.getOrders() == null) {
-            return;
-        }
-        for (Order order : solution.getOrders()) {
-            String emp = order.getEmployee() != null ? order.getEmployee().getName() : "<unassigned>";
-            String line = order.getLine() != null ? order.getLine().getName() : "<unassigned>";
-            String dt = order.getScheduledDateTime() != null ? order.getScheduledDateTime().toString() : "<unassigned>";
-            log.info("  {} -> {} @ {} on {}", order.getProductName(), emp, line, dt);
-        }
+    private OrderSchedule currentSchedule(SolveJob job) {
+        OrderSchedule schedule = jobScheduler.getSchedule(job.getJobId());
+        schedule.setSolverStatus(job.getState().toSolverStatus());
+        return schedule;
     }
-}
\ No newline at end of file
+}
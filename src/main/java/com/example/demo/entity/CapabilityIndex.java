@@ -0,0 +1,85 @@
+package com.example.demo.entity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 技能/功能字典：把订单需求中出现的技能与产线功能各自编号为 {@code long} 位掩码中的一位，
+ * 员工、产线与订单据此预计算掩码（见 {@link OrderSchedule#buildValueRanges()}），约束与值域过滤中的匹配检查只需一次按位与。
+ * <p>
+ * 只有订单需要的名称才分配位，员工/产线上没有订单需要的名称不影响匹配结果。
+ * 技能与功能各最多 64 个；超出的名称不分配位（掩码为 0），匹配时退回按字符串集合查找。
+ */
+public final class CapabilityIndex {
+
+    private final Map<String, Long> skillBits;
+    private final Map<String, Long> functionBits;
+
+    private CapabilityIndex(Map<String, Long> skillBits, Map<String, Long> functionBits) {
+        this.skillBits = skillBits;
+        this.functionBits = functionBits;
+    }
+
+    /**
+     * 按订单出现的顺序为需求技能与需求功能编号。
+     */
+    public static CapabilityIndex of(List<Order> orders) {
+        Map<String, Long> skillBits = new HashMap<>();
+        Map<String, Long> functionBits = new HashMap<>();
+        if (orders != null) {
+            for (Order order : orders) {
+                assignBit(skillBits, order.getRequiredSkill());
+                assignBit(functionBits, order.getRequiredLineFunction());
+            }
+        }
+        return new CapabilityIndex(skillBits, functionBits);
+    }
+
+    private static void assignBit(Map<String, Long> bits, String name) {
+        if (name != null && bits.size() < Long.SIZE && !bits.containsKey(name)) {
+            bits.put(name, 1L << bits.size());
+        }
+    }
+
+    // 未编号（或为 null）的名称返回 0
+    public long skillBit(String skill) {
+        return skill == null ? 0L : skillBits.getOrDefault(skill, 0L);
+    }
+
+    public long functionBit(String function) {
+        return function == null ? 0L : functionBits.getOrDefault(function, 0L);
+    }
+
+    public long skillMask(Collection<String> skills) {
+        return mask(skillBits, skills);
+    }
+
+    public long functionMask(Collection<String> functions) {
+        return mask(functionBits, functions);
+    }
+
+    private static long mask(Map<String, Long> bits, Collection<String> names) {
+        long mask = 0L;
+        if (names != null) {
+            for (String name : names) {
+                mask |= bits.getOrDefault(name, 0L);
+            }
+        }
+        return mask;
+    }
+
+    public void apply(Employee employee) {
+        employee.setSkillMask(skillMask(employee.getSkills()));
+    }
+
+    public void apply(Line line) {
+        line.setFunctionMask(functionMask(line.getFunctions()));
+    }
+
+    public void apply(Order order) {
+        order.setRequiredSkillMask(skillBit(order.getRequiredSkill()));
+        order.setRequiredLineFunctionMask(functionBit(order.getRequiredLineFunction()));
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.demo.entity;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import java.util.Set;
 
 @Data
 public class Employee {
 
+    // 员工姓名（唯一）；多线程求解时用于在各线程的工作副本之间定位同一员工
+    @PlanningId
     private String name;
     private Set<String> skills;
-    // 员工所属班次（固定引用）
+    // 员工所属班次（固定引用）；求解中修改班次时换成新的员工实例（见 OrderScheduleChanges#changeShift）
     private Shift shift;
+    // 班次日历索引（由 OrderSchedule#buildShiftCalendars 构建，不参与序列化与 equals）
+    @JsonIgnore
+    private transient ShiftCalendar shiftCalendar;
+    // 技能位掩码（由 OrderSchedule#buildValueRanges 按 CapabilityIndex 构建，不参与序列化与 equals）
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private long skillMask;
 
     public Employee(String name, Set<String> skills) {
         this.name = name;
@@ -26,6 +38,16 @@ public class Employee {
         this.shift = shift;
     }
 
+    /**
+     * 是否具备技能 skill；skillBit 为该技能在 {@link CapabilityIndex} 中的位，为 0（未编号）时按技能集合查找。
+     */
+    public boolean hasSkill(String skill, long skillBit) {
+        if (skillBit != 0L) {
+            return (skillMask & skillBit) != 0L;
+        }
+        return skills != null && skills.contains(skill);
+    }
+
     @Override
     public String toString() {
         return name;
@@ -1,14 +1,24 @@
 package com.example.demo.entity;
 
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.util.List;
 
 @Data
 public class Line {
-    // 生产线名称（固定）
+    // 生产线名称（固定、唯一），同时作为多线程求解时的查找 id
+    @PlanningId
     private String name;
     // 生产线功能列表，例如 "Cutting", "Assembly" 等
     private List<String> functions;
+    // 功能位掩码（由 OrderSchedule#buildValueRanges 按 CapabilityIndex 构建，不参与序列化与 equals）
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long functionMask;
 
     public Line() {
     }
@@ -17,4 +27,14 @@ public class Line {
         this.name = name;
         this.functions = functions;
     }
+
+    /**
+     * 是否具备功能 function；functionBit 为该功能在 {@link CapabilityIndex} 中的位，为 0（未编号）时按功能列表查找。
+     */
+    public boolean hasFunction(String function, long functionBit) {
+        if (functionBit != 0L) {
+            return (functionMask & functionBit) != 0L;
+        }
+        return functions != null && functions.contains(function);
+    }
 }
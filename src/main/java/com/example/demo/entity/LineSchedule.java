@@ -0,0 +1,49 @@
+package com.example.demo.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.entity.PlanningPinToIndex;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.variable.PlanningListVariable;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 产线排序模型中的产线：按顺序持有该产线上的订单，订单开始时间由前一订单的结束时间推导（见 {@link SequencedOrder}），
+ * 因此同一产线上的订单天然不会重叠。
+ * 对象图存在环（产线 - 订单），不使用 Lombok @Data 以避免 equals/hashCode 递归。
+ */
+@Getter
+@Setter
+@PlanningEntity
+public class LineSchedule {
+
+    @PlanningId
+    private String id;
+    private Line line;
+    // 产线最早可用时刻（绝对分钟），同时作为开始时间对齐到时间槽的基准
+    private int availableFromMinute;
+
+    @PlanningListVariable
+    private List<SequencedOrder> orders = new ArrayList<>();
+
+    // 列表前部已固定的订单数量（原模型中 pinned 的订单按开始时间排在最前）
+    @PlanningPinToIndex
+    private int pinnedOrderCount;
+
+    public LineSchedule() {
+    }
+
+    public LineSchedule(Line line, int availableFromMinute) {
+        this.id = line.getName();
+        this.line = line;
+        this.availableFromMinute = availableFromMinute;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
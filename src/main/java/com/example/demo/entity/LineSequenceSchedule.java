@@ -0,0 +1,121 @@
+package com.example.demo.entity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionProperty;
+import ai.timefold.solver.core.api.domain.solution.PlanningScore;
+import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
+import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty;
+import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 产线排序模型：每条产线持有一个订单序列（{@link LineSchedule}），开始时间由序列推导。
+ * 与 {@link OrderSchedule} 互相转换，对外（REST、前端）仍以 OrderSchedule 表示结果。
+ */
+@Getter
+@Setter
+@PlanningSolution
+public class LineSequenceSchedule {
+
+    @ProblemFactCollectionProperty
+    private List<Employee> employees;
+
+    @PlanningEntityCollectionProperty
+    private List<LineSchedule> lineSchedules;
+
+    @PlanningEntityCollectionProperty
+    @ValueRangeProvider
+    private List<SequencedOrder> sequencedOrders;
+
+    @PlanningScore
+    private HardMediumSoftScore score;
+
+    public LineSequenceSchedule() {
+    }
+
+    public LineSequenceSchedule(List<Employee> employees, List<LineSchedule> lineSchedules,
+            List<SequencedOrder> sequencedOrders) {
+        this.employees = employees;
+        this.lineSchedules = lineSchedules;
+        this.sequencedOrders = sequencedOrders;
+    }
+
+    /**
+     * 由已准备好的（id、班次日历、值域已构建）OrderSchedule 构建排序模型。
+     * 已固定且完整分配的订单按开始时间放在所在产线序列的最前部并固定；其余订单待求解器放置。
+     */
+    public static LineSequenceSchedule from(OrderSchedule problem) {
+        int horizonStart = Integer.MAX_VALUE;
+        for (TimeGrain timeGrain : problem.getTimeGrains()) {
+            horizonStart = Math.min(horizonStart, timeGrain.getStartMinute());
+        }
+        // 未固定的订单不早于规划起点开始（滚动排程）
+        int movableStart = problem.getPlanningStart() == null ? horizonStart
+                : Math.max(horizonStart, TimeGrain.toMinute(problem.getPlanningStart()));
+        Map<Line, LineSchedule> lineSchedules = new LinkedHashMap<>();
+        for (Line line : problem.getLines()) {
+            lineSchedules.put(line, new LineSchedule(line, horizonStart));
+        }
+        List<SequencedOrder> sequencedOrders = new ArrayList<>(problem.getOrders().size());
+        List<SequencedOrder> pinned = new ArrayList<>();
+        for (Order order : problem.getOrders()) {
+            boolean fixed = order.isPinned() && order.getEmployee() != null && order.getLine() != null
+                    && order.getStartingTimeGrain() != null && lineSchedules.containsKey(order.getLine());
+            int earliestStart = fixed ? order.getStartMinute()
+                    : order.getEarliestDate() == null ? movableStart
+                    : Math.max(movableStart, (int) order.getEarliestDate().toEpochDay() * TimeGrain.MINUTES_PER_DAY);
+            SequencedOrder sequencedOrder = new SequencedOrder(order, earliestStart,
+                    fixed ? List.of(order.getEmployee()) : order.getEmployeeRange());
+            if (fixed) {
+                sequencedOrder.setPinned(true);
+                sequencedOrder.setEmployee(order.getEmployee());
+                pinned.add(sequencedOrder);
+            }
+            sequencedOrders.add(sequencedOrder);
+        }
+        pinned.sort(Comparator.comparingInt(SequencedOrder::getEarliestStartMinute));
+        for (SequencedOrder sequencedOrder : pinned) {
+            LineSchedule lineSchedule = lineSchedules.get(sequencedOrder.getOrder().getLine());
+            lineSchedule.getOrders().add(sequencedOrder);
+            lineSchedule.setPinnedOrderCount(lineSchedule.getPinnedOrderCount() + 1);
+        }
+        return new LineSequenceSchedule(problem.getEmployees(), new ArrayList<>(lineSchedules.values()),
+                sequencedOrders);
+    }
+
+    /**
+     * 转换回 OrderSchedule：复制原订单并写入员工、产线与开始时间槽；超出时间槽范围的订单保持未分配。
+     * 不修改原问题中的对象，score 需由调用方重新计算。
+     */
+    public OrderSchedule toOrderSchedule(OrderSchedule problem) {
+        Map<Integer, TimeGrain> grainByStartMinute = new HashMap<>(problem.getTimeGrains().size() * 2);
+        for (TimeGrain timeGrain : problem.getTimeGrains()) {
+            grainByStartMinute.put(timeGrain.getStartMinute(), timeGrain);
+        }
+        List<Order> orders = new ArrayList<>(sequencedOrders.size());
+        for (SequencedOrder sequencedOrder : sequencedOrders) {
+            Order order = sequencedOrder.getOrder().copy();
+            if (sequencedOrder.getLineSchedule() != null && sequencedOrder.getStartMinute() != null) {
+                // 开始时间超出最后一个时间槽或不在时间槽边界上时三个变量都不写，避免部分分配
+                TimeGrain timeGrain = grainByStartMinute.get(sequencedOrder.getStartMinute());
+                order.setEmployee(timeGrain == null ? null : sequencedOrder.getEmployee());
+                order.setLine(timeGrain == null ? null : sequencedOrder.getLine());
+                order.setStartingTimeGrain(timeGrain);
+            }
+            orders.add(order);
+        }
+        OrderSchedule result = new OrderSchedule(problem.getEmployees(), problem.getLines(), problem.getTimeGrains(),
+                orders);
+        result.setId(problem.getId());
+        result.setPlanningStart(problem.getPlanningStart());
+        return result;
+    }
+}
@@ -2,15 +2,25 @@ package com.example.demo.entity;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.entity.PlanningPin;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.domain.variable.PlanningVariable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @PlanningEntity
 public class Order {
+    // 订单唯一标识（未提供时由 OrderSchedule#assignOrderIds 按序号补齐）
+    @PlanningId
+    private String id;
     private String productName;
     private int quantity;
     // 以分钟为单位的预计工时（已从小时改为分钟）
@@ -21,16 +31,46 @@ public class Order {
     private String requiredSkill;
     // 需求生产线功能
     private String requiredLineFunction;
+    // 需求技能/功能在 CapabilityIndex 中的位（由 OrderSchedule#buildValueRanges 构建）；0 表示未编号，匹配时按名称查找
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long requiredSkillMask;
 
-    // 动态规划字段：分配的员工、生产线和规划生产日期时间（可能为 null）
-    @PlanningVariable(valueRangeProviderRefs = {"employees"})
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long requiredLineFunctionMask;
+
+    // 动态规划字段：分配的员工、生产线和开始时间槽（可能为 null）
+    @PlanningVariable(valueRangeProviderRefs = {"employeeRange"})
     private Employee employee;
 
-    @PlanningVariable(valueRangeProviderRefs = {"lines"})
+    @PlanningVariable(valueRangeProviderRefs = {"lineRange"})
     private Line line;
 
-    @PlanningVariable(valueRangeProviderRefs = {"dateTimes"})
-    private LocalDateTime scheduledDateTime;
+    @PlanningVariable(valueRangeProviderRefs = {"timeGrainRange"})
+    private TimeGrain startingTimeGrain;
+
+    // 订单级值域：只包含具备所需技能的员工、具备所需功能的产线、时间窗口内的时间槽
+    // 由 OrderSchedule#buildValueRanges 构建，需求相同的订单共享同一个列表
+    @ValueRangeProvider(id = "employeeRange")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<Employee> employeeRange;
+
+    @ValueRangeProvider(id = "lineRange")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<Line> lineRange;
+
+    @ValueRangeProvider(id = "timeGrainRange")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<TimeGrain> timeGrainRange;
 
     private boolean pinned = false;
 
@@ -56,4 +96,50 @@ public class Order {
         this.requiredSkill = requiredSkill;
         this.requiredLineFunction = requiredLineFunction;
     }
+
+    // 复制订单（含规划变量、固定标记、值域引用与技能/功能掩码），用于在不修改求解器内对象的情况下输出结果
+    public Order copy() {
+        Order copy = new Order(productName, quantity, workHours, earliestDate, latestDate, requiredSkill,
+                requiredLineFunction);
+        copy.setId(id);
+        copy.setEmployee(employee);
+        copy.setLine(line);
+        copy.setStartingTimeGrain(startingTimeGrain);
+        copy.setPinned(pinned);
+        copy.setEmployeeRange(employeeRange);
+        copy.setLineRange(lineRange);
+        copy.setTimeGrainRange(timeGrainRange);
+        copy.setRequiredSkillMask(requiredSkillMask);
+        copy.setRequiredLineFunctionMask(requiredLineFunctionMask);
+        return copy;
+    }
+
+    // --- 约束使用的整数时间（绝对分钟，见 TimeGrain#getStartMinute）---
+
+    // 工时至少按 1 分钟计
+    @JsonIgnore
+    public int getDurationMinutes() {
+        return Math.max(1, workHours);
+    }
+
+    @JsonIgnore
+    public int getStartMinute() {
+        return startingTimeGrain.getStartMinute();
+    }
+
+    @JsonIgnore
+    public int getEndMinute() {
+        return startingTimeGrain.getStartMinute() + getDurationMinutes();
+    }
+
+    @JsonIgnore
+    public int getStartDay() {
+        return startingTimeGrain.getEpochDay();
+    }
+
+    // 兼容前端与日志：由开始时间槽推导出的计划时间
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public LocalDateTime getScheduledDateTime() {
+        return startingTimeGrain == null ? null : startingTimeGrain.getDateTime();
+    }
 }
@@ -1,15 +1,21 @@
 package com.example.demo.entity;
 
-import java.util.List;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionProperty;
 import ai.timefold.solver.core.api.domain.solution.PlanningScore;
+import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty;
 import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
@@ -20,14 +26,17 @@ public class OrderSchedule {
 
     private SolverStatus solverStatus;
 
+    @ProblemFactCollectionProperty
     @ValueRangeProvider(id = "employees")
     private List<Employee> employees;
 
+    @ProblemFactCollectionProperty
     @ValueRangeProvider(id = "lines")
     private List<Line> lines;
 
-    @ValueRangeProvider(id = "dateTimes")
-    private List<LocalDateTime> dateTimes;
+    @ProblemFactCollectionProperty
+    @ValueRangeProvider(id = "timeGrains")
+    private List<TimeGrain> timeGrains;
 
     @PlanningEntityCollectionProperty
     private List<Order> orders;
@@ -35,6 +44,13 @@ public class OrderSchedule {
     @PlanningScore
     private HardMediumSoftScore score;
 
+    // 滚动排程的规划起点（见 RollingHorizon）：未固定的订单只能从该时刻及之后的时间槽开始；null 表示不限制
+    private LocalDateTime planningStart;
+
+    // 技能/功能字典（见 CapabilityIndex）：由 buildValueRanges 在为 null 时构建，子问题沿用原问题的字典
+    @JsonIgnore
+    private CapabilityIndex capabilityIndex;
+
     public OrderSchedule() {
     }
 
@@ -42,10 +58,240 @@ public class OrderSchedule {
         this.employees = employees;
     }
 
-    public OrderSchedule(List<Employee> employees, List<Line> lines, List<LocalDateTime> dateTimes, List<Order> orders) {
+    public OrderSchedule(List<Employee> employees, List<Line> lines, List<TimeGrain> timeGrains, List<Order> orders) {
         this.employees = employees;
         this.lines = lines;
-        this.dateTimes = dateTimes;
+        this.timeGrains = timeGrains;
         this.orders = orders;
     }
+
+    /**
+     * 为缺少 id 的订单按其在列表中的位置补齐 id（唯一订单对等约束依赖 {@code @PlanningId}）。
+     */
+    public void assignOrderIds() {
+        if (orders == null) {
+            return;
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (order.getId() == null) {
+                order.setId("o" + i);
+            }
+        }
+    }
+
+    /**
+     * JSON 中订单引用的员工/产线是独立副本（时间槽按 id 引用，反序列化时已是同一实例），
+     * 这里按 {@code @PlanningId} 换回 employees/lines 中的实例；找不到的引用保持不变。
+     */
+    public void relinkPlanningValues() {
+        if (orders == null) {
+            return;
+        }
+        Map<String, Employee> employeesByName = new HashMap<>();
+        if (employees != null) {
+            for (Employee employee : employees) {
+                employeesByName.put(employee.getName(), employee);
+            }
+        }
+        Map<String, Line> linesByName = new HashMap<>();
+        if (lines != null) {
+            for (Line line : lines) {
+                linesByName.put(line.getName(), line);
+            }
+        }
+        for (Order order : orders) {
+            if (order.getEmployee() != null) {
+                order.setEmployee(employeesByName.getOrDefault(order.getEmployee().getName(), order.getEmployee()));
+            }
+            if (order.getLine() != null) {
+                order.setLine(linesByName.getOrDefault(order.getLine().getName(), order.getLine()));
+            }
+        }
+    }
+
+    /**
+     * 为每个有班次的员工构建 {@link ShiftCalendar}，覆盖时间槽范围前后各一天，并额外覆盖最长订单工时。
+     * 求解或分析前调用一次。
+     */
+    public void buildShiftCalendars() {
+        int[] days = shiftCalendarDays();
+        if (employees == null || days == null) {
+            return;
+        }
+        for (Employee employee : employees) {
+            employee.setShiftCalendar(employee.getShift() == null ? null
+                    : ShiftCalendar.of(employee.getShift(), days[0], days[1]));
+        }
+        // 反序列化得到的订单可能引用与 employees 不同的员工实例（例如已固定的订单）
+        if (orders != null) {
+            for (Order order : orders) {
+                Employee employee = order.getEmployee();
+                if (employee != null && employee.getShiftCalendar() == null && employee.getShift() != null) {
+                    employee.setShiftCalendar(ShiftCalendar.of(employee.getShift(), days[0], days[1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * 按与 {@link #buildShiftCalendars()} 相同的范围重新构建单个员工的班次日历（例如求解中修改了班次）。
+     */
+    public void buildShiftCalendar(Employee employee) {
+        int[] days = shiftCalendarDays();
+        employee.setShiftCalendar(employee.getShift() == null || days == null ? null
+                : ShiftCalendar.of(employee.getShift(), days[0], days[1]));
+    }
+
+    // 班次日历覆盖的 [fromDay, toDay]（epoch day，含）；没有时间槽时返回 null
+    private int[] shiftCalendarDays() {
+        if (timeGrains == null || timeGrains.isEmpty()) {
+            return null;
+        }
+        int firstMinute = Integer.MAX_VALUE;
+        int lastMinute = Integer.MIN_VALUE;
+        for (TimeGrain timeGrain : timeGrains) {
+            firstMinute = Math.min(firstMinute, timeGrain.getStartMinute());
+            lastMinute = Math.max(lastMinute, timeGrain.getStartMinute());
+        }
+        int maxDuration = 0;
+        if (orders != null) {
+            for (Order order : orders) {
+                maxDuration = Math.max(maxDuration, order.getDurationMinutes());
+            }
+        }
+        return new int[] {Math.floorDiv(firstMinute, TimeGrain.MINUTES_PER_DAY) - 1,
+                Math.floorDiv(lastMinute + maxDuration, TimeGrain.MINUTES_PER_DAY) + 1};
+    }
+
+    /**
+     * 为每个订单构建值域：只保留具备所需技能的员工、具备所需功能的产线，以及开始日期在
+     * earliestDate..latestDate 内的时间槽。需求相同的订单共享同一个列表；过滤结果为空时退回完整值域，
+     * 由对应的硬约束报告不可行。时间槽值域（包括退回的完整值域）总是按开始时间排序；设置了 planningStart 时
+     * 只包含不早于它的时间槽。
+     * 同时为员工、产线与订单计算技能/功能位掩码（见 {@link #buildCapabilityMasks()}），过滤按位掩码进行。
+     */
+    public void buildValueRanges() {
+        if (orders == null) {
+            return;
+        }
+        buildCapabilityMasks();
+        List<TimeGrain> sortedGrains = startableTimeGrains();
+        sortedGrains.sort(Comparator.naturalOrder());
+        int[] grainStarts = new int[sortedGrains.size()];
+        for (int i = 0; i < grainStarts.length; i++) {
+            grainStarts[i] = sortedGrains.get(i).getStartMinute();
+        }
+
+        Map<String, List<Employee>> employeesBySkill = new HashMap<>();
+        Map<String, List<Line>> linesByFunction = new HashMap<>();
+        Map<Long, List<TimeGrain>> grainsByWindow = new HashMap<>();
+        for (Order order : orders) {
+            String skill = order.getRequiredSkill();
+            long skillBit = order.getRequiredSkillMask();
+            order.setEmployeeRange(skill == null ? employees
+                    : employeesBySkill.computeIfAbsent(skill, key -> orFull(employees.stream()
+                            .filter(e -> e.hasSkill(key, skillBit)).toList(), employees)));
+            String function = order.getRequiredLineFunction();
+            long functionBit = order.getRequiredLineFunctionMask();
+            order.setLineRange(function == null ? lines
+                    : linesByFunction.computeIfAbsent(function, key -> orFull(lines.stream()
+                            .filter(l -> l.hasFunction(key, functionBit)).toList(), lines)));
+
+            int fromDay = order.getEarliestDate() == null ? Integer.MIN_VALUE / TimeGrain.MINUTES_PER_DAY
+                    : (int) order.getEarliestDate().toEpochDay();
+            int toDay = order.getLatestDate() == null ? Integer.MAX_VALUE / TimeGrain.MINUTES_PER_DAY - 1
+                    : (int) order.getLatestDate().toEpochDay();
+            long windowKey = ((long) fromDay << 32) | (toDay & 0xFFFFFFFFL);
+            order.setTimeGrainRange(grainsByWindow.computeIfAbsent(windowKey, key -> orFull(sortedGrains.subList(
+                    lowerBound(grainStarts, fromDay * TimeGrain.MINUTES_PER_DAY),
+                    lowerBound(grainStarts, (toDay + 1) * TimeGrain.MINUTES_PER_DAY)), sortedGrains)));
+        }
+    }
+
+    /**
+     * 为单个订单（例如求解中新增的订单）构建值域，规则与 {@link #buildValueRanges()} 相同，但不与其他订单共享列表。
+     */
+    public void buildValueRanges(Order order) {
+        // 字典中没有的新技能/功能得到 0，退回按名称匹配
+        if (capabilityIndex != null) {
+            capabilityIndex.apply(order);
+        }
+        String skill = order.getRequiredSkill();
+        long skillBit = order.getRequiredSkillMask();
+        order.setEmployeeRange(skill == null ? employees : orFull(employees.stream()
+                .filter(e -> e.hasSkill(skill, skillBit)).toList(), employees));
+        String function = order.getRequiredLineFunction();
+        long functionBit = order.getRequiredLineFunctionMask();
+        order.setLineRange(function == null ? lines : orFull(lines.stream()
+                .filter(l -> l.hasFunction(function, functionBit)).toList(), lines));
+        long fromDay = order.getEarliestDate() == null ? Long.MIN_VALUE : order.getEarliestDate().toEpochDay();
+        long toDay = order.getLatestDate() == null ? Long.MAX_VALUE : order.getLatestDate().toEpochDay();
+        List<TimeGrain> startableGrains = startableTimeGrains();
+        startableGrains.sort(Comparator.naturalOrder());
+        order.setTimeGrainRange(orFull(startableGrains.stream()
+                .filter(g -> g.getEpochDay() >= fromDay && g.getEpochDay() <= toDay)
+                .toList(), startableGrains));
+    }
+
+    /**
+     * 按 {@link CapabilityIndex} 为员工、产线与订单计算技能/功能位掩码；字典为 null 时先按订单需求构建。
+     * 反序列化得到的订单可能引用与 employees/lines 不同的实例，这些实例同样计算掩码。
+     */
+    public void buildCapabilityMasks() {
+        if (capabilityIndex == null) {
+            capabilityIndex = CapabilityIndex.of(orders);
+        }
+        if (employees != null) {
+            employees.forEach(capabilityIndex::apply);
+        }
+        if (lines != null) {
+            lines.forEach(capabilityIndex::apply);
+        }
+        if (orders != null) {
+            for (Order order : orders) {
+                capabilityIndex.apply(order);
+                if (order.getEmployee() != null) {
+                    capabilityIndex.apply(order.getEmployee());
+                }
+                if (order.getLine() != null) {
+                    capabilityIndex.apply(order.getLine());
+                }
+            }
+        }
+    }
+
+    // 未固定的订单可以开始的时间槽（可修改的新列表，保持 timeGrains 的原有顺序）
+    private List<TimeGrain> startableTimeGrains() {
+        if (planningStart == null) {
+            return new ArrayList<>(timeGrains);
+        }
+        int startMinute = TimeGrain.toMinute(planningStart);
+        List<TimeGrain> startable = new ArrayList<>(timeGrains.size());
+        for (TimeGrain timeGrain : timeGrains) {
+            if (timeGrain.getStartMinute() >= startMinute) {
+                startable.add(timeGrain);
+            }
+        }
+        return startable;
+    }
+
+    private static <T> List<T> orFull(List<T> filtered, List<T> full) {
+        return filtered.isEmpty() ? full : filtered;
+    }
+
+    // 第一个 >= value 的下标
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.demo.entity;
+
+import java.util.List;
+
+import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
+import ai.timefold.solver.core.api.domain.variable.InverseRelationShadowVariable;
+import ai.timefold.solver.core.api.domain.variable.PlanningVariable;
+import ai.timefold.solver.core.api.domain.variable.PreviousElementShadowVariable;
+import ai.timefold.solver.core.api.domain.variable.ShadowSources;
+import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 产线排序模型中的订单：所在产线与前一订单为影子变量，开始时间 = max(前一订单结束 或 产线可用时刻, 最早开始时刻)，
+ * 若此时员工不在班则顺延到员工下一个班次开始，最后向上对齐到时间槽边界，便于转换回
+ * {@link Order#getStartingTimeGrain()}。员工仍为普通规划变量。
+ */
+@Getter
+@Setter
+@PlanningEntity
+public class SequencedOrder {
+
+    @PlanningId
+    private String id;
+    // 原始订单（只读，转换回 OrderSchedule 时复制）
+    private Order order;
+    private int durationMinutes;
+    // 时间窗口与规划范围共同决定的最早开始时刻（绝对分钟）；固定订单为其原开始时刻
+    private int earliestStartMinute;
+    // 原模型中已固定的订单：员工值域只含原员工，开始时间不随员工班次顺延
+    private boolean pinned;
+
+    @PlanningVariable(valueRangeProviderRefs = {"employeeRange"})
+    private Employee employee;
+
+    // 与 Order#getEmployeeRange 相同；固定订单只包含其已分配的员工
+    @ValueRangeProvider(id = "employeeRange")
+    private List<Employee> employeeRange;
+
+    @InverseRelationShadowVariable(sourceVariableName = "orders")
+    private LineSchedule lineSchedule;
+
+    @PreviousElementShadowVariable(sourceVariableName = "orders")
+    private SequencedOrder previousOrder;
+
+    @ShadowVariable(supplierName = "computeStartMinute")
+    private Integer startMinute;
+
+    public SequencedOrder() {
+    }
+
+    public SequencedOrder(Order order, int earliestStartMinute, List<Employee> employeeRange) {
+        this.id = order.getId();
+        this.order = order;
+        this.durationMinutes = order.getDurationMinutes();
+        this.earliestStartMinute = earliestStartMinute;
+        this.employeeRange = employeeRange;
+    }
+
+    @ShadowSources({ "previousOrder.startMinute", "lineSchedule", "employee" })
+    public Integer computeStartMinute() {
+        if (lineSchedule == null) {
+            return null;
+        }
+        int origin = lineSchedule.getAvailableFromMinute();
+        int ready;
+        if (previousOrder == null) {
+            ready = origin;
+        } else if (previousOrder.getStartMinute() == null) {
+            return null;
+        } else {
+            ready = previousOrder.getStartMinute() + previousOrder.getDurationMinutes();
+        }
+        int start = Math.max(ready, earliestStartMinute);
+        if (!pinned && employee != null && employee.getShiftCalendar() != null) {
+            start = employee.getShiftCalendar().nextOnShiftAtOrAfter(start);
+        }
+        // 向上对齐到时间槽边界
+        int grain = TimeGrain.GRAIN_LENGTH_IN_MINUTES;
+        return origin + Math.floorDiv(start - origin + grain - 1, grain) * grain;
+    }
+
+    public Integer getEndMinute() {
+        return startMinute == null ? null : startMinute + durationMinutes;
+    }
+
+    public int getStartDay() {
+        return Math.floorDiv(startMinute, TimeGrain.MINUTES_PER_DAY);
+    }
+
+    public Line getLine() {
+        return lineSchedule == null ? null : lineSchedule.getLine();
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
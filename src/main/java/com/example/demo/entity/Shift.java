@@ -1,6 +1,8 @@
 package com.example.demo.entity;
 
 import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
@@ -24,6 +26,17 @@ public class Shift {
         this.name = name;
     }
 
+    // 班次开始/结束对应的当天分钟数（0..1439），供约束做整数运算
+    @JsonIgnore
+    public int getStartMinuteOfDay() {
+        return start.getHour() * 60 + start.getMinute();
+    }
+
+    @JsonIgnore
+    public int getEndMinuteOfDay() {
+        return end.getHour() * 60 + end.getMinute();
+    }
+
     @Override
     public String toString() {
         return start + " - " + end;
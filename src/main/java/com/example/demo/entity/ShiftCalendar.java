@@ -0,0 +1,192 @@
+package com.example.demo.entity;
+
+import java.util.Arrays;
+
+/**
+ * 员工班次日历索引：在规划时间范围内把员工的固定班次展开为按时间排序的 [start, end) 窗口（绝对分钟，见
+ * {@link TimeGrain#getStartMinute()}），并预计算窗口长度的前缀和。
+ * 每个问题只构建一次（见 {@link OrderSchedule#buildShiftCalendars()}），约束中的加班计算均为 O(log n) 的二分查找。
+ */
+public final class ShiftCalendar {
+
+    private final int[] starts;
+    private final int[] ends;
+    // coveredBefore[i]：第 i 个窗口之前所有窗口的总分钟数
+    private final int[] coveredBefore;
+    // 班次每天的开始（当天分钟）与长度，供按日窗口计分的方法使用
+    private final int shiftStartOfDay;
+    private final int shiftLength;
+
+    private ShiftCalendar(int[] starts, int[] ends, int count, int shiftStartOfDay, int shiftLength) {
+        this.shiftStartOfDay = shiftStartOfDay;
+        this.shiftLength = shiftLength;
+        this.starts = Arrays.copyOf(starts, count);
+        this.ends = Arrays.copyOf(ends, count);
+        this.coveredBefore = new int[count];
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            coveredBefore[i] = sum;
+            sum += ends[i] - starts[i];
+        }
+    }
+
+    /**
+     * 按班次的每日时间段展开 [fromDay, toDay]（epoch day，含）内的窗口；结束不晚于开始的班次视为跨天，
+     * 开始与结束相同视为全天班次。首尾相接的窗口会合并。
+     */
+    public static ShiftCalendar of(Shift shift, int fromDay, int toDay) {
+        int startMod = shift.getStartMinuteOfDay();
+        int endMod = shift.getEndMinuteOfDay();
+        int length = endMod > startMod ? endMod - startMod : endMod - startMod + TimeGrain.MINUTES_PER_DAY;
+        int[] starts = new int[Math.max(0, toDay - fromDay + 1)];
+        int[] ends = new int[starts.length];
+        int count = 0;
+        for (int day = fromDay; day <= toDay; day++) {
+            int start = day * TimeGrain.MINUTES_PER_DAY + startMod;
+            if (count > 0 && ends[count - 1] == start) {
+                ends[count - 1] = start + length;
+            } else {
+                starts[count] = start;
+                ends[count] = start + length;
+                count++;
+            }
+        }
+        return new ShiftCalendar(starts, ends, count, startMod, length);
+    }
+
+    public int getWindowCount() {
+        return starts.length;
+    }
+
+    /**
+     * 时刻 minute 之前（不含）被班次窗口覆盖的总分钟数。
+     */
+    public int coveredMinutesBefore(int minute) {
+        int i = lastWindowStartingAtOrBefore(minute);
+        if (i < 0) {
+            return 0;
+        }
+        return coveredBefore[i] + Math.min(minute, ends[i]) - starts[i];
+    }
+
+    /**
+     * 区间 [start, end) 与班次窗口重叠的分钟数。
+     */
+    public int overlapMinutes(int start, int end) {
+        return end > start ? coveredMinutesBefore(end) - coveredMinutesBefore(start) : 0;
+    }
+
+    /**
+     * 区间 [start, end) 落在班次窗口之外的分钟数（加班分钟数）。
+     */
+    public int overtimeMinutes(int start, int end) {
+        return end > start ? (end - start) - overlapMinutes(start, end) : 0;
+    }
+
+    /**
+     * 时刻 minute 是否处于某个班次窗口内。
+     */
+    public boolean isOnShift(int minute) {
+        int i = lastWindowStartingAtOrBefore(minute);
+        return i >= 0 && minute < ends[i];
+    }
+
+    /**
+     * 不早于 minute 的最早在班时刻：minute 在班时返回自身，否则返回下一个窗口的开始；之后没有窗口时返回 minute。
+     */
+    public int nextOnShiftAtOrAfter(int minute) {
+        int i = lastWindowStartingAtOrBefore(minute);
+        if (i >= 0 && minute < ends[i]) {
+            return minute;
+        }
+        return i + 1 < starts.length ? starts[i + 1] : minute;
+    }
+
+    /**
+     * 不早于 minute、且 [start, start + duration) 完全处于同一个班次窗口内的最早开始时刻；不存在时返回 -1。
+     */
+    public int earliestStartWithinShift(int minute, int duration) {
+        for (int i = Math.max(0, lastWindowStartingAtOrBefore(minute)); i < starts.length; i++) {
+            int start = Math.max(minute, starts[i]);
+            if (start + duration <= ends[i]) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 不晚于 minute 的最近一个窗口结束时刻；不存在时返回 {@link Integer#MIN_VALUE}。
+     */
+    public int latestEndAtOrBefore(int minute) {
+        int i = lastWindowStartingAtOrBefore(minute);
+        if (i < 0) {
+            return Integer.MIN_VALUE;
+        }
+        if (ends[i] <= minute) {
+            return ends[i];
+        }
+        return i > 0 ? ends[i - 1] : Integer.MIN_VALUE;
+    }
+
+    /**
+     * 加班规则：区间 [start, end) 不完全处于开始日或前一日的班次窗口内时，必须在这两个窗口中不晚于 start 的
+     * 最近一次结束后 allowedGap 分钟内开始；两个窗口都在 start 之后结束时不视为违反，全天班次不限制。
+     * 返回是否违反该规则。
+     */
+    public boolean isLateOvertimeStart(int start, int end, int allowedGap) {
+        if (shiftLength == TimeGrain.MINUTES_PER_DAY) {
+            return false;
+        }
+        int currentStart = dayWindowStart(Math.floorDiv(start, TimeGrain.MINUTES_PER_DAY));
+        int currentEnd = currentStart + shiftLength;
+        int previousStart = currentStart - TimeGrain.MINUTES_PER_DAY;
+        int previousEnd = currentEnd - TimeGrain.MINUTES_PER_DAY;
+        if ((start >= currentStart && end <= currentEnd) || (start >= previousStart && end <= previousEnd)) {
+            return false;
+        }
+        int candidateEnd;
+        if (currentEnd <= start) {
+            candidateEnd = currentEnd;
+        } else if (previousEnd <= start) {
+            candidateEnd = previousEnd;
+        } else {
+            return false;
+        }
+        return start > candidateEnd + allowedGap;
+    }
+
+    /**
+     * 中约束计分用的加班分钟数：区间长度减去与开始日、前一日与结束日三个班次窗口的重叠分钟之和
+     * （结束日与开始日相同时开始日窗口计两次），全天班次为 0。
+     */
+    public int dailyWindowOvertimeMinutes(int start, int end) {
+        if (shiftLength == TimeGrain.MINUTES_PER_DAY) {
+            return 0;
+        }
+        int startDay = Math.floorDiv(start, TimeGrain.MINUTES_PER_DAY);
+        int endDay = Math.floorDiv(end, TimeGrain.MINUTES_PER_DAY);
+        long overlap = dayWindowOverlap(start, end, startDay) + dayWindowOverlap(start, end, startDay - 1)
+                + dayWindowOverlap(start, end, endDay);
+        int duration = end - start;
+        return (int) Math.max(0L, duration - Math.min(duration, overlap));
+    }
+
+    // 指定日期（epoch day）的班次窗口开始分钟；窗口长度为 shiftLength，夜班跨到次日
+    private int dayWindowStart(int day) {
+        return day * TimeGrain.MINUTES_PER_DAY + shiftStartOfDay;
+    }
+
+    private int dayWindowOverlap(int start, int end, int day) {
+        int windowStart = dayWindowStart(day);
+        int a = Math.max(start, windowStart);
+        int b = Math.min(end, windowStart + shiftLength);
+        return b > a ? b - a : 0;
+    }
+
+    // 最后一个 start <= minute 的窗口下标，不存在时返回 -1
+    private int lastWindowStartingAtOrBefore(int minute) {
+        int i = Arrays.binarySearch(starts, minute);
+        return i >= 0 ? i : -i - 2;
+    }
+}
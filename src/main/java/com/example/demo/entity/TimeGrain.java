@@ -1,32 +1,37 @@
 package com.example.demo.entity;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Objects;
+import java.util.List;
 
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
 @JsonIdentityInfo(scope = TimeGrain.class, generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class TimeGrain implements Comparable<TimeGrain> {
-	
-//	@PlanningVariable
-//    private TimeGrain startingTimeGrain;
 
-    private static final Comparator<TimeGrain> COMPARATOR = Comparator.comparing(TimeGrain::getDayOfYear)
-            .thenComparingInt(TimeGrain::getStartingMinuteOfDay);
+    private static final Comparator<TimeGrain> COMPARATOR = Comparator.comparingInt(TimeGrain::getStartMinute);
 
     /**
      * Time granularity is 15 minutes (which is often recommended when dealing with humans for practical purposes).
      */
     public static final int GRAIN_LENGTH_IN_MINUTES = 15;
 
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
     @PlanningId
     private String id;
     private int grainIndex;
     private Integer dayOfYear;
     private int startingMinuteOfDay;
+    // 绝对起始分钟（自 1970-01-01T00:00 起），约束中所有时间比较都基于该整数
+    private int startMinute;
 
     public TimeGrain() {
     }
@@ -42,6 +47,36 @@ public class TimeGrain implements Comparable<TimeGrain> {
         this.startingMinuteOfDay = startingMinuteOfDay;
     }
 
+    public TimeGrain(String id, int grainIndex, LocalDateTime start) {
+        this(id, grainIndex, start.getDayOfYear(), start.getHour() * 60 + start.getMinute());
+        this.startMinute = toMinute(start);
+    }
+
+    /**
+     * Consecutive grains starting at first, with their index as id.
+     */
+    public static List<TimeGrain> sequence(LocalDateTime first, int count) {
+        List<TimeGrain> timeGrains = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            timeGrains.add(new TimeGrain(String.valueOf(i), i, first.plusMinutes((long) i * GRAIN_LENGTH_IN_MINUTES)));
+        }
+        return timeGrains;
+    }
+
+    /**
+     * Converts a date time to an absolute minute (minutes since 1970-01-01T00:00).
+     */
+    public static int toMinute(LocalDateTime dateTime) {
+        return (int) Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    /**
+     * Converts an absolute minute back to a date time.
+     */
+    public static LocalDateTime toDateTime(int minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
     public String getId() {
         return id;
     }
@@ -74,6 +109,28 @@ public class TimeGrain implements Comparable<TimeGrain> {
         this.startingMinuteOfDay = startingMinuteOfDay;
     }
 
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public void setStartMinute(int startMinute) {
+        this.startMinute = startMinute;
+    }
+
+    /**
+     * Days since 1970-01-01, same as {@link java.time.LocalDate#toEpochDay()}.
+     */
+    @JsonIgnore
+    public int getEpochDay() {
+        return Math.floorDiv(startMinute, MINUTES_PER_DAY);
+    }
+
+    // 仅用于前端展示
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public LocalDateTime getDateTime() {
+        return toDateTime(startMinute);
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other)
@@ -82,21 +139,21 @@ public class TimeGrain implements Comparable<TimeGrain> {
             return false;
 
         TimeGrain timeGrain = (TimeGrain) other;
-
-        if (startingMinuteOfDay != timeGrain.startingMinuteOfDay)
-            return false;
-        return Objects.equals(dayOfYear, timeGrain.dayOfYear);
+        return startMinute == timeGrain.startMinute;
     }
 
     @Override
     public int hashCode() {
-        int result = dayOfYear != null ? dayOfYear.hashCode() : 0;
-        result = 31 * result + startingMinuteOfDay;
-        return result;
+        return Integer.hashCode(startMinute);
     }
 
     @Override
     public int compareTo(TimeGrain other) {
         return COMPARATOR.compare(this, other);
     }
+
+    @Override
+    public String toString() {
+        return getDateTime().toString();
+    }
 }
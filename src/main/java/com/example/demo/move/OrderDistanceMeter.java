@@ -0,0 +1,27 @@
+package com.example.demo.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 两个订单之间的距离：开始时间相差的分钟数，不共享产线也不共享员工时再加一天。
+ * 用于 swapMove 的 nearbySelection：交换开始时间相近、且争用同一产线或员工的订单最有可能消除冲突。
+ * 未分配开始时间的订单与其他订单的距离视为无穷远。
+ */
+public class OrderDistanceMeter implements NearbyDistanceMeter<Order, Order> {
+
+    private static final int UNSHARED_RESOURCE_PENALTY = TimeGrain.MINUTES_PER_DAY;
+
+    @Override
+    public double getNearbyDistance(Order origin, Order destination) {
+        if (origin.getStartingTimeGrain() == null || destination.getStartingTimeGrain() == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double distance = Math.abs(destination.getStartMinute() - origin.getStartMinute());
+        boolean sharesLine = origin.getLine() != null && origin.getLine() == destination.getLine();
+        boolean sharesEmployee = origin.getEmployee() != null && origin.getEmployee() == destination.getEmployee();
+        return sharesLine || sharesEmployee ? distance : distance + UNSHARED_RESOURCE_PENALTY;
+    }
+}
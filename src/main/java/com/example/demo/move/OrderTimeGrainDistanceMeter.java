@@ -0,0 +1,26 @@
+package com.example.demo.move;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 订单到候选开始时间槽的距离：与订单当前开始时间相差的分钟数。订单未分配开始时间时以其最早日期的 0 点为准，
+ * 没有最早日期时所有时间槽等距。用于开始时间槽 changeMove 的 nearbySelection。
+ */
+public class OrderTimeGrainDistanceMeter implements NearbyDistanceMeter<Order, TimeGrain> {
+
+    @Override
+    public double getNearbyDistance(Order origin, TimeGrain destination) {
+        int originMinute;
+        if (origin.getStartingTimeGrain() != null) {
+            originMinute = origin.getStartMinute();
+        } else if (origin.getEarliestDate() != null) {
+            originMinute = (int) origin.getEarliestDate().toEpochDay() * TimeGrain.MINUTES_PER_DAY;
+        } else {
+            return 0;
+        }
+        return Math.abs(destination.getStartMinute() - originMinute);
+    }
+}
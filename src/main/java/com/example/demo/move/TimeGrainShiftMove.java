@@ -0,0 +1,105 @@
+package com.example.demo.move;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 把订单的开始时间槽在其时间槽值域内前移或后移 grainDelta 个槽。目标槽在执行时由订单当前的开始时间槽推导，
+ * 因此同一个移动在整个阶段内都可以重复使用（见 {@link TimeGrainShiftMoveListFactory}）。
+ */
+public final class TimeGrainShiftMove extends AbstractMove<OrderSchedule> {
+
+    private final Order order;
+    private final int grainDelta;
+
+    public TimeGrainShiftMove(Order order, int grainDelta) {
+        this.order = order;
+        this.grainDelta = grainDelta;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public int getGrainDelta() {
+        return grainDelta;
+    }
+
+    /**
+     * 移动后的开始时间槽；订单未分配开始时间、当前槽不在值域内或移出值域时返回 null。
+     * 值域按开始时间排序（见 {@link OrderSchedule#buildValueRanges()}），查找为 O(log n)。
+     */
+    public TimeGrain getTargetTimeGrain() {
+        TimeGrain current = order.getStartingTimeGrain();
+        List<TimeGrain> range = order.getTimeGrainRange();
+        if (current == null || range == null) {
+            return null;
+        }
+        int index = Collections.binarySearch(range, current);
+        if (index < 0) {
+            return null;
+        }
+        int target = index + grainDelta;
+        return target >= 0 && target < range.size() ? range.get(target) : null;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<OrderSchedule> scoreDirector) {
+        return !order.isPinned() && getTargetTimeGrain() != null;
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<OrderSchedule> scoreDirector) {
+        TimeGrain target = getTargetTimeGrain();
+        scoreDirector.beforeVariableChanged(order, "startingTimeGrain");
+        order.setStartingTimeGrain(target);
+        scoreDirector.afterVariableChanged(order, "startingTimeGrain");
+    }
+
+    @Override
+    public TimeGrainShiftMove rebase(ScoreDirector<OrderSchedule> destinationScoreDirector) {
+        return new TimeGrainShiftMove(destinationScoreDirector.lookUpWorkingObject(order), grainDelta);
+    }
+
+    @Override
+    public Collection<?> getPlanningEntities() {
+        return List.of(order);
+    }
+
+    @Override
+    public Collection<?> getPlanningValues() {
+        TimeGrain target = getTargetTimeGrain();
+        return target == null ? List.of() : List.of(target);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TimeGrainShiftMove move)) {
+            return false;
+        }
+        return order == move.order && grainDelta == move.grainDelta;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(order), grainDelta);
+    }
+
+    @Override
+    public String toString() {
+        return order.getId() + " {" + order.getStartingTimeGrain() + " " + (grainDelta > 0 ? "+" : "")
+                + grainDelta + " -> " + getTargetTimeGrain() + "}";
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.move;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.timefold.solver.core.impl.heuristic.selector.move.factory.MoveListFactory;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+
+/**
+ * 为每个未固定的订单生成 ±1..±maxGrainDelta 个时间槽的 {@link TimeGrainShiftMove}。
+ * 移动只引用订单与偏移量，不依赖订单当前的开始时间，因此在 solverConfig.xml 中以 PHASE 缓存：
+ * 每个阶段只生成一次，之后按随机顺序反复选取。
+ * <p>
+ * 与从整个时间槽值域中任取一个值的 changeMove 相比，这里只尝试附近的开始时间（默认 ±2 小时），
+ * 局部搜索后期的大多数改进来自这类小幅调整。
+ */
+public class TimeGrainShiftMoveListFactory implements MoveListFactory<OrderSchedule> {
+
+    private int maxGrainDelta = 8;
+
+    // 由 solverConfig.xml 的 moveListFactoryCustomProperties 设置
+    public void setMaxGrainDelta(int maxGrainDelta) {
+        if (maxGrainDelta < 1) {
+            throw new IllegalArgumentException("The maxGrainDelta (" + maxGrainDelta + ") must be at least 1.");
+        }
+        this.maxGrainDelta = maxGrainDelta;
+    }
+
+    @Override
+    public List<TimeGrainShiftMove> createMoveList(OrderSchedule schedule) {
+        if (schedule.getOrders() == null) {
+            return List.of();
+        }
+        List<TimeGrainShiftMove> moves = new ArrayList<>();
+        for (Order order : schedule.getOrders()) {
+            if (order.isPinned()) {
+                continue;
+            }
+            for (int delta = 1; delta <= maxGrainDelta; delta++) {
+                moves.add(new TimeGrainShiftMove(order, -delta));
+                moves.add(new TimeGrainShiftMove(order, delta));
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+/**
+ * GET /schedules/{jobId}/analysis 返回的详细程度；缓存的分析相同，只是裁剪的内容不同。
+ */
+public enum AnalysisDetail {
+    // 只有总分
+    SUMMARY,
+    // 每个约束的权重、得分与匹配数
+    CONSTRAINTS,
+    // 另附每个约束得分最差的前 N 个匹配
+    MATCHES
+}
@@ -0,0 +1,165 @@
+package com.example.demo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 更优解的发布管道：求解线程只登记每个任务最新的发布动作，由后台线程执行（转换、版本与状态、推送、检查点），
+ * 同一任务两次发布至少间隔 minInterval，期间的更优解合并为最新的一个。每个任务最多保留一个待发布的动作。
+ * minInterval 为 0 时在调用线程上直接发布。
+ * <p>
+ * 配置了 dumpDirectory 时，最终方案逐行写入 {@code <jobId>.txt}，同样在后台线程上执行。
+ * 调度器的周期性维护（例如淘汰已结束任务）也在这个线程上运行，见 {@link #scheduleWithFixedDelay}。
+ */
+@Slf4j
+@Service
+public class BestSolutionPipeline implements DisposableBean {
+
+    private final long minIntervalNanos;
+    private final Path dumpDirectory;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "best-solution-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+    // 一个任务的待发布动作，字段由自身的监视器保护
+    private static final class Slot {
+        private Runnable pending;
+        private long lastPublishedNanos;
+        private long coalescedCount;
+
+        private Slot(long lastPublishedNanos) {
+            this.lastPublishedNanos = lastPublishedNanos;
+        }
+    }
+
+    public BestSolutionPipeline(@Value("${app.jobs.best-solution-interval:PT0.5S}") Duration minInterval,
+            @Value("${app.jobs.solution-dump-directory:}") String dumpDirectory) {
+        this.minIntervalNanos = minInterval.toNanos();
+        this.dumpDirectory = dumpDirectory == null || dumpDirectory.isBlank() ? null : Path.of(dumpDirectory);
+    }
+
+    /**
+     * 登记任务的最新发布动作，替换尚未执行的上一个。
+     */
+    void offer(String jobId, Runnable publication) {
+        if (minIntervalNanos == 0) {
+            publication.run();
+            return;
+        }
+        Slot slot = slots.computeIfAbsent(jobId, id -> new Slot(System.nanoTime() - minIntervalNanos));
+        synchronized (slot) {
+            boolean idle = slot.pending == null;
+            slot.pending = publication;
+            if (!idle) {
+                slot.coalescedCount++;
+                return;
+            }
+            long delay = Math.max(0, slot.lastPublishedNanos + minIntervalNanos - System.nanoTime());
+            executor.schedule(() -> drain(jobId, slot), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 丢弃任务尚未执行的发布动作（任务结束时由最终方案取代）。正在执行的动作不受影响。
+     */
+    void discard(String jobId) {
+        Slot slot = slots.remove(jobId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            slot.pending = null;
+            log.debug("Coalesced {} best solutions of jobId: {}", slot.coalescedCount, jobId);
+        }
+    }
+
+    /**
+     * 在后台把最终方案逐行写入 dumpDirectory，不经过日志；未配置 dumpDirectory 时什么都不做。
+     */
+    public void dump(String jobId, OrderSchedule schedule) {
+        if (dumpDirectory == null || schedule == null || schedule.getOrders() == null) {
+            return;
+        }
+        executor.execute(() -> {
+            // jobId 由服务端生成（UUID），这里仍拒绝路径分隔符，避免从目录逃逸
+            if (jobId.isEmpty() || jobId.contains("/") || jobId.contains("\\") || jobId.contains("..")) {
+                log.warn("Skipping the solution dump of invalid jobId: {}", jobId);
+                return;
+            }
+            Path file = dumpDirectory.resolve(jobId + ".txt");
+            try {
+                Files.createDirectories(dumpDirectory);
+                try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                    writer.write("score: " + schedule.getScore());
+                    writer.newLine();
+                    for (Order order : schedule.getOrders()) {
+                        String emp = order.getEmployee() != null ? order.getEmployee().getName() : "<unassigned>";
+                        String line = order.getLine() != null ? order.getLine().getName() : "<unassigned>";
+                        String dt = order.getScheduledDateTime() != null
+                                ? order.getScheduledDateTime().toString() : "<unassigned>";
+                        writer.write(order.getProductName() + " -> " + emp + " @ " + line + " on " + dt);
+                        writer.newLine();
+                    }
+                }
+                log.info("Dumped the solution of jobId: {} to {}", jobId, file);
+            } catch (IOException e) {
+                log.warn("Failed dumping the solution of jobId: {}", jobId, e);
+            }
+        });
+    }
+
+    /**
+     * 在后台线程上每隔 delay 执行一次 task；task 抛出的异常只记录日志，不影响之后的执行。
+     */
+    void scheduleWithFixedDelay(Runnable task, Duration delay) {
+        long nanos = delay.toNanos();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed running a periodic task", e);
+            }
+        }, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void drain(String jobId, Slot slot) {
+        Runnable publication;
+        synchronized (slot) {
+            publication = slot.pending;
+            slot.pending = null;
+            slot.lastPublishedNanos = System.nanoTime();
+        }
+        if (publication == null) {
+            return;
+        }
+        try {
+            publication.run();
+        } catch (RuntimeException e) {
+            log.warn("Failed publishing a best solution of jobId: {}", jobId, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
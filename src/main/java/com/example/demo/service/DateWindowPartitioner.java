@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * {@link PartitionStrategy#DATE_WINDOW}：从第一个时间槽所在日开始，每 windowDays 天为一个窗口，
+ * 未固定的订单按最早日期所在的窗口分组。各组共享全部员工与产线，但只使用本窗口内的时间槽，
+ * 因此不同组的订单在时间上互不重叠（跨过窗口末尾的长订单除外）。固定的订单加入与其时间段相交的窗口。
+ */
+final class DateWindowPartitioner implements ProblemPartitioner {
+
+    private final int windowDays;
+
+    DateWindowPartitioner(int windowDays) {
+        this.windowDays = windowDays;
+    }
+
+    @Override
+    public List<OrderSchedule> partition(OrderSchedule problem) {
+        List<TimeGrain> timeGrains = problem.getTimeGrains();
+        if (timeGrains == null || timeGrains.isEmpty()) {
+            return List.of(problem);
+        }
+        int firstDay = Integer.MAX_VALUE;
+        for (TimeGrain timeGrain : timeGrains) {
+            firstDay = Math.min(firstDay, timeGrain.getEpochDay());
+        }
+        Map<Integer, List<Order>> ordersByWindow = new TreeMap<>();
+        List<Order> pinnedOrders = new ArrayList<>();
+        for (Order order : problem.getOrders()) {
+            if (order.isPinned()) {
+                pinnedOrders.add(order);
+                continue;
+            }
+            int day = order.getEarliestDate() == null ? firstDay
+                    : (int) Math.max(firstDay, order.getEarliestDate().toEpochDay());
+            ordersByWindow.computeIfAbsent(window(day, firstDay), key -> new ArrayList<>()).add(order);
+        }
+        if (ordersByWindow.size() <= 1) {
+            return List.of(problem);
+        }
+        Map<Integer, List<TimeGrain>> grainsByWindow = new TreeMap<>();
+        for (TimeGrain timeGrain : timeGrains) {
+            grainsByWindow.computeIfAbsent(window(timeGrain.getEpochDay(), firstDay), key -> new ArrayList<>())
+                    .add(timeGrain);
+        }
+
+        List<OrderSchedule> subProblems = new ArrayList<>(ordersByWindow.size());
+        for (Map.Entry<Integer, List<Order>> entry : ordersByWindow.entrySet()) {
+            int fromMinute = (firstDay + entry.getKey() * windowDays) * TimeGrain.MINUTES_PER_DAY;
+            int toMinute = fromMinute + windowDays * TimeGrain.MINUTES_PER_DAY;
+            List<Order> orders = new ArrayList<>(entry.getValue().size());
+            int maxDuration = 0;
+            for (Order order : entry.getValue()) {
+                orders.add(order.copy());
+                maxDuration = Math.max(maxDuration, order.getDurationMinutes());
+            }
+            // 本窗口的订单最晚可以延续到窗口末尾之后 maxDuration 分钟
+            for (Order pinned : pinnedOrders) {
+                if (pinned.getStartingTimeGrain() != null && pinned.getStartMinute() < toMinute + maxDuration
+                        && pinned.getEndMinute() > fromMinute) {
+                    orders.add(pinned.copy());
+                }
+            }
+            subProblems.add(ProblemPartitioner.subProblem(problem, problem.getEmployees(), problem.getLines(),
+                    grainsByWindow.getOrDefault(entry.getKey(), timeGrains), orders));
+        }
+        return subProblems;
+    }
+
+    private int window(int day, int firstDay) {
+        return Math.floorDiv(day - firstDay, windowDays);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 直接修改问题的 {@link ProblemChangeDirector}：排队中的任务还没有求解器，{@link OrderScheduleChanges}
+ * 的变更直接应用到待求解的问题上。按 {@code @PlanningId} 在问题中查找订单、员工、产线与时间槽。
+ */
+final class DirectProblemChangeDirector implements ProblemChangeDirector {
+
+    private final OrderSchedule schedule;
+    // 按 id 的索引，以列表本身为键：变更替换了列表时重新构建（每个变更使用一个新的 director）
+    private final Map<List<?>, Map<String, ?>> indexes = new IdentityHashMap<>();
+
+    DirectProblemChangeDirector(OrderSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    @Override
+    public <Entity> void addEntity(Entity entity, Consumer<Entity> entityConsumer) {
+        entityConsumer.accept(entity);
+    }
+
+    @Override
+    public <Entity> void removeEntity(Entity entity, Consumer<Entity> entityConsumer) {
+        entityConsumer.accept(lookUpWorkingObjectOrFail(entity));
+    }
+
+    @Override
+    public <Entity> void changeVariable(Entity entity, String variableName, Consumer<Entity> entityConsumer) {
+        entityConsumer.accept(lookUpWorkingObjectOrFail(entity));
+    }
+
+    @Override
+    public <ProblemFact> void addProblemFact(ProblemFact problemFact, Consumer<ProblemFact> problemFactConsumer) {
+        problemFactConsumer.accept(problemFact);
+    }
+
+    @Override
+    public <ProblemFact> void removeProblemFact(ProblemFact problemFact, Consumer<ProblemFact> problemFactConsumer) {
+        problemFactConsumer.accept(lookUpWorkingObjectOrFail(problemFact));
+    }
+
+    @Override
+    public <EntityOrProblemFact> void changeProblemProperty(EntityOrProblemFact problemFactOrEntity,
+            Consumer<EntityOrProblemFact> problemFactOrEntityConsumer) {
+        problemFactOrEntityConsumer.accept(lookUpWorkingObjectOrFail(problemFactOrEntity));
+    }
+
+    @Override
+    public <EntityOrProblemFact> EntityOrProblemFact lookUpWorkingObjectOrFail(EntityOrProblemFact externalObject) {
+        return lookUpWorkingObject(externalObject).orElseThrow(() -> new IllegalArgumentException(
+                "The object (" + externalObject + ") does not exist in the problem."));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <EntityOrProblemFact> Optional<EntityOrProblemFact> lookUpWorkingObject(
+            EntityOrProblemFact externalObject) {
+        Object workingObject;
+        if (externalObject instanceof Order order) {
+            workingObject = find(schedule.getOrders(), Order::getId, order.getId());
+        } else if (externalObject instanceof Employee employee) {
+            workingObject = find(schedule.getEmployees(), Employee::getName, employee.getName());
+        } else if (externalObject instanceof Line line) {
+            workingObject = find(schedule.getLines(), Line::getName, line.getName());
+        } else if (externalObject instanceof TimeGrain timeGrain) {
+            workingObject = find(schedule.getTimeGrains(), TimeGrain::getId, timeGrain.getId());
+        } else {
+            throw new IllegalArgumentException("Unsupported problem object: " + externalObject);
+        }
+        return Optional.ofNullable((EntityOrProblemFact) workingObject);
+    }
+
+    // 分配模型没有影子变量
+    @Override
+    public void updateShadowVariables() {
+    }
+
+    private <T> T find(List<T> items, Function<T, String> id, String value) {
+        if (items == null || value == null) {
+            return null;
+        }
+        Map<String, ?> index = indexes.get(items);
+        if (index == null) {
+            Map<String, T> byId = new HashMap<>(items.size() * 2);
+            items.forEach(item -> byId.put(id.apply(item), item));
+            indexes.put(items, byId);
+            index = byId;
+        }
+        @SuppressWarnings("unchecked")
+        T item = (T) index.get(value);
+        return item;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * {@link ProblemGenerator} 的参数。默认值对应原来的示例问题规模（6 名员工、3 条产线、3 天、112 个订单）；
+ * 作为 REST 查询参数绑定时，未提供的字段保持默认值。
+ */
+@Data
+public class GeneratorParameters {
+
+    static final int MAX_ORDER_COUNT = 100_000;
+    static final int MAX_RESOURCE_COUNT = 10_000;
+    static final int MAX_HORIZON_DAYS = 366;
+    // 技能/产线功能组合按位编码在 long 中
+    static final int MAX_SKILL_COUNT = 63;
+
+    // 随机种子：相同种子与参数总是生成相同的问题
+    private long seed = 0L;
+    private int employeeCount = 6;
+    private int lineCount = 3;
+    // 技能（同时也是产线功能）的种类数，前三种为 Assembly / Welding / Cutting
+    private int skillCount = 3;
+    // 员工额外具备每种非主技能的概率（主技能 Assembly 人人具备）
+    private double employeeSkillProbability = 0.5;
+    // 产线额外具备每种非主功能的概率
+    private double lineFunctionProbability = 1.0;
+    // 需求主技能/主功能的订单比例，其余订单在其他技能中均匀分布
+    private double primarySkillShare = 0.9;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate = LocalDate.of(2030, 4, 1);
+    private int horizonDays = 3;
+    private int orderCount = 112;
+    // 预先固定（员工、产线、开始时间）的订单比例
+    private double pinnedFraction = 0.02;
+    // 时间窗口紧度：0 表示窗口最长可覆盖整个规划范围，1 表示最早与最晚日期相同
+    private double windowTightness = 0.5;
+
+    /**
+     * 按订单数等比放大的参数：每名员工每天约 4 个订单，产线数为员工数的一半，规划范围 4..28 天。
+     */
+    public static GeneratorParameters forOrderCount(int orderCount, long seed) {
+        GeneratorParameters parameters = new GeneratorParameters();
+        int horizonDays = Math.max(4, Math.min(28, orderCount / 500));
+        int employeeCount = Math.max(6, orderCount / (horizonDays * 4));
+        parameters.setSeed(seed);
+        parameters.setOrderCount(orderCount);
+        parameters.setHorizonDays(horizonDays);
+        parameters.setEmployeeCount(employeeCount);
+        parameters.setLineCount(Math.max(3, employeeCount / 2));
+        parameters.setPrimarySkillShare(1.0 / 3);
+        parameters.setLineFunctionProbability(0.5);
+        parameters.setPinnedFraction(0.0);
+        parameters.setWindowTightness(0.9);
+        return parameters;
+    }
+
+    void validate() {
+        checkRange("employeeCount", employeeCount, 1, MAX_RESOURCE_COUNT);
+        checkRange("lineCount", lineCount, 1, MAX_RESOURCE_COUNT);
+        checkRange("skillCount", skillCount, 1, MAX_SKILL_COUNT);
+        checkRange("horizonDays", horizonDays, 1, MAX_HORIZON_DAYS);
+        checkRange("orderCount", orderCount, 0, MAX_ORDER_COUNT);
+        checkFraction("employeeSkillProbability", employeeSkillProbability);
+        checkFraction("lineFunctionProbability", lineFunctionProbability);
+        checkFraction("primarySkillShare", primarySkillShare);
+        checkFraction("pinnedFraction", pinnedFraction);
+        checkFraction("windowTightness", windowTightness);
+        if (startDate == null) {
+            throw new IllegalArgumentException("The startDate must not be null.");
+        }
+    }
+
+    private static void checkRange(String name, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(
+                    "The " + name + " (" + value + ") must be between " + min + " and " + max + ".");
+        }
+    }
+
+    private static void checkFraction(String name, double value) {
+        if (!(value >= 0.0 && value <= 1.0)) {
+            throw new IllegalArgumentException("The " + name + " (" + value + ") must be between 0 and 1.");
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.api.solver.phase.PhaseCommand;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.ShiftCalendar;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 分配模型的贪心构造阶段（solverConfig.xml 中的 customPhase，在通用构造启发式之前运行）。
+ * <p>
+ * 未固定且未完整分配的订单按时间窗口从紧到松（可开始的时间槽数）、工时从长到短排序，逐个放到最早的可行位置：
+ * 在兼容的产线与员工（订单的值域）中，找产线与员工都空闲、且整个订单处于员工班次内的最早时间槽。
+ * 找不到时依次放宽为“在班次内开始”（加班紧接班次结束）和“不考虑班次”；仍找不到时放到值域内的第一个位置，
+ * 留给局部搜索修复。同一时刻的候选中优先选择已分得订单较少的员工与产线。订单已有的变量保持不变，
+ * 只在其余变量上选择（例如停用员工后只重新选员工）。
+ * <p>
+ * 产线与员工的占用各自维护为按开始时间排序、互不重叠的区间，“不早于 t 的最早空闲时刻”是 O(log n) 的查找，
+ * 放置过程不经过评分器。问题变更后求解器重新运行各阶段，新增或被释放的订单同样先由这里放置。
+ */
+public class GreedyConstructionPhase implements PhaseCommand<OrderSchedule> {
+
+    // 班次规则从严到宽：订单完全在班次内、在班次内开始、不考虑班次
+    private enum ShiftFit {
+        WITHIN, STARTS_ON, IGNORED
+    }
+
+    // 一条产线或一名员工的占用：互不重叠、首尾相接即合并的 [start, end) 区间
+    private static final class Occupancy {
+        private final TreeMap<Integer, Integer> busy = new TreeMap<>();
+        private int orderCount;
+
+        // 不早于 minute、且 [start, start + duration) 空闲的最早开始时刻
+        private int earliestFree(int minute, int duration) {
+            int start = minute;
+            while (true) {
+                Map.Entry<Integer, Integer> last = busy.lowerEntry(start + duration);
+                if (last == null || last.getValue() <= start) {
+                    return start;
+                }
+                start = last.getValue();
+            }
+        }
+
+        private void add(int start, int end) {
+            Map.Entry<Integer, Integer> before = busy.floorEntry(start);
+            if (before != null && before.getValue() >= start) {
+                start = before.getKey();
+                end = Math.max(end, before.getValue());
+            }
+            Map.Entry<Integer, Integer> after;
+            while ((after = busy.ceilingEntry(start)) != null && after.getKey() <= end) {
+                end = Math.max(end, after.getValue());
+                busy.remove(after.getKey());
+            }
+            busy.put(start, end);
+            orderCount++;
+        }
+    }
+
+    // 按开始时间排序的时间槽值域及其开始分钟
+    private record Grains(TimeGrain[] grains, int[] starts) {
+    }
+
+    private record Placement(Line line, Employee employee, TimeGrain timeGrain) {
+    }
+
+    private final Map<Object, Occupancy> occupancies = new IdentityHashMap<>();
+    // 值域列表在需求相同的订单之间共享，按列表本身缓存排序结果
+    private final Map<List<TimeGrain>, Grains> sortedRanges = new IdentityHashMap<>();
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<OrderSchedule> scoreDirector,
+            BooleanSupplier isPhaseTerminated) {
+        OrderSchedule schedule = scoreDirector.getWorkingSolution();
+        occupancies.clear();
+        sortedRanges.clear();
+        if (schedule.getOrders() == null) {
+            return;
+        }
+        List<Order> pending = new ArrayList<>();
+        for (Order order : schedule.getOrders()) {
+            if (order.getEmployee() != null && order.getLine() != null && order.getStartingTimeGrain() != null) {
+                occupy(order);
+            } else if (!order.isPinned()) {
+                pending.add(order);
+            }
+        }
+        pending.sort(Comparator.comparingInt((Order order) -> grains(schedule, order).grains().length)
+                .thenComparing(Comparator.comparingInt(Order::getDurationMinutes).reversed())
+                .thenComparing(Order::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        for (Order order : pending) {
+            if (isPhaseTerminated.getAsBoolean()) {
+                break;
+            }
+            Placement placement = place(schedule, order);
+            if (placement == null) {
+                continue;
+            }
+            if (order.getLine() == null) {
+                assign(scoreDirector, order, "line", () -> order.setLine(placement.line()));
+            }
+            if (order.getEmployee() == null) {
+                assign(scoreDirector, order, "employee", () -> order.setEmployee(placement.employee()));
+            }
+            if (order.getStartingTimeGrain() == null) {
+                assign(scoreDirector, order, "startingTimeGrain",
+                        () -> order.setStartingTimeGrain(placement.timeGrain()));
+            }
+            scoreDirector.triggerVariableListeners();
+            occupy(order);
+        }
+        occupancies.clear();
+        sortedRanges.clear();
+    }
+
+    private Placement place(OrderSchedule schedule, Order order) {
+        List<Line> lines = order.getLine() != null ? List.of(order.getLine())
+                : order.getLineRange() != null ? order.getLineRange() : schedule.getLines();
+        List<Employee> employees = order.getEmployee() != null ? List.of(order.getEmployee())
+                : order.getEmployeeRange() != null ? order.getEmployeeRange() : schedule.getEmployees();
+        Grains grains = order.getStartingTimeGrain() != null
+                ? new Grains(new TimeGrain[] {order.getStartingTimeGrain()},
+                        new int[] {order.getStartingTimeGrain().getStartMinute()})
+                : grains(schedule, order);
+        if (lines == null || lines.isEmpty() || employees == null || employees.isEmpty()
+                || grains.grains().length == 0) {
+            return null;
+        }
+        int duration = order.getDurationMinutes();
+        for (ShiftFit fit : ShiftFit.values()) {
+            Placement best = null;
+            int bestIndex = Integer.MAX_VALUE;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Line line : lines) {
+                Occupancy lineOccupancy = occupancy(line);
+                for (Employee employee : employees) {
+                    Occupancy employeeOccupancy = occupancy(employee);
+                    int index = earliestStart(grains, duration, lineOccupancy, employeeOccupancy,
+                            employee.getShiftCalendar(), fit, bestIndex);
+                    if (index < 0) {
+                        continue;
+                    }
+                    int load = lineOccupancy.orderCount + employeeOccupancy.orderCount;
+                    if (index < bestIndex || index == bestIndex && load < bestLoad) {
+                        best = new Placement(line, employee, grains.grains()[index]);
+                        bestIndex = index;
+                        bestLoad = load;
+                    }
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+        }
+        return new Placement(lines.get(0), employees.get(0), grains.grains()[0]);
+    }
+
+    // 产线、员工与班次规则都满足的最早时间槽下标；晚于 bound 或不存在时返回 -1
+    private static int earliestStart(Grains grains, int duration, Occupancy line, Occupancy employee,
+            ShiftCalendar calendar, ShiftFit fit, int bound) {
+        int[] starts = grains.starts();
+        int minute = starts[0];
+        while (true) {
+            int index = lowerBound(starts, minute);
+            if (index >= starts.length || index > bound) {
+                return -1;
+            }
+            minute = starts[index];
+            int next = employee.earliestFree(line.earliestFree(minute, duration), duration);
+            if (calendar != null && fit == ShiftFit.WITHIN) {
+                next = calendar.earliestStartWithinShift(next, duration);
+            } else if (calendar != null && fit == ShiftFit.STARTS_ON) {
+                next = calendar.nextOnShiftAtOrAfter(next);
+                if (!calendar.isOnShift(next)) {
+                    return -1;
+                }
+            }
+            if (next < 0) {
+                return -1;
+            }
+            if (next == minute) {
+                return index;
+            }
+            minute = next;
+        }
+    }
+
+    private void occupy(Order order) {
+        int start = order.getStartMinute();
+        int end = order.getEndMinute();
+        occupancy(order.getLine()).add(start, end);
+        occupancy(order.getEmployee()).add(start, end);
+    }
+
+    private Occupancy occupancy(Object lineOrEmployee) {
+        return occupancies.computeIfAbsent(lineOrEmployee, key -> new Occupancy());
+    }
+
+    private Grains grains(OrderSchedule schedule, Order order) {
+        List<TimeGrain> range = order.getTimeGrainRange() != null ? order.getTimeGrainRange()
+                : schedule.getTimeGrains();
+        if (range == null) {
+            return new Grains(new TimeGrain[0], new int[0]);
+        }
+        return sortedRanges.computeIfAbsent(range, key -> {
+            TimeGrain[] sorted = key.toArray(TimeGrain[]::new);
+            Arrays.sort(sorted);
+            int[] starts = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                starts[i] = sorted[i].getStartMinute();
+            }
+            return new Grains(sorted, starts);
+        });
+    }
+
+    private static void assign(ScoreDirector<OrderSchedule> scoreDirector, Order order, String variableName,
+            Runnable change) {
+        scoreDirector.beforeVariableChanged(order, variableName);
+        change.run();
+        scoreDirector.afterVariableChanged(order, variableName);
+    }
+
+    // 第一个 >= value 的下标
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
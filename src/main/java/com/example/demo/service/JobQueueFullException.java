@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 等待队列已满，拒绝新的求解请求（HTTP 429，客户端稍后重试）。
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class JobQueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,476 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import com.example.demo.entity.OrderSchedule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 求解任务调度：在 SolverManager 之前做准入控制。
+ * <ul>
+ * <li>同时求解的任务数不超过 maxConcurrentSolves（默认与 SolverManager 的 AUTO 并行数一致：核数 / 2），
+ * 其余任务进入等待队列，队列长度超过 maxQueuedJobs 时拒绝提交。</li>
+ * <li>等待队列按优先级（大者优先）排序；同一优先级内按公平排队标签排序，同一客户端连续提交的任务
+ * 与其他客户端的任务轮流开始，再按提交顺序。</li>
+ * <li>已结束的任务按结束时间保存，超过 finishedJobTtl、保留的订单总数超过 maxRetainedOrders
+ * 或堆使用率超过 maxHeapUsage 时从最早结束的开始淘汰；求解中与排队中的任务不会被淘汰。
+ * 淘汰在提交与结束任务时进行，并每隔 evictionInterval 在 {@link BestSolutionPipeline} 的后台线程上检查一次，
+ * 空闲的服务同样会按 TTL 与堆使用率释放已结束的任务。</li>
+ * <li>启用 {@link JobStore} 时，提交的问题与求解中的最优解定期写入检查点；结束的方案写入磁盘后移出堆，
+ * 读取时再从磁盘载入。重启后 {@link #recover} 恢复已结束的任务，并从最近的检查点重新排队被中断的任务。</li>
+ * <li>求解中的更优解经 {@link BestSolutionPipeline} 合并限频后在后台发布，不占用求解线程。</li>
+ * </ul>
+ * 调度状态由一把锁保护，开始求解的回调在锁外执行；任务的方案与版本变化由任务自身的监视器串行化。
+ */
+@Slf4j
+@Service
+public class JobScheduler implements InitializingBean {
+
+    public static final String DEFAULT_CLIENT_ID = "default";
+    // 本进程的版本纪元：重启后版本号从头计数，版本标记带上纪元，旧进程的 ETag / Last-Event-ID 不会误匹配
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final Comparator<SolveJob> DISPATCH_ORDER = Comparator
+            .comparingInt(SolveJob::getPriority).reversed()
+            .thenComparingLong(SolveJob::getFairnessTag)
+            .thenComparingLong(SolveJob::getSequence);
+
+    private final int maxConcurrentSolves;
+    private final int maxQueuedJobs;
+    private final Duration finishedJobTtl;
+    private final long maxRetainedOrders;
+    private final double maxHeapUsage;
+    private final Duration evictionInterval;
+    private final JobStore jobStore;
+    private final SolutionDeltaBroadcaster broadcaster;
+    private final BestSolutionPipeline pipeline;
+
+    private final ConcurrentMap<String, SolveJob> jobs = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // 以下字段由 lock 保护
+    private final TreeSet<SolveJob> queue = new TreeSet<>(DISPATCH_ORDER);
+    private final Map<String, Long> clientNextTag = new HashMap<>();
+    // 已结束任务，按结束顺序
+    private final LinkedHashMap<String, SolveJob> finishedJobs = new LinkedHashMap<>();
+    private long virtualTime;
+    private long nextSequence;
+    private int solvingCount;
+    private long retainedOrderCount;
+
+    public JobScheduler(@Value("${app.jobs.max-concurrent-solves:0}") int maxConcurrentSolves,
+            @Value("${app.jobs.max-queued-jobs:100}") int maxQueuedJobs,
+            @Value("${app.jobs.finished-job-ttl:PT1H}") Duration finishedJobTtl,
+            @Value("${app.jobs.max-retained-orders:1000000}") long maxRetainedOrders,
+            @Value("${app.jobs.max-heap-usage:0.85}") double maxHeapUsage,
+            @Value("${app.jobs.eviction-interval:PT1M}") Duration evictionInterval,
+            JobStore jobStore, SolutionDeltaBroadcaster broadcaster, BestSolutionPipeline pipeline) {
+        this.maxConcurrentSolves = maxConcurrentSolves > 0 ? maxConcurrentSolves
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.finishedJobTtl = finishedJobTtl;
+        this.maxRetainedOrders = maxRetainedOrders;
+        this.maxHeapUsage = maxHeapUsage;
+        this.evictionInterval = evictionInterval;
+        this.jobStore = jobStore;
+        this.broadcaster = broadcaster;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * 开始周期性淘汰已结束任务；evictionInterval 为 0 时只在提交与结束任务时淘汰。
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!evictionInterval.isZero() && !evictionInterval.isNegative()) {
+            pipeline.scheduleWithFixedDelay(this::evictFinishedJobs, evictionInterval);
+        }
+    }
+
+    /**
+     * 提交任务：有空闲名额时立即通过 starter 开始求解，否则排队。starter 收到任务本身（其 schedule 为待求解的问题），
+     * 应异步启动求解，并在求解结束时调用 {@link #complete} 或 {@link #fail}。
+     *
+     * @throws JobQueueFullException 等待队列已满
+     */
+    public SolveJob submit(String jobId, String clientId, int priority, PlanningModel model, int moveThreadCount,
+            Partitioning partitioning, OrderSchedule problem, Consumer<SolveJob> starter) {
+        String client = clientId == null || clientId.isBlank() ? DEFAULT_CLIENT_ID : clientId;
+        SolveJob job;
+        evictFinishedJobs();
+        synchronized (lock) {
+            if (queue.size() >= maxQueuedJobs && solvingCount >= maxConcurrentSolves) {
+                throw new JobQueueFullException("The job queue is full (" + maxQueuedJobs + " jobs), retry later.");
+            }
+            job = enqueue(jobId, client, priority, model, moveThreadCount, partitioning, Instant.now(), problem,
+                    starter);
+        }
+        // 先写检查点再写元数据：元数据存在即保证有可恢复的问题
+        jobStore.checkpoint(jobId, problem, true);
+        jobStore.saveMetadata(job);
+        dispatch();
+        return job;
+    }
+
+    /**
+     * 从 {@link JobStore} 恢复上次运行的任务：已结束的任务以移出堆的状态登记（仍按 TTL 淘汰），
+     * 排队中或求解中被中断的任务从最近的检查点热启动，按原提交顺序重新排队，由 starter 开始求解。
+     */
+    public void recover(Consumer<SolveJob> starter) {
+        List<JobStore.StoredJob> storedJobs = jobStore.loadAll();
+        List<SolveJob> finished = new ArrayList<>();
+        int resumedCount = 0;
+        for (JobStore.StoredJob storedJob : storedJobs) {
+            if (jobs.containsKey(storedJob.jobId())) {
+                continue;
+            }
+            if (storedJob.state().isFinished()) {
+                SolveJob job = new SolveJob(storedJob.jobId(), storedJob.clientId(), storedJob.priority(),
+                        storedJob.model(), storedJob.moveThreadCount(), storedJob.partitioning(), 0L, 0L,
+                        storedJob.submittedAt(), null, starter);
+                job.setState(storedJob.state());
+                job.setScore(storedJob.score() == null ? null : HardMediumSoftScore.parseScore(storedJob.score()));
+                job.setFinishedAt(storedJob.finishedAt() == null ? Instant.now() : storedJob.finishedAt());
+                if (storedJob.error() != null) {
+                    job.setException(new IllegalStateException(storedJob.error()));
+                }
+                job.advanceVersion(false);
+                finished.add(job);
+                continue;
+            }
+            OrderSchedule checkpoint;
+            try {
+                checkpoint = jobStore.loadSchedule(storedJob.jobId());
+            } catch (RuntimeException e) {
+                log.warn("Skipping unrecoverable jobId: {}", storedJob.jobId(), e);
+                continue;
+            }
+            synchronized (lock) {
+                enqueue(storedJob.jobId(), storedJob.clientId(), storedJob.priority(), storedJob.model(),
+                        storedJob.moveThreadCount(), storedJob.partitioning(), storedJob.submittedAt(), checkpoint,
+                        starter);
+            }
+            log.info("Resuming jobId: {} from its last checkpoint (score: {})", storedJob.jobId(),
+                    checkpoint.getScore());
+            resumedCount++;
+        }
+        finished.sort(Comparator.comparing(SolveJob::getFinishedAt));
+        synchronized (lock) {
+            for (SolveJob job : finished) {
+                jobs.put(job.getJobId(), job);
+                finishedJobs.put(job.getJobId(), job);
+            }
+        }
+        evictFinishedJobs();
+        log.info("Recovered {} finished and {} interrupted jobs from the job store", finished.size(), resumedCount);
+        dispatch();
+    }
+
+    // 调用方持有 lock
+    private SolveJob enqueue(String jobId, String client, int priority, PlanningModel model, int moveThreadCount,
+            Partitioning partitioning, Instant submittedAt, OrderSchedule problem, Consumer<SolveJob> starter) {
+        long tag = Math.max(virtualTime, clientNextTag.getOrDefault(client, 0L));
+        clientNextTag.put(client, tag + 1);
+        SolveJob job = new SolveJob(jobId, client, priority, model, moveThreadCount, partitioning, tag,
+                nextSequence++, submittedAt, problem, starter);
+        jobs.put(jobId, job);
+        queue.add(job);
+        return job;
+    }
+
+    public SolveJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public Collection<String> getJobIds() {
+        return jobs.keySet();
+    }
+
+    /**
+     * 任务的最新方案；已移出堆的方案从 {@link JobStore} 载入（软引用缓存）。任务不存在时返回 null。
+     */
+    public OrderSchedule getSchedule(String jobId) {
+        SolveJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        OrderSchedule schedule = job.getSchedule();
+        if (schedule != null) {
+            return schedule;
+        }
+        schedule = job.getPagedInSchedule();
+        if (schedule == null) {
+            schedule = jobStore.loadSchedule(jobId);
+            job.setPagedInSchedule(schedule);
+        }
+        return schedule;
+    }
+
+    /**
+     * 把问题变更直接应用到排队中任务的问题上，写入检查点并发布新版本；任务已开始或已结束时返回 false
+     * （求解中的任务由调用方提交给 SolverManager）。变更在调度锁内应用，期间任务不会开始。
+     */
+    public boolean changeQueuedProblem(String jobId, ProblemChange<OrderSchedule> change) {
+        SolveJob job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        OrderSchedule problem;
+        synchronized (lock) {
+            if (!queue.contains(job)) {
+                return false;
+            }
+            problem = job.getSchedule();
+            change.doChange(problem, new DirectProblemChangeDirector(problem));
+            // 检查点中的得分已不对应变更后的问题
+            problem.setScore(null);
+            job.setSchedule(problem);
+        }
+        jobStore.checkpoint(jobId, problem, true);
+        broadcaster.publish(jobId, job.advanceVersion(false), JobState.QUEUED, null, problem);
+        return true;
+    }
+
+    /**
+     * 排队中的任务在队列中的位置（1 表示下一个开始）；不在队列中时返回 null。
+     */
+    public Integer getQueuePosition(String jobId) {
+        SolveJob job = jobs.get(jobId);
+        if (job == null || job.getState() != JobState.QUEUED) {
+            return null;
+        }
+        synchronized (lock) {
+            return queue.contains(job) ? queue.headSet(job).size() + 1 : null;
+        }
+    }
+
+    /**
+     * 版本标记（ETag 与 SSE 事件 id）："纪元.版本"。
+     */
+    public static String versionTag(long version) {
+        return EPOCH + "." + version;
+    }
+
+    /**
+     * 解析版本标记；纯数字视为本进程的版本，其他纪元或无法解析时返回 null。
+     */
+    public static Long parseVersionTag(String tag) {
+        if (tag == null || tag.isBlank()) {
+            return null;
+        }
+        String version = tag.strip();
+        int separator = version.lastIndexOf('.');
+        if (separator >= 0) {
+            if (!version.substring(0, separator).equals(EPOCH)) {
+                return null;
+            }
+            version = version.substring(separator + 1);
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 关联求解中的 SolverJob 的移动评估计数，写入之后每个版本的状态记录。
+     */
+    public void setMoveEvaluationCounter(String jobId, LongSupplier counter) {
+        SolveJob job = jobs.get(jobId);
+        if (job != null && !job.getState().isFinished()) {
+            job.setMoveEvaluationCounter(counter);
+        }
+    }
+
+    public void updateBestSolution(String jobId, OrderSchedule schedule) {
+        updateBestSolution(jobId, () -> schedule);
+    }
+
+    /**
+     * 登记求解中的更优解，由 {@link BestSolutionPipeline} 合并后发布；solution 在发布时才求值，
+     * 被合并掉的更优解不会被转换。
+     */
+    public void updateBestSolution(String jobId, Supplier<OrderSchedule> solution) {
+        SolveJob job = jobs.get(jobId);
+        if (job != null && job.getState() == JobState.SOLVING) {
+            pipeline.offer(jobId, () -> publishBestSolution(job, solution));
+        }
+    }
+
+    private void publishBestSolution(SolveJob job, Supplier<OrderSchedule> solution) {
+        OrderSchedule schedule = solution.get();
+        synchronized (job) {
+            // 任务已结束时最终方案优先
+            if (job.getState() != JobState.SOLVING) {
+                return;
+            }
+            job.setSchedule(schedule);
+            broadcaster.publish(job.getJobId(), job.advanceVersion(true), job.getState(), job.getScore(), schedule);
+            jobStore.checkpoint(job.getJobId(), schedule, false);
+        }
+    }
+
+    public void complete(String jobId, OrderSchedule schedule) {
+        pipeline.dump(jobId, schedule);
+        finish(jobId, JobState.COMPLETED, schedule, null);
+    }
+
+    public void fail(String jobId, Throwable exception) {
+        finish(jobId, JobState.FAILED, null, exception);
+    }
+
+    /**
+     * 取消排队中的任务；任务已开始或已结束时返回 false（由调用方提前终止求解）。
+     */
+    public boolean cancelQueued(String jobId) {
+        SolveJob job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        synchronized (lock) {
+            if (!queue.remove(job)) {
+                return false;
+            }
+            markFinished(job, JobState.CANCELLED);
+        }
+        broadcaster.publish(jobId, job.advanceVersion(false), JobState.CANCELLED, job.getScore(), null);
+        jobStore.saveMetadata(job);
+        return true;
+    }
+
+    private void finish(String jobId, JobState state, OrderSchedule schedule, Throwable exception) {
+        SolveJob job = jobs.get(jobId);
+        if (job == null || job.getState().isFinished()) {
+            return;
+        }
+        pipeline.discard(jobId);
+        synchronized (job) {
+            if (job.getState().isFinished()) {
+                return;
+            }
+            if (schedule != null) {
+                job.setSchedule(schedule);
+            }
+            job.setException(exception);
+            // 最终方案写入磁盘后移出堆，读取时由 getSchedule 载入
+            boolean offloaded = job.getSchedule() != null && jobStore.checkpoint(jobId, job.getSchedule(), true);
+            synchronized (lock) {
+                if (job.getState() == JobState.SOLVING) {
+                    solvingCount--;
+                }
+                queue.remove(job);
+                if (offloaded) {
+                    job.setSchedule(null);
+                }
+                markFinished(job, state);
+            }
+            broadcaster.publish(jobId, job.advanceVersion(false), state, job.getScore(), schedule);
+        }
+        // 结束后不再持有 SolverJob
+        job.setMoveEvaluationCounter(null);
+        jobStore.saveMetadata(job);
+        evictFinishedJobs();
+        dispatch();
+    }
+
+    // 调用方持有 lock
+    private void markFinished(SolveJob job, JobState state) {
+        job.setState(state);
+        job.setFinishedAt(Instant.now());
+        finishedJobs.put(job.getJobId(), job);
+        retainedOrderCount += retainedOrders(job);
+    }
+
+    // 只有仍在堆中的方案计入内存预算
+    private static int retainedOrders(SolveJob job) {
+        return job.getSchedule() == null ? 0 : job.getOrderCount();
+    }
+
+    // 在名额内按队列顺序开始任务；starter 在锁外执行
+    private void dispatch() {
+        List<SolveJob> started = new ArrayList<>();
+        synchronized (lock) {
+            while (solvingCount < maxConcurrentSolves && !queue.isEmpty()) {
+                SolveJob job = queue.pollFirst();
+                job.setState(JobState.SOLVING);
+                solvingCount++;
+                virtualTime = Math.max(virtualTime, job.getFairnessTag());
+                started.add(job);
+            }
+            // 客户端标签不超前于虚拟时间时不再需要记录
+            clientNextTag.values().removeIf(tag -> tag <= virtualTime);
+        }
+        for (SolveJob job : started) {
+            broadcaster.publish(job.getJobId(), job.advanceVersion(false), JobState.SOLVING, job.getScore(), null);
+            jobStore.saveMetadata(job);
+            try {
+                log.info("Starting jobId: {} (client: {}, priority: {})", job.getJobId(), job.getClientId(),
+                        job.getPriority());
+                job.getStarter().accept(job);
+            } catch (RuntimeException e) {
+                log.error("Failed starting jobId: {}", job.getJobId(), e);
+                fail(job.getJobId(), e);
+            }
+        }
+    }
+
+    // 在锁内选出要淘汰的任务，锁外删除其存储目录（可能包含数 MB 的检查点）
+    private void evictFinishedJobs() {
+        List<String> evicted;
+        synchronized (lock) {
+            evicted = selectEvictedJobs();
+        }
+        for (String jobId : evicted) {
+            jobStore.delete(jobId);
+            log.debug("Evicted finished job: {}", jobId);
+        }
+    }
+
+    // 调用方持有 lock；finishedJobs 按结束时间有序，只需从头部检查
+    private List<String> selectEvictedJobs() {
+        List<String> evicted = new ArrayList<>();
+        Instant expiry = Instant.now().minus(finishedJobTtl);
+        // 堆使用率过高时，至少淘汰一半已结束任务保留的订单
+        long orderBudget = isHeapUsageHigh() ? Math.min(maxRetainedOrders, retainedOrderCount / 2) : maxRetainedOrders;
+        Iterator<SolveJob> iterator = finishedJobs.values().iterator();
+        while (iterator.hasNext()) {
+            SolveJob job = iterator.next();
+            if (!job.getFinishedAt().isBefore(expiry) && retainedOrderCount <= orderBudget) {
+                break;
+            }
+            iterator.remove();
+            jobs.remove(job.getJobId());
+            retainedOrderCount -= retainedOrders(job);
+            evicted.add(job.getJobId());
+        }
+        return evicted;
+    }
+
+    private boolean isHeapUsageHigh() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > maxHeapUsage * runtime.maxMemory();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+/**
+ * 求解任务在 {@link JobScheduler} 中的生命周期状态。
+ */
+public enum JobState {
+    // 排队等待求解名额
+    QUEUED,
+    SOLVING,
+    COMPLETED,
+    FAILED,
+    // 排队期间被取消，保留原始问题
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+
+    // 对外沿用 Timefold 的求解状态：排队中的任务尚未交给 SolverManager
+    public SolverStatus toSolverStatus() {
+        return switch (this) {
+            case QUEUED -> SolverStatus.SOLVING_SCHEDULED;
+            case SOLVING -> SolverStatus.SOLVING_ACTIVE;
+            default -> SolverStatus.NOT_SOLVING;
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+/**
+ * 任务状态的轻量视图（GET /schedules/{jobId}/status），在每次版本变化时预先生成。
+ * lastImprovedAt 为最近一次找到更优解的时间，moveEvaluationCount 为当时已评估的移动数；
+ * queuePosition 仅在排队时有值，1 表示下一个开始。
+ */
+public record JobStatus(String jobId, JobState state, SolverStatus solverStatus, HardMediumSoftScore score,
+        long version, Instant lastImprovedAt, long moveEvaluationCount, Integer queuePosition) {
+
+    public JobStatus withQueuePosition(Integer queuePosition) {
+        return new JobStatus(jobId, state, solverStatus, score, version, lastImprovedAt, moveEvaluationCount,
+                queuePosition);
+    }
+}
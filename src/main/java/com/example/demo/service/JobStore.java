@@ -0,0 +1,222 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+import com.example.demo.entity.OrderSchedule;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本地磁盘上的任务存储：每个任务一个目录，{@value #METADATA_FILE} 保存任务元数据（状态、优先级、模型等），
+ * {@value #CHECKPOINT_FILE} 保存最近一次检查点的方案（gzip 压缩的 JSON，与 REST 接口格式相同）。
+ * 两个文件都先写临时文件再原子替换，进程在任意时刻退出都只会留下完整的旧版本或新版本。
+ * <p>
+ * 求解中的检查点按 checkpointInterval 节流，结束时总是写入最终方案。app.jobs.store.directory 为空时
+ * 不启用，所有方案只保存在堆中。
+ */
+@Slf4j
+@Service
+public class JobStore {
+
+    static final String METADATA_FILE = "job.json";
+    static final String CHECKPOINT_FILE = "checkpoint.json.gz";
+
+    /**
+     * 持久化的任务元数据。score 为最近一次检查点的得分，error 为失败原因。
+     */
+    public record StoredJob(String jobId, String clientId, int priority, PlanningModel model, int moveThreadCount,
+            Partitioning partitioning, JobState state, Instant submittedAt, Instant finishedAt, String score, String error) {
+    }
+
+    // 得分单独以字符串保存，不依赖 Score 的 Jackson 模块
+    private record Checkpoint(String score, OrderSchedule schedule) {
+    }
+
+    @JsonIgnoreProperties({ "score", "solverStatus" })
+    private abstract static class OrderScheduleMixin {
+    }
+
+    private final Path directory;
+    private final Duration checkpointInterval;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            // 只读的派生字段（如 scheduledDateTime）会出现在输出中
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addMixIn(OrderSchedule.class, OrderScheduleMixin.class);
+    private final ConcurrentMap<String, Instant> lastCheckpoints = new ConcurrentHashMap<>();
+
+    public JobStore(@Value("${app.jobs.store.directory:}") String directory,
+            @Value("${app.jobs.store.checkpoint-interval:PT10S}") Duration checkpointInterval) {
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public void saveMetadata(SolveJob job) {
+        if (!isEnabled()) {
+            return;
+        }
+        StoredJob storedJob = new StoredJob(job.getJobId(), job.getClientId(), job.getPriority(), job.getModel(),
+                job.getMoveThreadCount(), job.getPartitioning(), job.getState(), job.getSubmittedAt(),
+                job.getFinishedAt(),
+                job.getScore() == null ? null : job.getScore().toString(),
+                job.getException() == null ? null : String.valueOf(job.getException().getMessage()));
+        try {
+            write(job.getJobId(), METADATA_FILE, out -> objectMapper.writeValue(out, storedJob));
+        } catch (IOException e) {
+            log.warn("Failed saving metadata of jobId: {}", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * 写入检查点；force 为 false 时距上次检查点不足 checkpointInterval 则跳过。
+     *
+     * @return 检查点是否已写入
+     */
+    public boolean checkpoint(String jobId, OrderSchedule schedule, boolean force) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Instant now = Instant.now();
+        Instant last = lastCheckpoints.get(jobId);
+        if (!force && last != null && last.plus(checkpointInterval).isAfter(now)) {
+            return false;
+        }
+        lastCheckpoints.put(jobId, now);
+        Checkpoint checkpoint = new Checkpoint(schedule.getScore() == null ? null : schedule.getScore().toString(),
+                schedule);
+        try {
+            write(jobId, CHECKPOINT_FILE, out -> {
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16)) {
+                    objectMapper.writeValue(gzip, checkpoint);
+                }
+            });
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed checkpointing jobId: {}", jobId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 读取最近一次检查点，并执行与控制器相同的准备步骤（重新关联员工/产线引用、订单 id、班次日历、订单级值域），
+     * 可直接展示或作为热启动的输入。
+     */
+    public OrderSchedule loadSchedule(String jobId) {
+        Path file = jobDirectory(jobId).resolve(CHECKPOINT_FILE);
+        Checkpoint checkpoint;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+            checkpoint = objectMapper.readValue(in, Checkpoint.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed reading the checkpoint (" + file + ").", e);
+        }
+        OrderSchedule schedule = checkpoint.schedule();
+        schedule.setScore(checkpoint.score() == null ? null : HardMediumSoftScore.parseScore(checkpoint.score()));
+        schedule.relinkPlanningValues();
+        schedule.assignOrderIds();
+        schedule.buildShiftCalendars();
+        schedule.buildValueRanges();
+        return schedule;
+    }
+
+    /**
+     * 读取所有任务的元数据，按提交时间排序；损坏或缺少检查点的任务会被跳过并记录日志。
+     */
+    public List<StoredJob> loadAll() {
+        List<StoredJob> storedJobs = new ArrayList<>();
+        if (!isEnabled() || !Files.isDirectory(directory)) {
+            return storedJobs;
+        }
+        try (DirectoryStream<Path> jobDirectories = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path jobDirectory : jobDirectories) {
+                Path metadata = jobDirectory.resolve(METADATA_FILE);
+                if (!Files.exists(metadata) || !Files.exists(jobDirectory.resolve(CHECKPOINT_FILE))) {
+                    log.warn("Skipping incomplete job directory: {}", jobDirectory);
+                    continue;
+                }
+                try {
+                    storedJobs.add(objectMapper.readValue(metadata.toFile(), StoredJob.class));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable job metadata: {}", metadata, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed listing the job store directory (" + directory + ").", e);
+        }
+        storedJobs.sort(Comparator.comparing(StoredJob::submittedAt));
+        return storedJobs;
+    }
+
+    public void delete(String jobId) {
+        lastCheckpoints.remove(jobId);
+        if (!isEnabled()) {
+            return;
+        }
+        Path jobDirectory = jobDirectory(jobId);
+        try (Stream<Path> files = Files.list(jobDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(jobDirectory);
+        } catch (IOException e) {
+            log.warn("Failed deleting jobId: {} from the job store", jobId, e);
+        }
+    }
+
+    private interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    // 先写同目录下的临时文件再原子替换
+    private void write(String jobId, String fileName, Writer writer) throws IOException {
+        Path jobDirectory = Files.createDirectories(jobDirectory(jobId));
+        Path temp = Files.createTempFile(jobDirectory, fileName, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.write(out);
+            }
+            Files.move(temp, jobDirectory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path jobDirectory(String jobId) {
+        // jobId 由服务端生成（UUID），这里仍拒绝路径分隔符，避免从存储目录逃逸
+        if (jobId.isEmpty() || jobId.contains("/") || jobId.contains("\\") || jobId.contains("..")) {
+            throw new IllegalArgumentException("Invalid jobId: " + jobId);
+        }
+        return directory.resolve(jobId);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import com.example.demo.constraint.LineSequenceConstraintProvider;
+import com.example.demo.entity.LineSchedule;
+import com.example.demo.entity.LineSequenceSchedule;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.SequencedOrder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 产线排序模型（{@link PlanningModel#LINE_SEQUENCE}）的求解入口：输入/输出都是 OrderSchedule，
+ * 内部转换为 {@link LineSequenceSchedule} 求解，每个更优解转换回 OrderSchedule 并按完整约束重新计分。
+ * Spring Boot 自动配置只为 OrderSchedule 创建 SolverManager，这里单独构建。
+ */
+@Slf4j
+@Service
+public class LineSequenceSolver implements DisposableBean {
+
+    private final SolverManager<LineSequenceSchedule, String> solverManager;
+    private final SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager;
+
+    public LineSequenceSolver(SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager) {
+        SolverConfig solverConfig = new SolverConfig()
+                .withSolutionClass(LineSequenceSchedule.class)
+                .withEntityClasses(LineSchedule.class, SequencedOrder.class)
+                .withConstraintProviderClass(LineSequenceConstraintProvider.class);
+        this.solverManager = SolverManager.create(SolverFactory.create(solverConfig));
+        this.solutionManager = solutionManager;
+    }
+
+    /**
+     * 异步求解已准备好的问题；finalBestSolutionConsumer 收到的是转换并重新计分后的 OrderSchedule。
+     * bestSolutionConsumer 收到的是延迟的 OrderSchedule：调用 get() 时才转换，发布前被合并掉的更优解不做转换。
+     */
+    public SolverJob<LineSequenceSchedule, String> solve(String jobId, OrderSchedule problem,
+            TerminationConfig terminationConfig,
+            Consumer<Supplier<OrderSchedule>> bestSolutionConsumer,
+            Consumer<OrderSchedule> finalBestSolutionConsumer,
+            BiConsumer<String, Throwable> exceptionHandler) {
+        LineSequenceSchedule sequenceProblem = LineSequenceSchedule.from(problem);
+        return solverManager.solveBuilder()
+                .withProblemId(jobId)
+                .withProblem(sequenceProblem)
+                .withBestSolutionEventConsumer(event -> {
+                    log.debug("Found better line sequence score: {}", event.solution().getScore());
+                    LineSequenceSchedule solution = event.solution();
+                    bestSolutionConsumer.accept(() -> toOrderSchedule(solution, problem));
+                })
+                .withFinalBestSolutionEventConsumer(event -> {
+                    OrderSchedule schedule = toOrderSchedule(event.solution(), problem);
+                    log.info("Line sequence solving finished. Final score: {}", schedule.getScore());
+                    finalBestSolutionConsumer.accept(schedule);
+                })
+                .withExceptionHandler(exceptionHandler)
+                .withConfigOverride(new SolverConfigOverride<LineSequenceSchedule>()
+                        .withTerminationConfig(terminationConfig))
+                .run();
+    }
+
+    public SolverStatus getSolverStatus(String jobId) {
+        return solverManager.getSolverStatus(jobId);
+    }
+
+    public void terminateEarly(String jobId) {
+        solverManager.terminateEarly(jobId);
+    }
+
+    @Override
+    public void destroy() {
+        solverManager.close();
+    }
+
+    private OrderSchedule toOrderSchedule(LineSequenceSchedule solution, OrderSchedule problem) {
+        OrderSchedule schedule = solution.toOrderSchedule(problem);
+        solutionManager.update(schedule);
+        return schedule;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+
+import com.example.demo.entity.OrderSchedule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按移动线程数（moveThreadCount）为分配模型提供 SolverManager：NONE 使用 Spring Boot 自动配置的单线程
+ * SolverManager，其他线程数各自懒加载一个基于 solverConfig.xml 的 SolverManager。记录每个 job 所在的
+ * SolverManager，以便查询状态与提前终止。
+ * <p>
+ * {@value #AUTO} 按可用核数与当前正在求解的 job 数平分移动线程（少于 2 个时退回单线程）。
+ * 多线程增量求解需要 Timefold Solver Enterprise Edition；社区版中 AUTO 退回单线程，显式的线程数会直接报错。
+ */
+@Slf4j
+@Service
+public class MoveThreadSolverManagers implements DisposableBean {
+
+    public static final String NONE = "NONE";
+    public static final String AUTO = "AUTO";
+    // 超过该数量后每个移动线程的收益很小，AUTO 不会为单个 job 分配更多
+    static final int MAX_AUTO_MOVE_THREADS = 8;
+    // 留给 Web 线程与求解主线程的核数
+    private static final int RESERVED_CORES = 2;
+    private static final String SOLVER_CONFIG_RESOURCE = "solverConfig.xml";
+
+    private final SolverManager<OrderSchedule, String> singleThreadedSolverManager;
+    private final ConcurrentMap<Integer, SolverManager<OrderSchedule, String>> solverManagersByThreadCount =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SolverManager<OrderSchedule, String>> jobIdToSolverManager =
+            new ConcurrentHashMap<>();
+    private volatile Boolean multithreadingAvailable;
+
+    public MoveThreadSolverManagers(SolverManager<OrderSchedule, String> solverManager) {
+        this.singleThreadedSolverManager = solverManager;
+    }
+
+    /**
+     * 解析请求的移动线程数（null、NONE、AUTO 或正整数），返回实际使用的线程数，0 表示单线程求解。
+     */
+    public int resolveMoveThreadCount(String moveThreadCount) {
+        if (moveThreadCount == null || moveThreadCount.isBlank() || NONE.equalsIgnoreCase(moveThreadCount)) {
+            return 0;
+        }
+        if (AUTO.equalsIgnoreCase(moveThreadCount)) {
+            if (!isMultithreadingAvailable()) {
+                return 0;
+            }
+            int availableCores = Runtime.getRuntime().availableProcessors() - RESERVED_CORES;
+            int threadCount = Math.min(MAX_AUTO_MOVE_THREADS, availableCores / (countSolvingJobs() + 1));
+            return threadCount >= 2 ? threadCount : 0;
+        }
+        int threadCount;
+        try {
+            threadCount = Integer.parseInt(moveThreadCount.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The moveThreadCount (" + moveThreadCount
+                    + ") must be " + NONE + ", " + AUTO + " or a positive integer.", e);
+        }
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The moveThreadCount (" + moveThreadCount + ") must be positive.");
+        }
+        if (!isMultithreadingAvailable()) {
+            throw new IllegalStateException("The moveThreadCount (" + moveThreadCount
+                    + ") requires Timefold Solver Enterprise Edition on the classpath.");
+        }
+        return threadCount;
+    }
+
+    /**
+     * 为 job 选择对应线程数的 SolverManager 并记录下来；job 结束后调用 {@link #release(String)}。
+     */
+    public SolverManager<OrderSchedule, String> assign(String jobId, int moveThreadCount) {
+        SolverManager<OrderSchedule, String> solverManager = moveThreadCount == 0 ? singleThreadedSolverManager
+                : solverManagersByThreadCount.computeIfAbsent(moveThreadCount, count -> SolverManager.create(
+                        SolverFactory.create(solverConfig(Integer.toString(count)))));
+        jobIdToSolverManager.put(jobId, solverManager);
+        return solverManager;
+    }
+
+    public void release(String jobId) {
+        jobIdToSolverManager.remove(jobId);
+    }
+
+    public SolverStatus getSolverStatus(String jobId) {
+        return jobIdToSolverManager.getOrDefault(jobId, singleThreadedSolverManager).getSolverStatus(jobId);
+    }
+
+    public void terminateEarly(String jobId) {
+        jobIdToSolverManager.getOrDefault(jobId, singleThreadedSolverManager).terminateEarly(jobId);
+    }
+
+    /**
+     * 向求解中的 job 提交问题变更，返回的 future 在求解器应用变更后完成。
+     */
+    public CompletableFuture<Void> addProblemChange(String jobId, ProblemChange<OrderSchedule> problemChange) {
+        return jobIdToSolverManager.getOrDefault(jobId, singleThreadedSolverManager)
+                .addProblemChange(jobId, problemChange);
+    }
+
+    private int countSolvingJobs() {
+        int count = 0;
+        for (Map.Entry<String, SolverManager<OrderSchedule, String>> entry : jobIdToSolverManager.entrySet()) {
+            if (entry.getValue().getSolverStatus(entry.getKey()) == SolverStatus.SOLVING_ACTIVE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 社区版在构建多线程求解器时抛出 IllegalStateException；只探测一次
+    private boolean isMultithreadingAvailable() {
+        Boolean available = multithreadingAvailable;
+        if (available == null) {
+            try {
+                SolverFactory.create(solverConfig("2")).buildSolver();
+                available = true;
+            } catch (IllegalStateException e) {
+                log.warn("Multi-threaded solving is unavailable, AUTO move threads fall back to NONE: {}",
+                        e.getMessage());
+                available = false;
+            }
+            multithreadingAvailable = available;
+        }
+        return available;
+    }
+
+    private static SolverConfig solverConfig(String moveThreadCount) {
+        return SolverConfig.createFromXmlResource(SOLVER_CONFIG_RESOURCE).withMoveThreadCount(moveThreadCount);
+    }
+
+    @Override
+    public void destroy() {
+        solverManagersByThreadCount.values().forEach(SolverManager::close);
+    }
+}
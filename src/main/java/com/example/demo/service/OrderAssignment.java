@@ -0,0 +1,33 @@
+package com.example.demo.service;
+
+import java.util.Objects;
+
+import com.example.demo.entity.Order;
+
+/**
+ * 单个订单的分配结果：按名称/id 引用员工、产线与开始时间槽（未分配为 null），是增量推送的最小单位。
+ */
+public record OrderAssignment(String id, String employee, String line, String timeGrain) {
+
+    static OrderAssignment of(Order order) {
+        return new OrderAssignment(order.getId(), employeeOf(order), lineOf(order), timeGrainOf(order));
+    }
+
+    // 与订单当前的分配比较，不分配新对象
+    boolean matches(Order order) {
+        return Objects.equals(employee, employeeOf(order)) && Objects.equals(line, lineOf(order))
+                && Objects.equals(timeGrain, timeGrainOf(order));
+    }
+
+    private static String employeeOf(Order order) {
+        return order.getEmployee() == null ? null : order.getEmployee().getName();
+    }
+
+    private static String lineOf(Order order) {
+        return order.getLine() == null ? null : order.getLine().getName();
+    }
+
+    private static String timeGrainOf(Order order) {
+        return order.getStartingTimeGrain() == null ? null : order.getStartingTimeGrain().getId();
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.Shift;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 分配模型在求解中的问题变更（{@link ProblemChange}）：新增/删除订单、固定/取消固定订单、修改员工班次、
+ * 停用员工或产线。求解中的任务通过 SolverManager#addProblemChange 提交，求解器在两步之间应用变更后
+ * 从当前最优解继续搜索，新增或被释放的订单由构造启发式重新安排；排队中的任务由
+ * {@link JobScheduler#changeQueuedProblem} 直接应用到待求解的问题上。
+ * <p>
+ * 变更按 {@code @PlanningId}（订单 id、员工/产线名称、时间槽 id）查找工作副本中的对象，找不到时忽略，
+ * 引用是否存在由调用方在提交前校验。员工、产线等问题事实及其列表在求解器的各个副本、已发布的最优解与检查点之间共享，
+ * 因此总是替换为新实例、新列表而不是原地修改。
+ */
+public final class OrderScheduleChanges {
+
+    private OrderScheduleChanges() {
+    }
+
+    /**
+     * 新增订单：以未分配、未固定的副本加入，值域按工作副本的员工、产线与时间槽构建。
+     */
+    public static ProblemChange<OrderSchedule> addOrder(Order order) {
+        return (schedule, director) -> {
+            Order added = order.copy();
+            added.setEmployee(null);
+            added.setLine(null);
+            added.setStartingTimeGrain(null);
+            added.setPinned(false);
+            schedule.buildValueRanges(added);
+            director.addEntity(added, o -> schedule.setOrders(with(schedule.getOrders(), o)));
+        };
+    }
+
+    public static ProblemChange<OrderSchedule> removeOrder(String orderId) {
+        return (schedule, director) -> director.lookUpWorkingObject(orderRef(orderId)).ifPresent(order ->
+                director.removeEntity(order, o -> schedule.setOrders(without(schedule.getOrders(), o))));
+    }
+
+    /**
+     * 固定订单；assignment 中非 null 的员工、产线或时间槽先替换订单当前的分配。
+     * 固定后仍有未分配的变量时只改分配、不固定（固定的订单必须是完整分配的）。
+     */
+    public static ProblemChange<OrderSchedule> pinOrder(String orderId, OrderAssignment assignment) {
+        return (schedule, director) -> director.lookUpWorkingObject(orderRef(orderId)).ifPresent(order -> {
+            if (assignment != null) {
+                if (assignment.employee() != null) {
+                    director.lookUpWorkingObject(new Employee(assignment.employee(), null)).ifPresent(employee ->
+                            director.changeVariable(order, "employee", o -> o.setEmployee(employee)));
+                }
+                if (assignment.line() != null) {
+                    director.lookUpWorkingObject(new Line(assignment.line(), null)).ifPresent(line ->
+                            director.changeVariable(order, "line", o -> o.setLine(line)));
+                }
+                if (assignment.timeGrain() != null) {
+                    director.lookUpWorkingObject(new TimeGrain(assignment.timeGrain())).ifPresent(timeGrain ->
+                            director.changeVariable(order, "startingTimeGrain", o -> o.setStartingTimeGrain(timeGrain)));
+                }
+            }
+            if (order.getEmployee() != null && order.getLine() != null && order.getStartingTimeGrain() != null) {
+                director.changeProblemProperty(order, o -> o.setPinned(true));
+            }
+        });
+    }
+
+    public static ProblemChange<OrderSchedule> unpinOrder(String orderId) {
+        return (schedule, director) -> director.lookUpWorkingObject(orderRef(orderId)).ifPresent(order ->
+                director.changeProblemProperty(order, o -> o.setPinned(false)));
+    }
+
+    /**
+     * 修改员工的班次（null 表示不再有固定班次，不再计算加班）。员工实例被已发布的最优解、检查点与正在序列化的
+     * 结果共享，因此不原地修改，而是换成带新班次与班次日历的副本：分给该员工的订单（包括固定的）改为引用副本，
+     * 各订单值域中的员工也换成副本。
+     */
+    public static ProblemChange<OrderSchedule> changeShift(String employeeName, Shift shift) {
+        return (schedule, director) -> director.lookUpWorkingObject(new Employee(employeeName, null))
+                .ifPresent(employee -> {
+                    Employee replacement = new Employee(employee.getName(), employee.getSkills(), shift);
+                    replacement.setSkillMask(employee.getSkillMask());
+                    schedule.buildShiftCalendar(replacement);
+                    List<Employee> previousEmployees = schedule.getEmployees();
+                    List<Employee> employees = replaced(previousEmployees, employee, replacement);
+                    director.removeProblemFact(employee,
+                            e -> schedule.setEmployees(without(schedule.getEmployees(), e)));
+                    director.addProblemFact(replacement, e -> schedule.setEmployees(employees));
+                    for (Order order : schedule.getOrders()) {
+                        if (order.getEmployee() == employee) {
+                            director.changeVariable(order, "employee", o -> o.setEmployee(replacement));
+                        }
+                    }
+                    replaceInRanges(director, schedule.getOrders(), Order::getEmployeeRange,
+                            Order::setEmployeeRange, employee, replacement, previousEmployees, employees);
+                });
+    }
+
+    /**
+     * 停用员工（例如请假）：分给该员工的订单（包括固定的）释放员工并取消固定，由求解器重新安排，
+     * 再从员工列表与各订单的值域中移除。
+     */
+    public static ProblemChange<OrderSchedule> removeEmployee(String employeeName) {
+        return (schedule, director) -> director.lookUpWorkingObject(new Employee(employeeName, null))
+                .ifPresent(employee -> {
+                    for (Order order : schedule.getOrders()) {
+                        if (order.getEmployee() != null && employeeName.equals(order.getEmployee().getName())) {
+                            release(director, order, "employee", o -> o.setEmployee(null));
+                        }
+                    }
+                    List<Employee> employees = without(schedule.getEmployees(), employee);
+                    replaceInRanges(director, schedule.getOrders(), Order::getEmployeeRange,
+                            Order::setEmployeeRange, employee, null, schedule.getEmployees(), employees);
+                    director.removeProblemFact(employee, e -> schedule.setEmployees(employees));
+                });
+    }
+
+    /**
+     * 停用产线（例如设备故障）：与 {@link #removeEmployee} 相同，占用该产线的订单释放产线后重新安排。
+     */
+    public static ProblemChange<OrderSchedule> removeLine(String lineName) {
+        return (schedule, director) -> director.lookUpWorkingObject(new Line(lineName, null)).ifPresent(line -> {
+            for (Order order : schedule.getOrders()) {
+                if (order.getLine() != null && lineName.equals(order.getLine().getName())) {
+                    release(director, order, "line", o -> o.setLine(null));
+                }
+            }
+            List<Line> lines = without(schedule.getLines(), line);
+            replaceInRanges(director, schedule.getOrders(), Order::getLineRange, Order::setLineRange, line, null,
+                    schedule.getLines(), lines);
+            director.removeProblemFact(line, l -> schedule.setLines(lines));
+        });
+    }
+
+    // --- 辅助方法 ---
+
+    private static Order orderRef(String orderId) {
+        Order order = new Order();
+        order.setId(orderId);
+        return order;
+    }
+
+    private static void release(ProblemChangeDirector director, Order order, String variableName,
+            Consumer<Order> unassign) {
+        if (order.isPinned()) {
+            director.changeProblemProperty(order, o -> o.setPinned(false));
+        }
+        director.changeVariable(order, variableName, unassign);
+    }
+
+    // 把各订单值域中的 previous 换成 replacement（为 null 时去掉）：共享的值域列表只替换一次，
+    // 原来的完整列表换成新的完整列表，
+    // 去掉后为空的值域退回完整列表（与 OrderSchedule#buildValueRanges 一致）
+    private static <T> void replaceInRanges(ProblemChangeDirector director, List<Order> orders,
+            Function<Order, List<T>> getter, BiConsumer<Order, List<T>> setter, T previous, T replacement,
+            List<T> previousFull, List<T> full) {
+        Map<List<T>, List<T>> replacements = new IdentityHashMap<>();
+        for (Order order : orders) {
+            List<T> range = getter.apply(order);
+            if (range == null) {
+                continue;
+            }
+            List<T> updated = replacements.computeIfAbsent(range, key -> {
+                if (key == previousFull) {
+                    return full;
+                }
+                if (!key.contains(previous)) {
+                    return key;
+                }
+                if (replacement != null) {
+                    return replaced(key, previous, replacement);
+                }
+                List<T> remaining = without(key, previous);
+                return remaining.isEmpty() ? full : remaining;
+            });
+            if (updated != range) {
+                director.changeProblemProperty(order, o -> setter.accept(o, updated));
+            }
+        }
+    }
+
+    private static <T> List<T> with(List<T> list, T element) {
+        List<T> copy = new ArrayList<>(list.size() + 1);
+        copy.addAll(list);
+        copy.add(element);
+        return copy;
+    }
+
+    private static <T> List<T> replaced(List<T> list, T previous, T replacement) {
+        List<T> copy = new ArrayList<>(list.size());
+        for (T item : list) {
+            copy.add(item == previous ? replacement : item);
+        }
+        return copy;
+    }
+
+    private static <T> List<T> without(List<T> list, T element) {
+        List<T> copy = new ArrayList<>(list.size());
+        for (T item : list) {
+            if (item != element) {
+                copy.add(item);
+            }
+        }
+        return copy;
+    }
+}
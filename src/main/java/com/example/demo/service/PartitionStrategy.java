@@ -0,0 +1,21 @@
+package com.example.demo.service;
+
+/**
+ * 分区求解（{@link PartitionedSolver}）拆分问题的方式。
+ */
+public enum PartitionStrategy {
+    // 按订单需求的产线功能分组，被多个功能需要的产线与员工按需求工时分给其中一组
+    FUNCTION,
+    // 按共享功能连通的产线组分组：不同组的产线互不重叠，员工按需求工时分给其中一组
+    LINE_GROUP,
+    // 按订单最早日期所在的时间窗口分组，各组共享员工与产线，但只使用本窗口内的时间槽
+    DATE_WINDOW;
+
+    ProblemPartitioner partitioner(int windowDays) {
+        return switch (this) {
+            case FUNCTION -> new ResourcePartitioner(false);
+            case LINE_GROUP -> new ResourcePartitioner(true);
+            case DATE_WINDOW -> new DateWindowPartitioner(windowDays);
+        };
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 分区求解（{@link Partitioning}）：用 {@link ProblemPartitioner} 把分配模型的问题拆成子问题，在单独的
+ * SolverManager 上并行求解（最多 parallelSolverCount 个子问题同时求解），各子问题的更优解随时按订单 id
+ * 合并回完整问题。全部子问题结束后，可选地对合并结果做一次 polishTime 的全局优化，消除子问题之间残留的冲突。
+ * <p>
+ * 子问题沿用任务的终止条件，互不等待；对外仍是一个 jobId，状态、推送与检查点照常由调用方处理。
+ */
+@Slf4j
+@Service
+public class PartitionedSolver implements DisposableBean {
+
+    // 留给 Web 线程与其他任务的核数
+    private static final int RESERVED_CORES = 2;
+    private static final String SOLVER_CONFIG_RESOURCE = "solverConfig.xml";
+
+    private final SolverManager<OrderSchedule, String> solverManager;
+    private final SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager;
+    private final Duration polishTime;
+    private final ConcurrentMap<String, PartitionedJob> jobs = new ConcurrentHashMap<>();
+
+    // 一个分区求解任务：完整问题的工作副本、各子问题的求解状态与回调。可变字段由自身的监视器保护
+    private final class PartitionedJob {
+        private final String jobId;
+        private final boolean polish;
+        private final TerminationConfig terminationConfig;
+        private final Consumer<Supplier<OrderSchedule>> bestSolutionConsumer;
+        private final Consumer<OrderSchedule> finalBestSolutionConsumer;
+        private final BiConsumer<String, Throwable> exceptionHandler;
+        private final OrderSchedule problem;
+        private final Map<String, Order> ordersById = new HashMap<>();
+        private final List<SolverJob<OrderSchedule, String>> solverJobs = new ArrayList<>();
+        // 尚未开始的 SolverJob 被提前终止时不会再回调，需要自行记账
+        private final boolean[] started;
+        private final boolean[] finished;
+        private int remaining;
+        private SolverJob<OrderSchedule, String> polishJob;
+        private boolean polishStarted;
+        private boolean terminated;
+        private boolean done;
+
+        private PartitionedJob(String jobId, OrderSchedule problem, int partitionCount, boolean polish,
+                TerminationConfig terminationConfig, Consumer<Supplier<OrderSchedule>> bestSolutionConsumer,
+                Consumer<OrderSchedule> finalBestSolutionConsumer, BiConsumer<String, Throwable> exceptionHandler) {
+            this.jobId = jobId;
+            this.polish = polish;
+            this.terminationConfig = terminationConfig;
+            this.bestSolutionConsumer = bestSolutionConsumer;
+            this.finalBestSolutionConsumer = finalBestSolutionConsumer;
+            this.exceptionHandler = exceptionHandler;
+            List<Order> orders = new ArrayList<>(problem.getOrders().size());
+            for (Order order : problem.getOrders()) {
+                Order copy = order.copy();
+                orders.add(copy);
+                ordersById.put(copy.getId(), copy);
+            }
+            this.problem = new OrderSchedule(problem.getEmployees(), problem.getLines(), problem.getTimeGrains(),
+                    orders);
+            this.problem.setId(problem.getId());
+            this.problem.setPlanningStart(problem.getPlanningStart());
+            this.started = new boolean[partitionCount];
+            this.finished = new boolean[partitionCount];
+            this.remaining = partitionCount;
+        }
+
+        // 子问题与完整问题共享员工、产线与时间槽实例，直接写回未固定订单的规划变量
+        private synchronized void merge(OrderSchedule solution) {
+            for (Order order : solution.getOrders()) {
+                Order target = order.isPinned() ? null : ordersById.get(order.getId());
+                if (target != null) {
+                    target.setEmployee(order.getEmployee());
+                    target.setLine(order.getLine());
+                    target.setStartingTimeGrain(order.getStartingTimeGrain());
+                }
+            }
+        }
+
+        // 当前合并结果的副本，按完整约束计分
+        private OrderSchedule snapshot() {
+            OrderSchedule snapshot;
+            synchronized (this) {
+                List<Order> orders = new ArrayList<>(problem.getOrders().size());
+                problem.getOrders().forEach(order -> orders.add(order.copy()));
+                snapshot = new OrderSchedule(problem.getEmployees(), problem.getLines(), problem.getTimeGrains(),
+                        orders);
+                snapshot.setId(problem.getId());
+                snapshot.setPlanningStart(problem.getPlanningStart());
+            }
+            solutionManager.update(snapshot);
+            return snapshot;
+        }
+
+        // 返回是否为最后一个结束的子问题
+        private synchronized boolean finishPartition(int index) {
+            if (finished[index] || done) {
+                return false;
+            }
+            finished[index] = true;
+            return --remaining == 0;
+        }
+
+        // 只有第一次调用返回 true：最终方案与异常只回调一次
+        private synchronized boolean markDone() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            return true;
+        }
+
+        private synchronized long getMoveEvaluationCount() {
+            long count = 0;
+            for (SolverJob<OrderSchedule, String> solverJob : solverJobs) {
+                count += solverJob.getMoveEvaluationCount();
+            }
+            return polishJob == null ? count : count + polishJob.getMoveEvaluationCount();
+        }
+    }
+
+    public PartitionedSolver(SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager,
+            @Value("${app.partitioning.parallel-solver-count:0}") int parallelSolverCount,
+            @Value("${app.partitioning.polish-time:PT30S}") Duration polishTime) {
+        int solverCount = parallelSolverCount > 0 ? parallelSolverCount
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - RESERVED_CORES);
+        this.solverManager = SolverManager.create(
+                SolverFactory.create(SolverConfig.createFromXmlResource(SOLVER_CONFIG_RESOURCE)),
+                new SolverManagerConfig().withParallelSolverCount(Integer.toString(solverCount)));
+        this.solutionManager = solutionManager;
+        this.polishTime = polishTime;
+    }
+
+    /**
+     * 异步分区求解已准备好的问题。bestSolutionConsumer 收到的是延迟的合并结果（调用 get() 时才复制并计分），
+     * finalBestSolutionConsumer 收到最终方案；失败时其他子问题被终止，exceptionHandler 只调用一次。
+     */
+    public void solve(String jobId, OrderSchedule problem, Partitioning partitioning,
+            TerminationConfig terminationConfig,
+            Consumer<Supplier<OrderSchedule>> bestSolutionConsumer,
+            Consumer<OrderSchedule> finalBestSolutionConsumer,
+            BiConsumer<String, Throwable> exceptionHandler) {
+        List<OrderSchedule> subProblems = partitioning.partitioner().partition(problem);
+        boolean polish = partitioning.polish() && subProblems.size() > 1 && !polishTime.isZero();
+        PartitionedJob job = new PartitionedJob(jobId, problem, subProblems.size(), polish, terminationConfig,
+                bestSolutionConsumer, finalBestSolutionConsumer, exceptionHandler);
+        jobs.put(jobId, job);
+        log.info("Solving jobId: {} in {} partitions by {}", jobId, subProblems.size(), partitioning.strategy());
+        for (int i = 0; i < subProblems.size(); i++) {
+            int index = i;
+            SolverJob<OrderSchedule, String> solverJob = solverManager.solveBuilder()
+                    .withProblemId(jobId + "#" + index)
+                    .withProblem(subProblems.get(index))
+                    .withSolverJobStartedEventConsumer(event -> {
+                        synchronized (job) {
+                            job.started[index] = true;
+                        }
+                    })
+                    .withBestSolutionEventConsumer(event -> {
+                        job.merge(event.solution());
+                        bestSolutionConsumer.accept(job::snapshot);
+                    })
+                    .withFinalBestSolutionEventConsumer(event -> {
+                        job.merge(event.solution());
+                        if (job.finishPartition(index)) {
+                            finishPartitions(job);
+                        }
+                    })
+                    .withExceptionHandler((id, exception) -> fail(job, exception))
+                    .withConfigOverride(new SolverConfigOverride<OrderSchedule>()
+                            .withTerminationConfig(terminationConfig))
+                    .run();
+            synchronized (job) {
+                job.solverJobs.add(solverJob);
+            }
+        }
+        // 提交子问题期间收到的终止请求
+        boolean terminated;
+        synchronized (job) {
+            terminated = job.terminated;
+        }
+        if (terminated) {
+            terminateEarly(jobId);
+        }
+    }
+
+    public long getMoveEvaluationCount(String jobId) {
+        PartitionedJob job = jobs.get(jobId);
+        return job == null ? 0 : job.getMoveEvaluationCount();
+    }
+
+    /**
+     * 提前终止所有子问题与全局优化，合并当前结果作为最终方案。
+     */
+    public void terminateEarly(String jobId) {
+        PartitionedJob job = jobs.get(jobId);
+        if (job == null) {
+            return;
+        }
+        List<SolverJob<OrderSchedule, String>> solverJobs;
+        List<Integer> notStarted = new ArrayList<>();
+        boolean polishNotStarted;
+        synchronized (job) {
+            job.terminated = true;
+            solverJobs = new ArrayList<>(job.solverJobs);
+            for (int i = 0; i < job.solverJobs.size(); i++) {
+                if (!job.started[i]) {
+                    notStarted.add(i);
+                }
+            }
+            if (job.polishJob != null) {
+                solverJobs.add(job.polishJob);
+            }
+            polishNotStarted = job.polishJob != null && !job.polishStarted;
+        }
+        solverJobs.forEach(SolverJob::terminateEarly);
+        for (int index : notStarted) {
+            if (job.finishPartition(index)) {
+                finishPartitions(job);
+            }
+        }
+        if (polishNotStarted) {
+            complete(job, job.snapshot());
+        }
+    }
+
+    // 全部子问题结束：直接完成，或以合并结果为起点做全局优化
+    private void finishPartitions(PartitionedJob job) {
+        boolean polish;
+        synchronized (job) {
+            polish = job.polish && !job.terminated;
+        }
+        OrderSchedule merged = job.snapshot();
+        if (!polish) {
+            complete(job, merged);
+            return;
+        }
+        log.info("Polishing jobId: {} after merging partitions (score: {})", job.jobId, merged.getScore());
+        SolverJob<OrderSchedule, String> polishJob = solverManager.solveBuilder()
+                .withProblemId(job.jobId + "#polish")
+                .withProblem(merged)
+                .withSolverJobStartedEventConsumer(event -> {
+                    synchronized (job) {
+                        job.polishStarted = true;
+                    }
+                })
+                .withBestSolutionEventConsumer(event -> job.bestSolutionConsumer.accept(event::solution))
+                .withFinalBestSolutionEventConsumer(event -> complete(job, event.solution()))
+                .withExceptionHandler((id, exception) -> fail(job, exception))
+                .withConfigOverride(new SolverConfigOverride<OrderSchedule>()
+                        .withTerminationConfig(new TerminationConfig()
+                                .withSpentLimit(polishTime)
+                                .withBestScoreLimit(job.terminationConfig.getBestScoreLimit())))
+                .run();
+        boolean terminated;
+        synchronized (job) {
+            job.polishJob = polishJob;
+            terminated = job.terminated;
+        }
+        if (terminated) {
+            terminateEarly(job.jobId);
+        }
+    }
+
+    private void complete(PartitionedJob job, OrderSchedule solution) {
+        if (job.markDone()) {
+            log.info("Partitioned solving jobId: {} finished. Final score: {}", job.jobId, solution.getScore());
+            job.finalBestSolutionConsumer.accept(solution);
+            jobs.remove(job.jobId);
+        }
+    }
+
+    private void fail(PartitionedJob job, Throwable exception) {
+        if (!job.markDone()) {
+            return;
+        }
+        List<SolverJob<OrderSchedule, String>> solverJobs;
+        synchronized (job) {
+            solverJobs = new ArrayList<>(job.solverJobs);
+            if (job.polishJob != null) {
+                solverJobs.add(job.polishJob);
+            }
+        }
+        solverJobs.forEach(SolverJob::terminateEarly);
+        job.exceptionHandler.accept(job.jobId, exception);
+        jobs.remove(job.jobId);
+    }
+
+    @Override
+    public void destroy() {
+        solverManager.close();
+    }
+}
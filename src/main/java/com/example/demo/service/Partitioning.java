@@ -0,0 +1,23 @@
+package com.example.demo.service;
+
+/**
+ * 分区求解的参数：strategy 为拆分方式，windowDays 为 {@link PartitionStrategy#DATE_WINDOW} 的窗口天数，
+ * polish 表示合并后是否再对整个问题做一次短时间的全局优化。
+ */
+public record Partitioning(PartitionStrategy strategy, int windowDays, boolean polish) {
+
+    public static final int DEFAULT_WINDOW_DAYS = 7;
+
+    public Partitioning {
+        if (strategy == null) {
+            throw new IllegalArgumentException("The partition strategy must not be null.");
+        }
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("The partition windowDays (" + windowDays + ") must be positive.");
+        }
+    }
+
+    public ProblemPartitioner partitioner() {
+        return strategy.partitioner(windowDays);
+    }
+}
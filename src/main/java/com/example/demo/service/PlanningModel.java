@@ -0,0 +1,11 @@
+package com.example.demo.service;
+
+/**
+ * 求解使用的规划模型。
+ */
+public enum PlanningModel {
+    // 每个订单独立选择员工、产线与开始时间槽（OrderSchedule）
+    ASSIGNMENT,
+    // 每条产线持有订单序列，开始时间由前序订单推导（LineSequenceSchedule），产线内天然不重叠
+    LINE_SEQUENCE
+}
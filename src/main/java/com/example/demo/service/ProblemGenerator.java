@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.Shift;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 可复现的合成问题生成器：相同 {@link GeneratorParameters}（含种子）总是生成完全相同的问题。
+ * <p>
+ * 所有列表按最终大小一次分配；技能组合相同的员工共享同一个技能集合，功能组合相同的产线共享同一个功能列表，
+ * 三个班次对象由全部员工共享，因此 10 万订单规模的问题也不会产生中间副本。
+ * 生成的问题未调用准备步骤（订单 id 之外），求解或分析前仍需构建班次日历与值域。
+ */
+@Component
+public class ProblemGenerator {
+
+    private static final List<String> NAMED_SKILLS = List.of("Assembly", "Welding", "Cutting");
+    private static final int GRAINS_PER_DAY = TimeGrain.MINUTES_PER_DAY / TimeGrain.GRAIN_LENGTH_IN_MINUTES;
+    // 时间槽从每天 06:00 开始，与早班对齐
+    private static final int FIRST_GRAIN_MINUTE_OF_DAY = 6 * 60;
+    private static final int MAX_WORK_GRAINS = 8;
+
+    public OrderSchedule generate(GeneratorParameters parameters) {
+        parameters.validate();
+        Random random = new Random(parameters.getSeed());
+        List<String> skills = skillNames(parameters.getSkillCount());
+        LocalDate startDate = parameters.getStartDate();
+
+        // 三班倒：早班 / 中班 / 夜班（夜班跨到次日），员工轮流分配
+        List<Shift> shifts = List.of(
+                new Shift(startDate.atTime(6, 0), startDate.atTime(14, 0), "Morning"),
+                new Shift(startDate.atTime(14, 0), startDate.atTime(22, 0), "Evening"),
+                new Shift(startDate.atTime(22, 0), startDate.plusDays(1).atTime(6, 0), "Night"));
+
+        Map<Long, Set<String>> skillSets = new HashMap<>();
+        List<Employee> employees = new ArrayList<>(parameters.getEmployeeCount());
+        for (int i = 0; i < parameters.getEmployeeCount(); i++) {
+            long mask = randomMask(i, skills.size(), parameters.getEmployeeSkillProbability(), random);
+            employees.add(new Employee("E" + (i + 1),
+                    skillSets.computeIfAbsent(mask, key -> new LinkedHashSet<>(namesOf(key, skills))),
+                    shifts.get(i % shifts.size())));
+        }
+
+        Map<Long, List<String>> functionLists = new HashMap<>();
+        List<Line> lines = new ArrayList<>(parameters.getLineCount());
+        for (int i = 0; i < parameters.getLineCount(); i++) {
+            long mask = randomMask(i, skills.size(), parameters.getLineFunctionProbability(), random);
+            lines.add(new Line("L" + (i + 1),
+                    functionLists.computeIfAbsent(mask, key -> List.copyOf(namesOf(key, skills)))));
+        }
+
+        int grainCount = parameters.getHorizonDays() * GRAINS_PER_DAY;
+        LocalDateTime firstGrain = startDate.atTime(FIRST_GRAIN_MINUTE_OF_DAY / 60, 0);
+        List<TimeGrain> timeGrains = TimeGrain.sequence(firstGrain, grainCount);
+
+        int maxSlackDays = (int) Math.round((1.0 - parameters.getWindowTightness()) * (parameters.getHorizonDays() - 1));
+        List<Order> orders = new ArrayList<>(parameters.getOrderCount());
+        for (int i = 0; i < parameters.getOrderCount(); i++) {
+            int slackDays = random.nextInt(maxSlackDays + 1);
+            int earliestOffset = random.nextInt(parameters.getHorizonDays() - slackDays);
+            LocalDate earliestDate = startDate.plusDays(earliestOffset);
+            Order order = new Order("Order-" + (i + 1), 10 + random.nextInt(191),
+                    TimeGrain.GRAIN_LENGTH_IN_MINUTES * (1 + random.nextInt(MAX_WORK_GRAINS)),
+                    earliestDate, earliestDate.plusDays(slackDays),
+                    randomSkill(skills, parameters.getPrimarySkillShare(), random),
+                    randomSkill(skills, parameters.getPrimarySkillShare(), random));
+            order.setId("o" + i);
+            if (random.nextDouble() < parameters.getPinnedFraction()) {
+                pin(order, earliestOffset + random.nextInt(slackDays + 1), employees, lines, timeGrains, random);
+            }
+            orders.add(order);
+        }
+
+        OrderSchedule schedule = new OrderSchedule(employees, lines, timeGrains, orders);
+        schedule.setId("generated-" + parameters.getSeed());
+        return schedule;
+    }
+
+    // 把订单固定到具备所需技能/功能的随机员工与产线上，开始时间落在该员工当天的班次内
+    private static void pin(Order order, int dayOffset, List<Employee> employees, List<Line> lines,
+            List<TimeGrain> timeGrains, Random random) {
+        Employee employee = randomMatching(employees, e -> e.getSkills().contains(order.getRequiredSkill()), random);
+        Line line = randomMatching(lines, l -> l.getFunctions().contains(order.getRequiredLineFunction()), random);
+        Shift shift = employee.getShift();
+        int shiftLength = Math.floorMod(shift.getEndMinuteOfDay() - shift.getStartMinuteOfDay() - 1,
+                TimeGrain.MINUTES_PER_DAY) + 1;
+        int latestStartGrain = Math.max(0, (shiftLength - order.getDurationMinutes()) / TimeGrain.GRAIN_LENGTH_IN_MINUTES);
+        int minuteFromFirstGrain = dayOffset * TimeGrain.MINUTES_PER_DAY
+                + shift.getStartMinuteOfDay() - FIRST_GRAIN_MINUTE_OF_DAY
+                + TimeGrain.GRAIN_LENGTH_IN_MINUTES * random.nextInt(latestStartGrain + 1);
+        int grainIndex = Math.floorDiv(minuteFromFirstGrain, TimeGrain.GRAIN_LENGTH_IN_MINUTES);
+        order.setEmployee(employee);
+        order.setLine(line);
+        order.setStartingTimeGrain(timeGrains.get(Math.max(0, Math.min(timeGrains.size() - 1, grainIndex))));
+        order.setPinned(true);
+    }
+
+    private static <T> T randomMatching(List<T> values, Predicate<T> predicate, Random random) {
+        // 随机起点线性探测，不分配候选列表；没有匹配项时退回起点（由硬约束报告）
+        int start = random.nextInt(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            T value = values.get((start + i) % values.size());
+            if (predicate.test(value)) {
+                return value;
+            }
+        }
+        return values.get(start);
+    }
+
+    // 第 0 种技能人人具备，第 (index % skillCount) 种保证具备（覆盖所有技能），其余按概率具备
+    private static long randomMask(int index, int skillCount, double probability, Random random) {
+        long mask = 1L | (1L << (index % skillCount));
+        for (int skill = 1; skill < skillCount; skill++) {
+            if (random.nextDouble() < probability) {
+                mask |= 1L << skill;
+            }
+        }
+        return mask;
+    }
+
+    private static String randomSkill(List<String> skills, double primaryShare, Random random) {
+        if (skills.size() == 1 || random.nextDouble() < primaryShare) {
+            return skills.get(0);
+        }
+        return skills.get(1 + random.nextInt(skills.size() - 1));
+    }
+
+    private static List<String> namesOf(long mask, List<String> skills) {
+        List<String> names = new ArrayList<>(Long.bitCount(mask));
+        for (int skill = 0; skill < skills.size(); skill++) {
+            if ((mask & (1L << skill)) != 0) {
+                names.add(skills.get(skill));
+            }
+        }
+        return names;
+    }
+
+    private static List<String> skillNames(int skillCount) {
+        List<String> names = new ArrayList<>(skillCount);
+        for (int i = 0; i < skillCount; i++) {
+            names.add(i < NAMED_SKILLS.size() ? NAMED_SKILLS.get(i) : "Skill-" + (i + 1));
+        }
+        return names;
+    }
+}
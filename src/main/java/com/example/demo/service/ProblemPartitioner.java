@@ -0,0 +1,36 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 把一个已准备好的问题（订单 id、班次日历、值域与技能/功能位掩码已构建）拆成可以并行求解的子问题，见 {@link PartitionedSolver}。
+ * <p>
+ * 每个未固定的订单恰好属于一个子问题；子问题中的订单是副本，值域按子问题的员工、产线与时间槽重新构建。
+ * 固定的订单作为上下文出现在所有可能与其冲突的子问题中，合并时按订单 id 只写回未固定的订单。
+ * 子问题之间仍可能有少量冲突（共享的资源、跨越窗口边界的订单），由合并后的全局优化阶段消除。
+ * 无法拆分（只有一组订单）时返回只含原问题的列表。
+ */
+public interface ProblemPartitioner {
+
+    List<OrderSchedule> partition(OrderSchedule problem);
+
+    /**
+     * 由给定的资源与订单副本构成子问题，并按这些资源重新构建订单的值域。
+     */
+    static OrderSchedule subProblem(OrderSchedule problem, List<Employee> employees, List<Line> lines,
+            List<TimeGrain> timeGrains, List<Order> orders) {
+        OrderSchedule subProblem = new OrderSchedule(employees, lines, timeGrains, orders);
+        subProblem.setId(problem.getId());
+        subProblem.setPlanningStart(problem.getPlanningStart());
+        // 子问题与原问题共享员工/产线实例，沿用原问题的字典以保持位掩码一致
+        subProblem.setCapabilityIndex(problem.getCapabilityIndex());
+        subProblem.buildValueRanges();
+        return subProblem;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+
+/**
+ * {@link PartitionStrategy#FUNCTION} 与 {@link PartitionStrategy#LINE_GROUP}：按订单需求的产线功能
+ * （LINE_GROUP 时为共享产线的功能的连通分量）给未固定的订单分组，再把员工与产线分给需要它们的组。
+ * 只被一个组需要的资源归该组；被多个组需要的资源分给“需求工时 / (已分得的同类资源数 + 1)”最大的组，
+ * 使各组的负荷接近。分不到某类资源的组退回使用它能用的全部同类资源（与其他组共享）。
+ */
+final class ResourcePartitioner implements ProblemPartitioner {
+
+    // 未要求产线功能或技能的订单
+    private static final String ANY = "*";
+
+    private final boolean connectFunctions;
+
+    ResourcePartitioner(boolean connectFunctions) {
+        this.connectFunctions = connectFunctions;
+    }
+
+    private static final class Group {
+        private final List<Order> orders = new ArrayList<>();
+        private final Set<String> functions = new HashSet<>();
+        private final Set<String> skills = new HashSet<>();
+        private final List<Employee> employees = new ArrayList<>();
+        private final List<Line> lines = new ArrayList<>();
+        private long demandMinutes;
+
+        private void add(Order order) {
+            orders.add(order);
+            functions.add(order.getRequiredLineFunction() == null ? ANY : order.getRequiredLineFunction());
+            skills.add(order.getRequiredSkill() == null ? ANY : order.getRequiredSkill());
+            demandMinutes += order.getDurationMinutes();
+        }
+
+        private boolean canUse(Line line) {
+            return functions.contains(ANY) || line.getFunctions() != null
+                    && line.getFunctions().stream().anyMatch(functions::contains);
+        }
+
+        private boolean canUse(Employee employee) {
+            return skills.contains(ANY) || employee.getSkills() != null
+                    && employee.getSkills().stream().anyMatch(skills::contains);
+        }
+    }
+
+    @Override
+    public List<OrderSchedule> partition(OrderSchedule problem) {
+        Map<String, String> groupOfFunction = connectFunctions ? connectFunctions(problem.getLines()) : Map.of();
+        Map<String, Group> groups = new LinkedHashMap<>();
+        List<Order> pinnedOrders = new ArrayList<>();
+        for (Order order : problem.getOrders()) {
+            if (order.isPinned()) {
+                pinnedOrders.add(order);
+                continue;
+            }
+            String function = order.getRequiredLineFunction() == null ? ANY : order.getRequiredLineFunction();
+            groups.computeIfAbsent(groupOfFunction.getOrDefault(function, function), key -> new Group()).add(order);
+        }
+        if (groups.size() <= 1) {
+            return List.of(problem);
+        }
+        List<Group> groupList = List.copyOf(groups.values());
+        allocate(problem.getLines(), groupList, Group::canUse, group -> group.lines);
+        allocate(problem.getEmployees(), groupList, Group::canUse, group -> group.employees);
+
+        List<OrderSchedule> subProblems = new ArrayList<>(groupList.size());
+        for (Group group : groupList) {
+            Set<String> employeeNames = names(group.employees, Employee::getName);
+            Set<String> lineNames = names(group.lines, Line::getName);
+            List<Order> orders = new ArrayList<>(group.orders.size());
+            group.orders.forEach(order -> orders.add(order.copy()));
+            for (Order pinned : pinnedOrders) {
+                if (pinned.getEmployee() != null && employeeNames.contains(pinned.getEmployee().getName())
+                        || pinned.getLine() != null && lineNames.contains(pinned.getLine().getName())) {
+                    orders.add(pinned.copy());
+                }
+            }
+            subProblems.add(ProblemPartitioner.subProblem(problem, group.employees, group.lines,
+                    problem.getTimeGrains(), orders));
+        }
+        return subProblems;
+    }
+
+    // 先分能被少数组使用的资源，再按负荷分共享的资源
+    private static <T> void allocate(List<T> resources, List<Group> groups, BiPredicate<Group, T> canUse,
+            Function<Group, List<T>> assigned) {
+        List<List<Group>> candidates = new ArrayList<>(resources.size());
+        for (T resource : resources) {
+            candidates.add(groups.stream().filter(group -> canUse.test(group, resource)).toList());
+        }
+        List<Integer> indexes = new ArrayList<>(resources.size());
+        for (int i = 0; i < resources.size(); i++) {
+            indexes.add(i);
+        }
+        indexes.sort(Comparator.comparingInt(i -> candidates.get(i).size()));
+        for (int i : indexes) {
+            Group best = null;
+            double bestLoad = -1;
+            for (Group group : candidates.get(i)) {
+                double load = (double) group.demandMinutes / (assigned.apply(group).size() + 1);
+                if (load > bestLoad) {
+                    best = group;
+                    bestLoad = load;
+                }
+            }
+            if (best != null) {
+                assigned.apply(best).add(resources.get(i));
+            }
+        }
+        for (Group group : groups) {
+            if (assigned.apply(group).isEmpty()) {
+                List<T> usable = resources.stream().filter(resource -> canUse.test(group, resource)).toList();
+                assigned.apply(group).addAll(usable.isEmpty() ? resources : usable);
+            }
+        }
+    }
+
+    // 同一条产线上的功能属于同一组（并查集），返回功能到组代表的映射
+    private static Map<String, String> connectFunctions(List<Line> lines) {
+        Map<String, String> parent = new HashMap<>();
+        for (Line line : lines) {
+            if (line.getFunctions() == null || line.getFunctions().isEmpty()) {
+                continue;
+            }
+            String first = find(parent, line.getFunctions().get(0));
+            for (String function : line.getFunctions()) {
+                String root = find(parent, function);
+                if (!root.equals(first)) {
+                    parent.put(root, first);
+                }
+            }
+        }
+        Map<String, String> groupOfFunction = new HashMap<>();
+        for (String function : parent.keySet()) {
+            groupOfFunction.put(function, find(parent, function));
+        }
+        return groupOfFunction;
+    }
+
+    private static String find(Map<String, String> parent, String function) {
+        String next = parent.putIfAbsent(function, function);
+        if (next == null || next.equals(function)) {
+            return function;
+        }
+        String root = find(parent, next);
+        parent.put(function, root);
+        return root;
+    }
+
+    private static <T> Set<String> names(Collection<T> resources, Function<T, String> name) {
+        Set<String> names = new HashSet<>();
+        resources.forEach(resource -> names.add(name.apply(resource)));
+        return names;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * 滚动排程：以上一个任务的（最优）方案为基础生成下一轮的问题。
+ * <ul>
+ * <li>在 now 之前已结束的订单移出规划实体集合，不再参与求解与约束；</li>
+ * <li>在冻结截止时刻（now + freeze）之前开始的已分配订单自动固定，包括正在生产的订单；</li>
+ * <li>其余订单保留原来的分配作为热启动，规划起点（{@link OrderSchedule#getPlanningStart()}）设为冻结截止时刻，
+ * 求解器只在它之后移动这些订单。开始于冻结窗口内但未完整分配的订单清空开始时间，重新安排。</li>
+ * </ul>
+ * 员工复制为新实例（班次日历随新问题重建，不影响仍在求解的上一个任务），产线与时间槽共享。
+ * 返回的问题尚未准备（班次日历、值域），由调用方与新提交的问题一样处理。
+ */
+public final class RollingHorizon {
+
+    private RollingHorizon() {
+    }
+
+    public static OrderSchedule replan(OrderSchedule previous, LocalDateTime now, Duration freeze) {
+        if (freeze.isNegative()) {
+            throw new IllegalArgumentException("The freeze window (" + freeze + ") must not be negative.");
+        }
+        int nowMinute = TimeGrain.toMinute(now);
+        LocalDateTime freezeEnd = now.plus(freeze);
+        int freezeEndMinute = TimeGrain.toMinute(freezeEnd);
+
+        List<Employee> employees = new ArrayList<>(previous.getEmployees().size());
+        for (Employee employee : previous.getEmployees()) {
+            employees.add(new Employee(employee.getName(), employee.getSkills(), employee.getShift()));
+        }
+        List<Order> orders = new ArrayList<>(previous.getOrders().size());
+        for (Order order : previous.getOrders()) {
+            if (order.getStartingTimeGrain() == null) {
+                orders.add(order.copy());
+                continue;
+            }
+            if (order.getEndMinute() <= nowMinute) {
+                continue;
+            }
+            Order copy = order.copy();
+            if (order.getStartMinute() < freezeEndMinute) {
+                if (order.getEmployee() != null && order.getLine() != null) {
+                    copy.setPinned(true);
+                } else if (!order.isPinned()) {
+                    copy.setStartingTimeGrain(null);
+                }
+            }
+            orders.add(copy);
+        }
+
+        OrderSchedule schedule = new OrderSchedule(employees, previous.getLines(), previous.getTimeGrains(), orders);
+        schedule.setId(previous.getId());
+        schedule.setPlanningStart(freezeEnd);
+        // 订单改为引用复制后的员工
+        schedule.relinkPlanningValues();
+        return schedule;
+    }
+}
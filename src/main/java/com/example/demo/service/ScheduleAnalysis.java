@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+/**
+ * 某个方案版本的得分分析（GET /schedules/{jobId}/analysis），由 {@link ScoreAnalysisCache} 计算并缓存。
+ * 与 Timefold 的 ScoreAnalysis 字段同名，但每个约束只保留得分最差的若干个匹配；constraints 在
+ * {@link AnalysisDetail#SUMMARY} 时为 null，matches 只在 {@link AnalysisDetail#MATCHES} 时有值。
+ */
+public record ScheduleAnalysis(long version, HardMediumSoftScore score, boolean initialized,
+        List<ConstraintSummary> constraints) {
+
+    public record ConstraintSummary(String name, HardMediumSoftScore weight, HardMediumSoftScore score,
+            int matchCount, List<Match> matches) {
+    }
+
+    // justification 为约束的 ConstraintJustification，序列化方式与 PUT /schedules/analyze 相同
+    public record Match(HardMediumSoftScore score, Object justification) {
+    }
+
+    /**
+     * 按详细程度裁剪：MATCHES 时每个约束最多保留 top 个匹配。
+     */
+    public ScheduleAnalysis project(AnalysisDetail detail, int top) {
+        if (detail == AnalysisDetail.SUMMARY) {
+            return new ScheduleAnalysis(version, score, initialized, null);
+        }
+        List<ConstraintSummary> projected = constraints.stream()
+                .map(constraint -> new ConstraintSummary(constraint.name(), constraint.weight(), constraint.score(),
+                        constraint.matchCount(), detail == AnalysisDetail.MATCHES
+                                ? constraint.matches().subList(0, Math.min(top, constraint.matches().size()))
+                                : null))
+                .toList();
+        return new ScheduleAnalysis(version, score, initialized, projected);
+    }
+}
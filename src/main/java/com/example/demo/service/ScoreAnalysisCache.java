@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import ai.timefold.solver.core.api.score.analysis.ConstraintAnalysis;
+import ai.timefold.solver.core.api.score.analysis.MatchAnalysis;
+import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.ScoreAnalysisFetchPolicy;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+
+import com.example.demo.entity.OrderSchedule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按任务缓存最新方案版本的得分分析：每个（任务, 版本）只调用一次 {@link SolutionManager#analyze}，
+ * 同一版本的并发请求等待同一次计算。缓存最近访问的 maxCachedJobs 个任务（LRU），每个约束只保留得分最差的
+ * maxCachedMatches 个匹配，完整的 ScoreAnalysis 在裁剪后即可回收。
+ */
+@Slf4j
+@Service
+public class ScoreAnalysisCache {
+
+    private record Cached(long version, CompletableFuture<ScheduleAnalysis> analysis) {
+    }
+
+    private final SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager;
+    private final int maxCachedMatches;
+    // 访问顺序，由自身的监视器保护；计算在锁外进行
+    private final Map<String, Cached> cache;
+
+    public ScoreAnalysisCache(SolutionManager<OrderSchedule, HardMediumSoftScore> solutionManager,
+            @Value("${app.analysis.max-cached-jobs:32}") int maxCachedJobs,
+            @Value("${app.analysis.max-cached-matches:100}") int maxCachedMatches) {
+        this.solutionManager = solutionManager;
+        this.maxCachedMatches = maxCachedMatches;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > maxCachedJobs;
+            }
+        };
+    }
+
+    /**
+     * 任务在 version 时的分析；缓存中没有该版本时用 schedule 提供的方案计算。方案必须不早于 version。
+     */
+    public ScheduleAnalysis get(String jobId, long version, Supplier<OrderSchedule> schedule) {
+        CompletableFuture<ScheduleAnalysis> analysis;
+        boolean owner = false;
+        synchronized (cache) {
+            Cached cached = cache.get(jobId);
+            if (cached == null || cached.version() < version) {
+                cached = new Cached(version, new CompletableFuture<>());
+                cache.put(jobId, cached);
+                owner = true;
+            }
+            analysis = cached.analysis();
+        }
+        if (owner) {
+            try {
+                analysis.complete(analyze(version, schedule.get()));
+            } catch (RuntimeException e) {
+                analysis.completeExceptionally(e);
+                invalidate(jobId);
+            }
+        }
+        try {
+            return analysis.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public void invalidate(String jobId) {
+        synchronized (cache) {
+            cache.remove(jobId);
+        }
+    }
+
+    private ScheduleAnalysis analyze(long version, OrderSchedule schedule) {
+        long start = System.nanoTime();
+        ScoreAnalysis<HardMediumSoftScore> analysis = solutionManager.analyze(schedule,
+                ScoreAnalysisFetchPolicy.FETCH_ALL);
+        List<ScheduleAnalysis.ConstraintSummary> constraints = analysis.constraintAnalyses().stream()
+                .map(this::summarize)
+                .toList();
+        log.debug("Analyzed version {} of {} orders in {} ms", version,
+                schedule.getOrders() == null ? 0 : schedule.getOrders().size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new ScheduleAnalysis(version, analysis.score(), analysis.isSolutionInitialized(), constraints);
+    }
+
+    private ScheduleAnalysis.ConstraintSummary summarize(ConstraintAnalysis<HardMediumSoftScore> constraint) {
+        List<MatchAnalysis<HardMediumSoftScore>> matches = constraint.matches() == null ? List.of()
+                : constraint.matches();
+        List<ScheduleAnalysis.Match> worst = matches.stream()
+                .sorted(Comparator.comparing((MatchAnalysis<HardMediumSoftScore> match) -> match.score()))
+                .limit(maxCachedMatches)
+                .map(match -> new ScheduleAnalysis.Match(match.score(), match.justification()))
+                .toList();
+        return new ScheduleAnalysis.ConstraintSummary(constraint.constraintRef().constraintName(),
+                constraint.weight(), constraint.score(), constraint.matchCount(), worst);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+/**
+ * 推送给订阅方的一个方案版本：snapshot 为 true 时 changes 包含全部订单，否则只包含相对上一版本
+ * 员工、产线或开始时间有变化的订单（包括求解中新增的订单），removed 为相对上一版本被删除的订单 id。
+ * version 在同一任务内单调递增。
+ */
+public record SolutionDelta(String jobId, long version, boolean snapshot, JobState state,
+        HardMediumSoftScore score, List<OrderAssignment> changes, List<String> removed) {
+}
@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 以 Server-Sent Events 推送方案变化：每个版本只发送员工、产线或开始时间有变化的订单与被删除的订单
+ * （{@link SolutionDelta}），事件 id 为版本标记（{@link JobScheduler#versionTag}，与 ETag 相同）。订阅时可指定已有的版本（fromVersion
+ * 或浏览器重连时的 Last-Event-ID），
+ * 最近 {@value #HISTORY_SIZE} 个版本内直接补发增量，否则先发送一次全量快照。
+ * <p>
+ * 只为有过订阅的任务维护上一版本的分配与历史，任务结束后发送最后一个版本并关闭连接。
+ * 计算差异与发送都在单个后台线程上执行，不占用求解线程，同一任务的事件按版本顺序发送。
+ */
+@Slf4j
+@Service
+public class SolutionDeltaBroadcaster implements DisposableBean {
+
+    static final int HISTORY_SIZE = 64;
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String DELTA_EVENT = "delta";
+
+    private final long timeoutMillis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "solution-delta-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 只在 executor 线程上访问
+    private final Map<String, JobStream> streams = new HashMap<>();
+
+    private static final class JobStream {
+        // 上一版本各订单的分配，按订单顺序
+        private final Map<String, OrderAssignment> assignments = new LinkedHashMap<>();
+        private final ArrayDeque<SolutionDelta> history = new ArrayDeque<>();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private long version;
+        private JobState state;
+        private HardMediumSoftScore score;
+    }
+
+    public SolutionDeltaBroadcaster(@Value("${app.stream.timeout:PT30M}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * 发布任务的新版本；schedule 为 null 表示只有状态变化。没有订阅过的任务直接忽略。
+     */
+    void publish(String jobId, long version, JobState state, HardMediumSoftScore score, OrderSchedule schedule) {
+        executor.execute(() -> {
+            JobStream stream = streams.get(jobId);
+            // 订阅时的快照可能已包含该版本
+            if (stream == null || version <= stream.version) {
+                return;
+            }
+            List<OrderAssignment> changes = schedule == null ? List.of() : diff(stream, schedule);
+            List<String> removed = schedule == null ? List.of() : removeMissing(stream, schedule);
+            SolutionDelta delta = new SolutionDelta(jobId, version, false, state, score, changes, removed);
+            stream.version = version;
+            stream.state = state;
+            stream.score = score;
+            stream.history.addLast(delta);
+            if (stream.history.size() > HISTORY_SIZE) {
+                stream.history.removeFirst();
+            }
+            for (SseEmitter emitter : List.copyOf(stream.emitters)) {
+                send(stream, emitter, DELTA_EVENT, delta);
+            }
+            if (state.isFinished()) {
+                stream.emitters.forEach(SseEmitter::complete);
+                streams.remove(jobId);
+            }
+        });
+    }
+
+    /**
+     * 订阅任务的方案变化。scheduleSupplier 在任务尚无推送状态时提供当前方案作为基准。
+     */
+    public SseEmitter subscribe(SolveJob job, Long fromVersion, Supplier<OrderSchedule> scheduleSupplier) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        String jobId = job.getJobId();
+        executor.execute(() -> {
+            JobStream stream = streams.get(jobId);
+            if (stream == null) {
+                // 先读版本再读方案，方案至少与版本一样新，之后同版本的发布会被忽略
+                stream = new JobStream();
+                stream.version = job.getVersion();
+                stream.state = job.getState();
+                stream.score = job.getScore();
+                diff(stream, scheduleSupplier.get());
+                if (!stream.state.isFinished()) {
+                    streams.put(jobId, stream);
+                }
+            }
+            if (!replay(stream, emitter, fromVersion)) {
+                send(stream, emitter, SNAPSHOT_EVENT, new SolutionDelta(jobId, stream.version, true, stream.state,
+                        stream.score, List.copyOf(stream.assignments.values()), List.of()));
+            }
+            if (stream.state.isFinished()) {
+                emitter.complete();
+                return;
+            }
+            JobStream registered = stream;
+            registered.emitters.add(emitter);
+            Runnable remove = () -> executor.execute(() -> registered.emitters.remove(emitter));
+            emitter.onCompletion(remove);
+            emitter.onTimeout(remove);
+            emitter.onError(e -> remove.run());
+        });
+        return emitter;
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    // 从历史中补发 fromVersion 之后的增量；历史不足以覆盖时返回 false
+    private boolean replay(JobStream stream, SseEmitter emitter, Long fromVersion) {
+        if (fromVersion == null || fromVersion > stream.version) {
+            return false;
+        }
+        if (fromVersion == stream.version) {
+            return true;
+        }
+        if (stream.history.isEmpty() || stream.history.getFirst().version() > fromVersion + 1) {
+            return false;
+        }
+        for (SolutionDelta delta : stream.history) {
+            if (delta.version() > fromVersion) {
+                send(stream, emitter, DELTA_EVENT, delta);
+            }
+        }
+        return true;
+    }
+
+    // 更新 stream 中的分配并返回有变化的订单
+    private static List<OrderAssignment> diff(JobStream stream, OrderSchedule schedule) {
+        List<OrderAssignment> changes = new ArrayList<>();
+        if (schedule == null || schedule.getOrders() == null) {
+            return changes;
+        }
+        for (Order order : schedule.getOrders()) {
+            OrderAssignment previous = stream.assignments.get(order.getId());
+            if (previous == null || !previous.matches(order)) {
+                OrderAssignment assignment = OrderAssignment.of(order);
+                stream.assignments.put(order.getId(), assignment);
+                changes.add(assignment);
+            }
+        }
+        return changes;
+    }
+
+    // 去掉 stream 中已不在方案里的订单（求解中被删除）并返回其 id；先调用 diff，订单数一致时无需检查
+    private static List<String> removeMissing(JobStream stream, OrderSchedule schedule) {
+        List<Order> orders = schedule == null || schedule.getOrders() == null ? List.of() : schedule.getOrders();
+        if (stream.assignments.size() <= orders.size()) {
+            return List.of();
+        }
+        Set<String> ids = new HashSet<>(orders.size() * 2);
+        orders.forEach(order -> ids.add(order.getId()));
+        List<String> removed = new ArrayList<>();
+        stream.assignments.keySet().removeIf(id -> !ids.contains(id) && removed.add(id));
+        return removed;
+    }
+
+    private static void send(JobStream stream, SseEmitter emitter, String eventName, SolutionDelta delta) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(JobScheduler.versionTag(delta.version()))
+                    .name(eventName)
+                    .data(delta, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+            log.debug("Dropping subscriber of jobId: {}", delta.jobId(), e);
+            stream.emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.service;
+
+import java.lang.ref.SoftReference;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+import com.example.demo.entity.OrderSchedule;
+
+/**
+ * {@link JobScheduler} 管理的一个求解任务：排序键（优先级、公平排队标签、提交序号）在提交时确定且不再改变，
+ * 状态与最新方案由求解线程更新，其余线程只读。
+ */
+public final class SolveJob {
+
+    private final String jobId;
+    private final String clientId;
+    private final int priority;
+    private final PlanningModel model;
+    private final int moveThreadCount;
+    private final Partitioning partitioning;
+    // 公平排队的虚拟开始标签：同一优先级内，各客户端的任务按轮次交替开始
+    private final long fairnessTag;
+    private final long sequence;
+    private final Instant submittedAt;
+    private final int orderCount;
+    private final Consumer<SolveJob> starter;
+
+    // 方案/状态版本：提交时为 0，每个更优解与每次状态变化加一（见 advanceVersion）
+    private volatile long version;
+    private volatile JobStatus status;
+    private volatile Instant lastImprovedAt;
+    private volatile long moveEvaluationCount;
+    // 求解中由 SolverJob 提供已评估的移动数
+    private volatile LongSupplier moveEvaluationCounter;
+    private volatile JobState state = JobState.QUEUED;
+    private volatile OrderSchedule schedule;
+    private volatile HardMediumSoftScore score;
+    private volatile Throwable exception;
+    private volatile Instant finishedAt;
+    // 已写入 JobStore 并移出堆的方案，读取后软引用缓存，内存紧张时由 GC 回收
+    private volatile SoftReference<OrderSchedule> pagedInSchedule;
+
+    SolveJob(String jobId, String clientId, int priority, PlanningModel model, int moveThreadCount,
+            Partitioning partitioning, long fairnessTag, long sequence, Instant submittedAt, OrderSchedule problem,
+            Consumer<SolveJob> starter) {
+        this.jobId = jobId;
+        this.clientId = clientId;
+        this.priority = priority;
+        this.model = model;
+        this.moveThreadCount = moveThreadCount;
+        this.partitioning = partitioning;
+        this.fairnessTag = fairnessTag;
+        this.sequence = sequence;
+        this.submittedAt = submittedAt;
+        this.orderCount = problem == null || problem.getOrders() == null ? 0 : problem.getOrders().size();
+        this.starter = starter;
+        setSchedule(problem);
+        this.status = buildStatus();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    // 规划模型，null 表示默认的分配模型
+    public PlanningModel getModel() {
+        return model;
+    }
+
+    // 已解析的移动线程数，0 表示单线程
+    public int getMoveThreadCount() {
+        return moveThreadCount;
+    }
+
+    // 分区求解的参数，null 表示整体求解
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    long getFairnessTag() {
+        return fairnessTag;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    // 内存淘汰按订单数估算方案大小
+    int getOrderCount() {
+        return orderCount;
+    }
+
+    Consumer<SolveJob> getStarter() {
+        return starter;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // 当前版本的状态记录（不含排队位置）
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * 版本加一并重新生成状态记录，返回新版本。improved 表示这次变化是一个更优解。
+     */
+    synchronized long advanceVersion(boolean improved) {
+        version++;
+        if (improved) {
+            lastImprovedAt = Instant.now();
+        }
+        LongSupplier counter = moveEvaluationCounter;
+        if (counter != null) {
+            moveEvaluationCount = counter.getAsLong();
+        }
+        status = buildStatus();
+        return version;
+    }
+
+    private JobStatus buildStatus() {
+        return new JobStatus(jobId, state, state.toSolverStatus(), score, version, lastImprovedAt,
+                moveEvaluationCount, null);
+    }
+
+    void setMoveEvaluationCounter(LongSupplier moveEvaluationCounter) {
+        this.moveEvaluationCounter = moveEvaluationCounter;
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    void setState(JobState state) {
+        this.state = state;
+    }
+
+    // 最新方案：排队时为原始问题，求解中为当前最优解；已移出堆时为 null，通过 JobScheduler#getSchedule 读取
+    public OrderSchedule getSchedule() {
+        return schedule;
+    }
+
+    void setSchedule(OrderSchedule schedule) {
+        this.schedule = schedule;
+        if (schedule != null) {
+            this.score = schedule.getScore();
+        }
+    }
+
+    // 最新方案的得分，方案移出堆后仍保留
+    public HardMediumSoftScore getScore() {
+        return score;
+    }
+
+    void setScore(HardMediumSoftScore score) {
+        this.score = score;
+    }
+
+    OrderSchedule getPagedInSchedule() {
+        SoftReference<OrderSchedule> reference = pagedInSchedule;
+        return reference == null ? null : reference.get();
+    }
+
+    void setPagedInSchedule(OrderSchedule schedule) {
+        this.pagedInSchedule = schedule == null ? null : new SoftReference<>(schedule);
+    }
+
+    public Throwable getException() {
+        return exception;
+    }
+
+    void setException(Throwable exception) {
+        this.exception = exception;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.demo.wire;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.Shift;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * {@link OrderSchedule} 的列式二进制编码（{@value OrderScheduleHttpMessageConverter#COLUMNAR_VALUE}）。
+ * <p>
+ * 员工、产线与时间槽按行写出；订单按列写出，每列是同一字段的连续值：产品名、技能与功能是字典编码
+ * （先写去重后的字符串，再写每个订单的下标），员工、产线与时间槽写为它们在各自列表中的下标，
+ * 日期写为 epoch day，固定标记写为位图。所有整数为大端 int，字符串为 {@link DataOutputStream#writeUTF}，
+ * 可为 null 的值以 -1 下标或前置的 boolean 标记。
+ * <p>
+ * 读取时数量来自不可信的请求体，不按数量预分配：列表从有限的初始容量开始增长，按订单数分配的数组只在
+ * 逐个读完订单 id 之后才创建，因此内存占用不超过实际读到的数据量。技能、功能与产品名在一次读取内去重共享，
+ * 不进入 JVM 全局的字符串常量池。
+ */
+public final class ColumnarScheduleCodec {
+
+    private static final int MAGIC = 0x41505343; // "APSC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    // 按请求体中的数量创建列表时的最大初始容量
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private ColumnarScheduleCodec() {
+    }
+
+    public static void write(OrderSchedule schedule, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, schedule.getId());
+        writeString(out, schedule.getSolverStatus() == null ? null : schedule.getSolverStatus().name());
+        writeString(out, schedule.getScore() == null ? null : schedule.getScore().toString());
+        writeString(out, schedule.getPlanningStart() == null ? null : schedule.getPlanningStart().toString());
+
+        List<Employee> employees = nonNull(schedule.getEmployees());
+        out.writeInt(employees.size());
+        for (Employee employee : employees) {
+            writeString(out, employee.getName());
+            writeStrings(out, employee.getSkills() == null ? null : new ArrayList<>(employee.getSkills()));
+            Shift shift = employee.getShift();
+            out.writeBoolean(shift != null);
+            if (shift != null) {
+                writeString(out, shift.getStart() == null ? null : shift.getStart().toString());
+                writeString(out, shift.getEnd() == null ? null : shift.getEnd().toString());
+                writeString(out, shift.getName());
+            }
+        }
+        List<Line> lines = nonNull(schedule.getLines());
+        out.writeInt(lines.size());
+        for (Line line : lines) {
+            writeString(out, line.getName());
+            writeStrings(out, line.getFunctions());
+        }
+        List<TimeGrain> timeGrains = nonNull(schedule.getTimeGrains());
+        out.writeInt(timeGrains.size());
+        for (TimeGrain timeGrain : timeGrains) {
+            writeString(out, timeGrain.getId());
+            out.writeInt(timeGrain.getGrainIndex());
+            out.writeInt(timeGrain.getStartMinute());
+        }
+
+        List<Order> orders = nonNull(schedule.getOrders());
+        int count = orders.size();
+        out.writeInt(count);
+        for (Order order : orders) {
+            writeString(out, order.getId());
+        }
+        writeDictionaryColumn(out, orders, Order::getProductName);
+        for (Order order : orders) {
+            out.writeInt(order.getQuantity());
+        }
+        for (Order order : orders) {
+            out.writeInt(order.getWorkHours());
+        }
+        for (Order order : orders) {
+            out.writeInt(order.getEarliestDate() == null ? NO_DATE : (int) order.getEarliestDate().toEpochDay());
+        }
+        for (Order order : orders) {
+            out.writeInt(order.getLatestDate() == null ? NO_DATE : (int) order.getLatestDate().toEpochDay());
+        }
+        writeDictionaryColumn(out, orders, Order::getRequiredSkill);
+        writeDictionaryColumn(out, orders, Order::getRequiredLineFunction);
+        writeReferenceColumn(out, orders, employees, Order::getEmployee, Employee::getName);
+        writeReferenceColumn(out, orders, lines, Order::getLine, Line::getName);
+        writeReferenceColumn(out, orders, timeGrains, Order::getStartingTimeGrain, TimeGrain::getId);
+        byte[] pinned = new byte[(count + 7) / 8];
+        for (int i = 0; i < count; i++) {
+            if (orders.get(i).isPinned()) {
+                pinned[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.write(pinned);
+        out.flush();
+    }
+
+    /**
+     * 读取 {@link #write} 写出的方案；格式不符或引用越界时抛出 IllegalArgumentException。
+     */
+    public static OrderSchedule read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a columnar schedule.");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported columnar schedule version: " + version);
+        }
+        // 一次读取内的字符串去重表
+        Map<String, String> strings = new HashMap<>();
+        OrderSchedule schedule = new OrderSchedule();
+        schedule.setId(readString(in));
+        String solverStatus = readString(in);
+        schedule.setSolverStatus(solverStatus == null ? null : SolverStatus.valueOf(solverStatus));
+        String score = readString(in);
+        schedule.setScore(score == null ? null : HardMediumSoftScore.parseScore(score));
+        String planningStart = readString(in);
+        schedule.setPlanningStart(planningStart == null ? null : LocalDateTime.parse(planningStart));
+
+        int employeeCount = readCount(in);
+        List<Employee> employees = new ArrayList<>(initialCapacity(employeeCount));
+        for (int i = 0; i < employeeCount; i++) {
+            Employee employee = new Employee();
+            employee.setName(readString(in));
+            List<String> skills = readStrings(in, strings);
+            employee.setSkills(skills == null ? null : new HashSet<>(skills));
+            if (in.readBoolean()) {
+                String start = readString(in);
+                String end = readString(in);
+                employee.setShift(new Shift(start == null ? null : LocalDateTime.parse(start),
+                        end == null ? null : LocalDateTime.parse(end), readString(in)));
+            }
+            employees.add(employee);
+        }
+        int lineCount = readCount(in);
+        List<Line> lines = new ArrayList<>(initialCapacity(lineCount));
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new Line(readString(in), readStrings(in, strings)));
+        }
+        int timeGrainCount = readCount(in);
+        List<TimeGrain> timeGrains = new ArrayList<>(initialCapacity(timeGrainCount));
+        for (int i = 0; i < timeGrainCount; i++) {
+            String id = readString(in);
+            int grainIndex = in.readInt();
+            timeGrains.add(new TimeGrain(id, grainIndex, TimeGrain.toDateTime(in.readInt())));
+        }
+
+        int count = readCount(in);
+        List<Order> orders = new ArrayList<>(initialCapacity(count));
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setId(readString(in));
+            orders.add(order);
+        }
+        // 以下按 count 分配的数组都在订单 id 读完之后，count 已由实际数据确认
+        String[] productNames = readDictionaryColumn(in, count, strings);
+        for (int i = 0; i < count; i++) {
+            orders.get(i).setProductName(productNames[i]);
+        }
+        for (Order order : orders) {
+            order.setQuantity(in.readInt());
+        }
+        for (Order order : orders) {
+            order.setWorkHours(in.readInt());
+        }
+        for (Order order : orders) {
+            order.setEarliestDate(readDate(in));
+        }
+        for (Order order : orders) {
+            order.setLatestDate(readDate(in));
+        }
+        String[] skills = readDictionaryColumn(in, count, strings);
+        String[] functions = readDictionaryColumn(in, count, strings);
+        for (int i = 0; i < count; i++) {
+            orders.get(i).setRequiredSkill(skills[i]);
+            orders.get(i).setRequiredLineFunction(functions[i]);
+        }
+        for (Order order : orders) {
+            order.setEmployee(reference(employees, in.readInt()));
+        }
+        for (Order order : orders) {
+            order.setLine(reference(lines, in.readInt()));
+        }
+        for (Order order : orders) {
+            order.setStartingTimeGrain(reference(timeGrains, in.readInt()));
+        }
+        byte[] pinned = new byte[(count + 7) / 8];
+        in.readFully(pinned);
+        for (int i = 0; i < count; i++) {
+            orders.get(i).setPinned((pinned[i >>> 3] & (1 << (i & 7))) != 0);
+        }
+
+        schedule.setEmployees(employees);
+        schedule.setLines(lines);
+        schedule.setTimeGrains(timeGrains);
+        schedule.setOrders(orders);
+        return schedule;
+    }
+
+    // 字典编码的字符串列：去重后的字符串表，然后每行一个下标（-1 表示 null）
+    private static void writeDictionaryColumn(DataOutputStream out, List<Order> orders,
+            Function<Order, String> column) throws IOException {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Order order : orders) {
+            String value = column.apply(order);
+            if (value != null) {
+                dictionary.putIfAbsent(value, dictionary.size());
+            }
+        }
+        out.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            out.writeUTF(value);
+        }
+        for (Order order : orders) {
+            String value = column.apply(order);
+            out.writeInt(value == null ? -1 : dictionary.get(value));
+        }
+    }
+
+    private static String[] readDictionaryColumn(DataInputStream in, int count, Map<String, String> strings)
+            throws IOException {
+        int size = readCount(in);
+        // 字典中的字符串只读一次，各行共享同一个实例
+        List<String> dictionary = new ArrayList<>(initialCapacity(size));
+        for (int i = 0; i < size; i++) {
+            dictionary.add(dedup(strings, in.readUTF()));
+        }
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = reference(dictionary, in.readInt());
+        }
+        return values;
+    }
+
+    // 引用列：每行写出被引用对象在列表中的下标（-1 表示未分配）；列表外的对象按 id 查找
+    private static <T> void writeReferenceColumn(DataOutputStream out, List<Order> orders, List<T> targets,
+            Function<Order, T> column, Function<T, String> id) throws IOException {
+        Map<T, Integer> indexByInstance = new IdentityHashMap<>();
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < targets.size(); i++) {
+            indexByInstance.put(targets.get(i), i);
+            indexById.putIfAbsent(id.apply(targets.get(i)), i);
+        }
+        for (Order order : orders) {
+            T target = column.apply(order);
+            if (target == null) {
+                out.writeInt(-1);
+                continue;
+            }
+            Integer index = indexByInstance.get(target);
+            if (index == null) {
+                index = indexById.get(id.apply(target));
+            }
+            if (index == null) {
+                throw new IllegalArgumentException("Order " + order.getId() + " references " + id.apply(target)
+                        + ", which is not in the schedule.");
+            }
+            out.writeInt(index);
+        }
+    }
+
+    private static <T> T reference(List<T> targets, int index) {
+        if (index == -1) {
+            return null;
+        }
+        if (index < 0 || index >= targets.size()) {
+            throw new IllegalArgumentException("Reference " + index + " out of range (" + targets.size() + ").");
+        }
+        return targets.get(index);
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        int epochDay = in.readInt();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values == null ? -1 : values.size());
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in, Map<String, String> strings) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(initialCapacity(size));
+        for (int i = 0; i < size; i++) {
+            String value = readString(in);
+            values.add(dedup(strings, value));
+        }
+        return values;
+    }
+
+    private static String dedup(Map<String, String> strings, String value) {
+        return value == null ? null : strings.computeIfAbsent(value, key -> key);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count in columnar schedule: " + count);
+        }
+        return count;
+    }
+
+    private static int initialCapacity(int count) {
+        return Math.min(count, MAX_INITIAL_CAPACITY);
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+}
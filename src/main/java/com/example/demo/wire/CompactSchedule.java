@@ -0,0 +1,100 @@
+package com.example.demo.wire;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+/**
+ * {@link OrderSchedule} 的引用式 JSON 表示（{@value OrderScheduleHttpMessageConverter#COMPACT_JSON_VALUE}）：
+ * 员工、产线与时间槽各只出现一次，订单按 {@code @PlanningId}（员工/产线名称、时间槽 id）引用它们。
+ * 读取时所有订单引用同一个实例，约束中的 equal 连接不再依赖逐字段的 equals。
+ */
+public record CompactSchedule(String id, SolverStatus solverStatus, String score, LocalDateTime planningStart,
+        List<Employee> employees, List<Line> lines, List<TimeGrain> timeGrains, List<CompactOrder> orders) {
+
+    public record CompactOrder(String id, String productName, int quantity, int workHours, LocalDate earliestDate,
+            LocalDate latestDate, String requiredSkill, String requiredLineFunction, String employee, String line,
+            String timeGrain, boolean pinned) {
+    }
+
+    public static CompactSchedule of(OrderSchedule schedule) {
+        List<CompactOrder> orders = new ArrayList<>();
+        if (schedule.getOrders() != null) {
+            for (Order order : schedule.getOrders()) {
+                orders.add(new CompactOrder(order.getId(), order.getProductName(), order.getQuantity(),
+                        order.getWorkHours(), order.getEarliestDate(), order.getLatestDate(),
+                        order.getRequiredSkill(), order.getRequiredLineFunction(),
+                        order.getEmployee() == null ? null : order.getEmployee().getName(),
+                        order.getLine() == null ? null : order.getLine().getName(),
+                        order.getStartingTimeGrain() == null ? null : order.getStartingTimeGrain().getId(),
+                        order.isPinned()));
+            }
+        }
+        return new CompactSchedule(schedule.getId(), schedule.getSolverStatus(),
+                schedule.getScore() == null ? null : schedule.getScore().toString(), schedule.getPlanningStart(),
+                schedule.getEmployees(), schedule.getLines(), schedule.getTimeGrains(), orders);
+    }
+
+    /**
+     * 按 id 解析订单的引用；引用了不存在的员工、产线或时间槽时抛出 IllegalArgumentException。
+     */
+    public OrderSchedule toSchedule() {
+        Map<String, Employee> employeesByName = index(employees, Employee::getName);
+        Map<String, Line> linesByName = index(lines, Line::getName);
+        Map<String, TimeGrain> timeGrainsById = index(timeGrains, TimeGrain::getId);
+        List<Order> scheduleOrders = new ArrayList<>(orders == null ? 0 : orders.size());
+        if (orders != null) {
+            for (CompactOrder compact : orders) {
+                Order order = new Order(compact.productName(), compact.quantity(), compact.workHours(),
+                        compact.earliestDate(), compact.latestDate(), compact.requiredSkill(),
+                        compact.requiredLineFunction());
+                order.setId(compact.id());
+                order.setEmployee(resolve(employeesByName, compact.employee(), "Employee", compact.id()));
+                order.setLine(resolve(linesByName, compact.line(), "Line", compact.id()));
+                order.setStartingTimeGrain(resolve(timeGrainsById, compact.timeGrain(), "Time grain", compact.id()));
+                order.setPinned(compact.pinned());
+                scheduleOrders.add(order);
+            }
+        }
+        OrderSchedule schedule = new OrderSchedule(employees, lines, timeGrains, scheduleOrders);
+        schedule.setId(id);
+        schedule.setSolverStatus(solverStatus);
+        schedule.setScore(score == null ? null : HardMediumSoftScore.parseScore(score));
+        schedule.setPlanningStart(planningStart);
+        return schedule;
+    }
+
+    private static <T> Map<String, T> index(List<T> items, Function<T, String> id) {
+        Map<String, T> index = new HashMap<>();
+        if (items != null) {
+            for (T item : items) {
+                index.put(id.apply(item), item);
+            }
+        }
+        return index;
+    }
+
+    private static <T> T resolve(Map<String, T> index, String id, String kind, String orderId) {
+        if (id == null) {
+            return null;
+        }
+        T item = index.get(id);
+        if (item == null) {
+            throw new IllegalArgumentException(kind + " " + id + " referenced by order " + orderId + " not found.");
+        }
+        return item;
+    }
+}
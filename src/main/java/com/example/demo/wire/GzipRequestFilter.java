@@ -0,0 +1,139 @@
+package com.example.demo.wire;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 解压 Content-Encoding: gzip 的请求体（任意格式），大型问题可以压缩后上传。
+ * 解压后的请求不再带 Content-Encoding 与 Content-Length。
+ * 解压后的字节数超过 app.upload.max-inflated-size 时读取失败（请求返回 400），防止压缩炸弹。
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final long maxInflatedBytes;
+
+    public GzipRequestFilter(@Value("${app.upload.max-inflated-size:512MB}") DataSize maxInflatedSize) {
+        this.maxInflatedBytes = maxInflatedSize.toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || !GZIP.equalsIgnoreCase(encoding.trim())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        chain.doFilter(new GzipRequest(request, maxInflatedBytes), response);
+    }
+
+    private static final class GzipRequest extends HttpServletRequestWrapper {
+
+        private final long maxInflatedBytes;
+        private ServletInputStream inputStream;
+
+        private GzipRequest(HttpServletRequest request, long maxInflatedBytes) {
+            super(request);
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                GZIPInputStream gzip = new GZIPInputStream(super.getInputStream(), 1 << 16);
+                inputStream = new ServletInputStream() {
+                    private boolean finished;
+                    private long inflated;
+
+                    @Override
+                    public int read() throws IOException {
+                        int b = gzip.read();
+                        finished = b < 0;
+                        count(finished ? 0 : 1);
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int n = gzip.read(buffer, offset, length);
+                        finished = n < 0;
+                        count(Math.max(n, 0));
+                        return n;
+                    }
+
+                    private void count(int n) throws IOException {
+                        inflated += n;
+                        if (inflated > maxInflatedBytes) {
+                            throw new IOException("Decompressed request body exceeds " + maxInflatedBytes + " bytes.");
+                        }
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return finished;
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener readListener) {
+                        throw new UnsupportedOperationException("Asynchronous reads of gzip request bodies.");
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        gzip.close();
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isRemovedHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isRemovedHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        private static boolean isRemovedHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demo.wire;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.util.StreamUtils;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * {@link OrderSchedule} 的 NDJSON 流（{@value OrderScheduleHttpMessageConverter#NDJSON_VALUE}）：第一行是
+ * {@link Header}（员工、产线，以及时间槽列表或规划范围），之后每行一个订单，字段与
+ * {@link CompactSchedule.CompactOrder} 相同，按名称/id 引用员工、产线与时间槽。
+ * <p>
+ * 读取时用 Jackson 的流式 API 逐个解析订单，不构建 JSON 树，也不先缓冲整个请求体：内存只随生成的对象图增长。
+ * 订单中的产品名、技能与功能字符串在一次读取内去重共享，引用按 id 解析为同一个实例；每个订单读完即校验
+ * （引用存在、订单 id 不重复、工时为正、最早日期不晚于最晚日期），出错时报告所在行号。
+ * <p>
+ * horizon 的天数来自请求，超过 {@code maxHorizonDays} 时在生成时间槽之前拒绝，避免几十字节的首行触发巨大的分配。
+ */
+public final class NdjsonScheduleCodec {
+
+    /** 未配置 app.upload.max-horizon-days 时 horizon 的天数上限 */
+    public static final int DEFAULT_MAX_HORIZON_DAYS = 366;
+
+    private static final int GRAINS_PER_DAY = TimeGrain.MINUTES_PER_DAY / TimeGrain.GRAIN_LENGTH_IN_MINUTES;
+    private static final Set<String> ORDER_FIELDS = Set.of("id", "productName", "quantity", "workHours",
+            "earliestDate", "latestDate", "requiredSkill", "requiredLineFunction", "employee", "line", "timeGrain",
+            "pinned");
+
+    /**
+     * 第一行。timeGrains 与 horizon 二选一：horizon 从 start 起每 15 分钟生成一个时间槽，共 days 天。
+     */
+    public record Header(String id, SolverStatus solverStatus, String score, LocalDateTime planningStart,
+            List<Employee> employees, List<Line> lines, List<TimeGrain> timeGrains, Horizon horizon) {
+    }
+
+    public record Horizon(LocalDateTime start, int days) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int maxHorizonDays;
+
+    public NdjsonScheduleCodec(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_MAX_HORIZON_DAYS);
+    }
+
+    public NdjsonScheduleCodec(ObjectMapper objectMapper, int maxHorizonDays) {
+        this.objectMapper = objectMapper;
+        this.maxHorizonDays = maxHorizonDays;
+    }
+
+    public OrderSchedule read(InputStream inputStream) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Line 1: expected the header object.");
+            }
+            Header header = objectMapper.readValue(parser, Header.class);
+            Reader reader = new Reader(header, maxHorizonDays);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                int line = parser.currentLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Line " + line + ": expected an order object.");
+                }
+                try {
+                    reader.readOrder(parser);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+                }
+            }
+            return reader.toSchedule();
+        }
+    }
+
+    public void write(OrderSchedule schedule, OutputStream outputStream) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(StreamUtils.nonClosing(outputStream))) {
+            writer.write(new Header(schedule.getId(), schedule.getSolverStatus(),
+                    schedule.getScore() == null ? null : schedule.getScore().toString(), schedule.getPlanningStart(),
+                    schedule.getEmployees(), schedule.getLines(), schedule.getTimeGrains(), null));
+            CompactSchedule compact = CompactSchedule.of(schedule);
+            for (CompactSchedule.CompactOrder order : compact.orders()) {
+                writer.write(order);
+            }
+        }
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+
+    // 一次读取的状态：引用索引、字符串去重表与已读到的订单
+    private static final class Reader {
+
+        private final Header header;
+        private final List<Employee> employees;
+        private final List<Line> lines;
+        private final List<TimeGrain> timeGrains;
+        private final Map<String, Employee> employeesByName = new HashMap<>();
+        private final Map<String, Line> linesByName = new HashMap<>();
+        private final Map<String, TimeGrain> timeGrainsById = new HashMap<>();
+        private final Map<String, String> strings = new HashMap<>();
+        private final Set<String> orderIds = new HashSet<>();
+        private final List<Order> orders = new ArrayList<>();
+
+        private Reader(Header header, int maxHorizonDays) {
+            this.header = header;
+            this.employees = header.employees() == null ? new ArrayList<>() : header.employees();
+            this.lines = header.lines() == null ? new ArrayList<>() : header.lines();
+            if (header.timeGrains() != null) {
+                this.timeGrains = header.timeGrains();
+            } else if (header.horizon() != null && header.horizon().start() != null && header.horizon().days() > 0) {
+                if (header.horizon().days() > maxHorizonDays) {
+                    throw new IllegalArgumentException("Line 1: the horizon spans " + header.horizon().days()
+                            + " days, at most " + maxHorizonDays + " are allowed.");
+                }
+                this.timeGrains = TimeGrain.sequence(header.horizon().start(),
+                        Math.multiplyExact(header.horizon().days(), GRAINS_PER_DAY));
+            } else {
+                throw new IllegalArgumentException("Line 1: the header needs timeGrains or a horizon.");
+            }
+            for (Employee employee : employees) {
+                if (employeesByName.put(employee.getName(), employee) != null) {
+                    throw new IllegalArgumentException("Line 1: duplicate employee " + employee.getName() + ".");
+                }
+                if (employee.getSkills() != null) {
+                    Set<String> skills = new LinkedHashSet<>();
+                    employee.getSkills().forEach(skill -> skills.add(intern(skill)));
+                    employee.setSkills(skills);
+                }
+            }
+            for (Line line : lines) {
+                if (linesByName.put(line.getName(), line) != null) {
+                    throw new IllegalArgumentException("Line 1: duplicate line " + line.getName() + ".");
+                }
+                if (line.getFunctions() != null) {
+                    line.setFunctions(line.getFunctions().stream().map(this::intern).toList());
+                }
+            }
+            for (TimeGrain timeGrain : timeGrains) {
+                timeGrainsById.put(timeGrain.getId(), timeGrain);
+            }
+        }
+
+        // 解析器位于订单对象的 START_OBJECT，返回时位于对应的 END_OBJECT
+        private void readOrder(JsonParser parser) throws IOException {
+            Order order = new Order();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    if (ORDER_FIELDS.contains(field)) {
+                        throw new IllegalArgumentException("The order field " + field
+                                + " must be a single value, employees, lines and time grains are referenced by id.");
+                    }
+                    parser.skipChildren();
+                    continue;
+                }
+                String text = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                switch (field) {
+                    case "id" -> order.setId(text);
+                    case "productName" -> order.setProductName(intern(text));
+                    case "quantity" -> order.setQuantity(parser.getValueAsInt());
+                    case "workHours" -> order.setWorkHours(parser.getValueAsInt());
+                    case "earliestDate" -> order.setEarliestDate(text == null ? null : LocalDate.parse(text));
+                    case "latestDate" -> order.setLatestDate(text == null ? null : LocalDate.parse(text));
+                    case "requiredSkill" -> order.setRequiredSkill(intern(text));
+                    case "requiredLineFunction" -> order.setRequiredLineFunction(intern(text));
+                    case "employee" -> order.setEmployee(resolve(employeesByName, text, "Employee"));
+                    case "line" -> order.setLine(resolve(linesByName, text, "Line"));
+                    case "timeGrain" -> order.setStartingTimeGrain(resolve(timeGrainsById, text, "Time grain"));
+                    case "pinned" -> order.setPinned(parser.getValueAsBoolean());
+                    default -> {
+                        // 未知字段（例如输出中的 scheduledDateTime）忽略
+                    }
+                }
+            }
+            validate(order);
+            orders.add(order);
+        }
+
+        private void validate(Order order) {
+            if (order.getId() != null && !orderIds.add(order.getId())) {
+                throw new IllegalArgumentException("Duplicate order id " + order.getId() + ".");
+            }
+            if (order.getWorkHours() <= 0) {
+                throw new IllegalArgumentException("Order " + order.getId() + " has no work hours.");
+            }
+            if (order.getEarliestDate() != null && order.getLatestDate() != null
+                    && order.getEarliestDate().isAfter(order.getLatestDate())) {
+                throw new IllegalArgumentException("Order " + order.getId() + " has an earliestDate ("
+                        + order.getEarliestDate() + ") after its latestDate (" + order.getLatestDate() + ").");
+            }
+            if (order.isPinned() && (order.getEmployee() == null || order.getLine() == null
+                    || order.getStartingTimeGrain() == null)) {
+                throw new IllegalArgumentException("Pinned order " + order.getId()
+                        + " needs an employee, a line and a timeGrain.");
+            }
+        }
+
+        private OrderSchedule toSchedule() {
+            OrderSchedule schedule = new OrderSchedule(employees, lines, timeGrains, orders);
+            schedule.setId(header.id());
+            schedule.setSolverStatus(header.solverStatus());
+            schedule.setScore(header.score() == null ? null : HardMediumSoftScore.parseScore(header.score()));
+            schedule.setPlanningStart(header.planningStart());
+            return schedule;
+        }
+
+        private String intern(String value) {
+            return value == null ? null : strings.computeIfAbsent(value, key -> key);
+        }
+
+        private static <T> T resolve(Map<String, T> index, String id, String kind) {
+            if (id == null) {
+                return null;
+            }
+            T item = index.get(id);
+            if (item == null) {
+                throw new IllegalArgumentException(kind + " " + id + " not found.");
+            }
+            return item;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.wire;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.OrderSchedule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link OrderSchedule} 的紧凑传输格式，按 Content-Type / Accept 选择：
+ * <ul>
+ * <li>{@value #COMPACT_JSON_VALUE}：引用式 JSON（{@link CompactSchedule}），订单只写员工/产线名称与时间槽 id；</li>
+ * <li>{@value #COLUMNAR_VALUE}：列式二进制（{@link ColumnarScheduleCodec}）；</li>
+ * <li>{@value #NDJSON_VALUE}：首行为员工、产线与规划范围，之后每行一个订单（{@link NdjsonScheduleCodec}），
+ * 逐行流式解析，适合超大问题的上传。</li>
+ * </ul>
+ * 作为 bean 注册时排在默认转换器之前，Jackson 不会以完整格式处理 {@code +json} 后缀的紧凑类型；
+ * 返回方案的接口在 produces 中把 application/json 放在首位，未指定 Accept 的请求仍得到完整格式。
+ * 压缩由 server.compression（响应）与 {@link GzipRequestFilter}（请求）处理，与格式无关。
+ */
+@Component
+public class OrderScheduleHttpMessageConverter extends AbstractHttpMessageConverter<OrderSchedule> {
+
+    public static final String COMPACT_JSON_VALUE = "application/vnd.aps.compact+json";
+    public static final String COLUMNAR_VALUE = "application/vnd.aps.columnar";
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+    public static final MediaType COLUMNAR = MediaType.parseMediaType(COLUMNAR_VALUE);
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+
+    private final ObjectMapper objectMapper;
+    private final NdjsonScheduleCodec ndjsonCodec;
+
+    public OrderScheduleHttpMessageConverter(ObjectMapper objectMapper,
+            @Value("${app.upload.max-horizon-days:" + NdjsonScheduleCodec.DEFAULT_MAX_HORIZON_DAYS + "}") int maxHorizonDays) {
+        super(COMPACT_JSON, COLUMNAR, NDJSON);
+        this.objectMapper = objectMapper;
+        this.ndjsonCodec = new NdjsonScheduleCodec(objectMapper, maxHorizonDays);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return OrderSchedule.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected OrderSchedule readInternal(Class<? extends OrderSchedule> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        try {
+            MediaType contentType = inputMessage.getHeaders().getContentType();
+            if (COLUMNAR.includes(contentType)) {
+                return ColumnarScheduleCodec.read(inputMessage.getBody());
+            }
+            if (NDJSON.includes(contentType)) {
+                return ndjsonCodec.read(inputMessage.getBody());
+            }
+            return objectMapper.readValue(inputMessage.getBody(), CompactSchedule.class).toSchedule();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // 日期格式错误或超出范围同样是请求体无效（400），而不是服务器错误
+            throw new HttpMessageNotReadableException("Invalid schedule: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(OrderSchedule schedule, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        if (COLUMNAR.includes(contentType)) {
+            ColumnarScheduleCodec.write(schedule, outputMessage.getBody());
+        } else if (NDJSON.includes(contentType)) {
+            ndjsonCodec.write(schedule, outputMessage.getBody());
+        } else {
+            objectMapper.writeValue(outputMessage.getBody(), CompactSchedule.of(schedule));
+        }
+    }
+}
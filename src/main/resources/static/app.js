@@ -14,6 +14,7 @@
   const zoomDisplay = document.getElementById('zoomDisplay');
   const pollIntervalSel = document.getElementById('pollInterval');
   const refreshModeSel = document.getElementById('refreshMode');
+  const planningModelSel = document.getElementById('planningModel');
   const ganttContainer = document.getElementById('ganttContainer');
   const summaryDiv = document.getElementById('summary');
   const chartsDiv = document.getElementById('charts');
@@ -27,7 +28,19 @@
   let pendingCount = 0;
   const requiredStability = 2; // need to see the same changed data this many times before rendering
   let lastFetchedData = null;
+  // ETag (schedule version) of lastFetchedData, sent back as If-None-Match
+  let lastETag = null;
+  let lastETagJobId = null;
+  // last score analysis of the current job and its ETag; redraws revalidate it instead of re-analyzing
+  let lastAnalysis = null;
+  let lastAnalysisETag = null;
+  let lastAnalysisJobId = null;
   let hasEverRendered = false;
+  // server-sent delta stream state (see startStream)
+  let eventSource = null;
+  let streamJobId = null;
+  let streamIndex = null;
+  let streamRenderTimer = null;
 
   // tooltip element for detailed order info
   const tooltip = document.createElement('div'); tooltip.id = 'ganttTooltip'; document.body.appendChild(tooltip);
@@ -71,7 +84,7 @@
         solverStatus: schedule.solverStatus,
         employees: schedule.employees,
         lines: schedule.lines,
-        dateTimes: schedule.dateTimes,
+        timeGrains: schedule.timeGrains,
         orders: schedule.orders
       };
       return stableStringify(lightweight);
@@ -93,9 +106,16 @@
     });
   }
 
-  function startPolling() {
+  function startPolling(pollOnly) {
     stopPolling();
     const interval = Number(pollIntervalSel.value) || 2000;
+    // prefer the delta stream; the timer then only refreshes the job list
+    if (!pollOnly && window.EventSource && currentJobId) {
+      startStream(currentJobId);
+      pollTimer = setInterval(() => { updateJobSelect().catch(() => { }); }, interval);
+      return;
+    }
+    stopStream();
     // immediate fetch once
     (async () => {
       if (currentJobId) {
@@ -129,10 +149,102 @@
 
   function stopPolling() { if (pollTimer) { clearInterval(pollTimer); pollTimer = null; } }
 
+  // Subscribe to /schedules/{id}/stream: fetch the full schedule once, then apply only the orders whose
+  // employee, line or start changed. EventSource reconnects with Last-Event-ID, so the server resumes from
+  // the last applied version. Falls back to polling if the stream cannot be opened.
+  function startStream(id) {
+    stopStream();
+    streamJobId = id;
+    fetchSchedule(id).then(data => {
+      if (streamJobId !== id || !data) return;
+      if (!String(data.solverStatus || '').toUpperCase().includes('SOLV')) { streamJobId = null; return; }
+      // start from the version just fetched, so the stream does not resend it as a snapshot
+      const from = lastETag && lastETagJobId === id ? `?fromVersion=${encodeURIComponent(lastETag)}` : '';
+      const es = new EventSource(`/schedules/${encodeURIComponent(id)}/stream${from}`);
+      eventSource = es;
+      const onEvent = ev => { try { applyDelta(id, JSON.parse(ev.data)); } catch (e) { } };
+      es.addEventListener('snapshot', onEvent);
+      es.addEventListener('delta', onEvent);
+      es.onerror = () => {
+        if (es.readyState === EventSource.CLOSED && eventSource === es) { stopStream(); startPolling(true); }
+      };
+    }).catch(() => { if (streamJobId === id) { stopStream(); startPolling(true); } });
+  }
+
+  function stopStream() {
+    if (eventSource) { eventSource.close(); eventSource = null; }
+    if (streamRenderTimer) { clearTimeout(streamRenderTimer); streamRenderTimer = null; }
+    streamJobId = null; streamIndex = null;
+  }
+
+  const solverStatusByState = { QUEUED: 'SOLVING_SCHEDULED', SOLVING: 'SOLVING_ACTIVE' };
+
+  // lookup tables into the last fully fetched schedule; rebuilt whenever a full fetch replaces it
+  function buildStreamIndex(data) {
+    return {
+      data,
+      employees: new Map((data.employees || []).map(e => [e.name, e])),
+      lines: new Map((data.lines || []).map(l => [l.name, l])),
+      timeGrains: new Map((data.timeGrains || []).map(g => [g.id, g])),
+      orders: new Map((data.orders || []).map(o => [o.id, o]))
+    };
+  }
+
+  function applyDelta(id, delta) {
+    const data = lastFetchedData;
+    if (streamJobId !== id || !data) return;
+    if (!streamIndex || streamIndex.data !== data) streamIndex = buildStreamIndex(data);
+    // orders added or removed by a live problem change: the stream only carries assignments, refetch in full
+    let reshaped = (delta.removed || []).length > 0;
+    (delta.changes || []).forEach(c => {
+      const o = streamIndex.orders.get(c.id);
+      if (!o) { reshaped = true; return; }
+      const grain = c.timeGrain != null ? streamIndex.timeGrains.get(c.timeGrain) : null;
+      o.employee = c.employee != null ? (streamIndex.employees.get(c.employee) || { name: c.employee }) : null;
+      o.line = c.line != null ? (streamIndex.lines.get(c.line) || { name: c.line }) : null;
+      o.startingTimeGrain = grain ? grain.id : null;
+      o.scheduledDateTime = grain ? grain.dateTime : null;
+    });
+    data.score = delta.score;
+    data.solverStatus = solverStatusByState[delta.state] || 'NOT_SOLVING';
+    if (updatedEl) updatedEl.textContent = new Date().toLocaleTimeString();
+    const finished = !solverStatusByState[delta.state];
+    if (reshaped) {
+      fetchSchedule(id).then(fresh => { if (fresh && streamJobId === id) renderStreamed(id); }).catch(() => { });
+      if (!finished) return;
+    }
+    if (finished) { eventSource && eventSource.close(); eventSource = null; renderStreamed(id); return; }
+    // render at most once per poll interval; deltas in between are already applied to the data
+    if (!streamRenderTimer) {
+      streamRenderTimer = setTimeout(() => { streamRenderTimer = null; renderStreamed(id); },
+        Number(pollIntervalSel.value) || 2000);
+    }
+  }
+
+  function renderStreamed(id) {
+    if (streamRenderTimer) { clearTimeout(streamRenderTimer); streamRenderTimer = null; }
+    if (streamJobId !== id || !lastFetchedData) return;
+    // the next full fetch (refresh button / job switch) renders immediately
+    hasEverRendered = false;
+    renderStatus(id, lastFetchedData);
+    renderGantt(lastFetchedData);
+    renderAnalysis(lastFetchedData);
+  }
+
+  // conditional GET: the ETag is the schedule version, an unchanged schedule answers 304 without a body
   async function fetchSchedule(id) {
-    const res = await fetch(`/schedules/${id}`);
+    const conditional = lastETag && lastETagJobId === id && lastFetchedData;
+    const res = await fetch(`/schedules/${id}`,
+      { cache: 'no-store', headers: conditional ? { 'If-None-Match': `"${lastETag}"` } : {} });
+    if (res.status === 304 && conditional) {
+      if (updatedEl) updatedEl.textContent = new Date().toLocaleTimeString();
+      return lastFetchedData;
+    }
     if (!res.ok) throw new Error('fetch failed');
     const data = await res.json();
+    const eTag = res.headers.get('ETag');
+    lastETag = eTag ? eTag.replace(/^W\//, '').replace(/"/g, '') : null;
+    lastETagJobId = id;
     lastFetchedData = data;
     // record last fetch time as '最近更新时间'
     if (updatedEl) updatedEl.textContent = new Date().toLocaleTimeString();
@@ -191,6 +303,25 @@
     } catch (e) { return false; }
   }
 
+  // the server caches the analysis per schedule version: an unchanged version answers 304 without re-analyzing;
+  // a schedule that does not belong to a job is uploaded and analyzed as before
+  async function fetchAnalysis(schedule) {
+    if (!currentJobId) {
+      const resp = await fetch('/schedules/analyze', { method: 'PUT', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify(schedule) });
+      return resp.ok ? resp.json() : { status: resp.status };
+    }
+    const id = currentJobId;
+    const conditional = lastAnalysis && lastAnalysisJobId === id && lastAnalysisETag;
+    const resp = await fetch(`/schedules/${id}/analysis?detail=MATCHES&top=10`,
+      { cache: 'no-store', headers: conditional ? { 'If-None-Match': lastAnalysisETag } : {} });
+    if (resp.status === 304 && conditional) return lastAnalysis;
+    if (!resp.ok) return { status: resp.status };
+    lastAnalysis = await resp.json();
+    lastAnalysisETag = resp.headers.get('ETag');
+    lastAnalysisJobId = id;
+    return lastAnalysis;
+  }
+
   function renderAnalysis(schedule) {
     summaryDiv.innerHTML = '';
     chartsDiv.innerHTML = '';
@@ -228,12 +359,11 @@
     // call server analyze endpoint to fetch ScoreAnalysis if available and render nicely
     (async () => {
       try {
-        const resp = await fetch('/schedules/analyze', { method: 'PUT', headers: { 'Content-Type': 'application/json' }, body: JSON.stringify(schedule) });
-        if (!resp.ok) {
-          scoreAnalysisDiv.textContent = 'Score analysis unavailable: ' + resp.status;
+        const analysis = await fetchAnalysis(schedule);
+        if (analysis.status) {
+          scoreAnalysisDiv.textContent = 'Score analysis unavailable: ' + analysis.status;
           return;
         }
-        const analysis = await resp.json();
         let html = '';
         html += `<div class="analysis-overview"><div><strong>Score:</strong> ${analysis.score}</div><div><strong>Initialized:</strong> ${analysis.initialized}</div></div>`;
         if (analysis.constraints && analysis.constraints.length) {
@@ -247,7 +377,8 @@
                 const just = m.justification ? (typeof m.justification === 'string' ? m.justification : JSON.stringify(m.justification)) : '';
                 html += `<li><code>${m.score}</code> — ${escapeHtml(truncate(just, 200))}</li>`;
               });
-              if (c.matches.length > 10) html += `<li>... ${c.matches.length - 10} more</li>`;
+              const shown = Math.min(10, c.matches.length);
+              if (matchCount > shown) html += `<li>... ${matchCount - shown} more</li>`;
               html += '</ul>';
             }
             html += '</div>';
@@ -295,7 +426,7 @@
     ganttContainer.innerHTML = '';
     if (!schedule) return;
     const orders = schedule.orders || [];
-    const dateTimes = schedule.dateTimes || [];
+    const dateTimes = (schedule.timeGrains || []).map(g => g.dateTime);
     if (!dateTimes.length) return;
 
     // timeline range
@@ -477,7 +608,8 @@
   startBtn.addEventListener('click', async () => {
     startBtn.disabled = true;
     try {
-      const res = await fetch('/schedules/solve', { method: 'POST' });
+      const model = planningModelSel ? planningModelSel.value : 'ASSIGNMENT';
+      const res = await fetch(`/schedules/solve?model=${encodeURIComponent(model)}`, { method: 'POST' });
       const id = await res.text();
       currentJobId = id.replace(/\"/g, '').trim();
       jobSelect.value = currentJobId;
@@ -507,7 +639,11 @@
   }
 
   jobSelect.addEventListener('change', () => {
-    const sel = jobSelect.value; if (sel) { currentJobId = sel; jobIdField.textContent = sel; fetchSchedule(sel).catch(() => { }); }
+    const sel = jobSelect.value;
+    if (sel) {
+      currentJobId = sel; jobIdField.textContent = sel;
+      if (streamJobId || eventSource) startPolling(); else fetchSchedule(sel).catch(() => { });
+    }
   });
 
   pollIntervalSel.addEventListener('change', () => { if (currentJobId) startPolling(); });
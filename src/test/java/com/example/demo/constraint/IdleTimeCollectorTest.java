@@ -0,0 +1,93 @@
+package com.example.demo.constraint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IdleTimeCollectorTest {
+
+    private static final int SHIFT_START = 10_000;
+    private static final int SHIFT_LENGTH = 480;
+
+    @Test
+    void emptyShiftIsHalfWeighted() {
+        IdleTimeCollector.Occupancy occupancy = newOccupancy();
+        // a single gap over the whole shift has its midpoint in the middle -> weight 0.5
+        assertEquals(SHIFT_LENGTH / 2, occupancy.weightedIdleMinutes());
+    }
+
+    @Test
+    void retractRestoresPreviousPenalty() {
+        IdleTimeCollector.Occupancy occupancy = newOccupancy();
+        occupancy.insert(SHIFT_START + 60, SHIFT_START + 120);
+        int before = occupancy.weightedIdleMinutes();
+        Runnable undo = occupancy.insert(SHIFT_START + 90, SHIFT_START + 200);
+        undo.run();
+        assertEquals(before, occupancy.weightedIdleMinutes());
+    }
+
+    @Test
+    void matchesSortAndMergeOnRandomChanges() {
+        Random random = new Random(11);
+        IdleTimeCollector.Occupancy occupancy = newOccupancy();
+        List<int[]> intervals = new ArrayList<>();
+        List<Runnable> undos = new ArrayList<>();
+        for (int step = 0; step < 2_000; step++) {
+            if (!intervals.isEmpty() && random.nextInt(3) == 0) {
+                int i = random.nextInt(intervals.size());
+                intervals.remove(i);
+                undos.remove(i).run();
+            } else {
+                // intervals may overlap each other and stick out of the shift window
+                int start = SHIFT_START - 60 + random.nextInt(SHIFT_LENGTH + 60);
+                int end = start + 1 + random.nextInt(120);
+                intervals.add(new int[] { start, end });
+                undos.add(occupancy.insert(start, end));
+            }
+            assertEquals(sortAndMerge(intervals), occupancy.weightedIdleMinutes(), "step " + step);
+        }
+    }
+
+    private static IdleTimeCollector.Occupancy newOccupancy() {
+        IdleTimeCollector.Occupancy occupancy = new IdleTimeCollector.Occupancy();
+        occupancy.setShiftWindow(SHIFT_START, SHIFT_START + SHIFT_LENGTH);
+        return occupancy;
+    }
+
+    // 原实现：裁剪、排序后逐段累加加权空闲
+    private static int sortAndMerge(List<int[]> intervals) {
+        int shiftEnd = SHIFT_START + SHIFT_LENGTH;
+        List<int[]> occupied = new ArrayList<>();
+        for (int[] iv : intervals) {
+            int a = Math.max(iv[0], SHIFT_START);
+            int b = Math.min(iv[1], shiftEnd);
+            if (b > a) {
+                occupied.add(new int[] { a, b });
+            }
+        }
+        occupied.sort(Comparator.comparingInt(iv -> iv[0]));
+        double penalty = 0.0;
+        int prev = SHIFT_START;
+        for (int[] iv : occupied) {
+            if (iv[0] > prev) {
+                penalty += weightedGap(prev, iv[0]);
+            }
+            prev = Math.max(prev, iv[1]);
+        }
+        if (shiftEnd > prev) {
+            penalty += weightedGap(prev, shiftEnd);
+        }
+        return Math.max(0, (int) Math.round(penalty));
+    }
+
+    private static double weightedGap(int from, int to) {
+        int gap = to - from;
+        double mid = (from - SHIFT_START) + gap / 2.0;
+        return gap * (1.0 - mid / SHIFT_LENGTH);
+    }
+}
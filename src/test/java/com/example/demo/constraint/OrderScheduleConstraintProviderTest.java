@@ -0,0 +1,158 @@
+package com.example.demo.constraint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.test.api.score.stream.ConstraintVerifier;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.Shift;
+import com.example.demo.entity.ShiftCalendar;
+import com.example.demo.entity.TimeGrain;
+
+class OrderScheduleConstraintProviderTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2030, 4, 1);
+    private static final Line LINE = new Line("L1", List.of("Cutting"));
+
+    private final ConstraintVerifier<OrderScheduleConstraintProvider, OrderSchedule> constraintVerifier =
+            ConstraintVerifier.build(new OrderScheduleConstraintProvider(), OrderSchedule.class, Order.class);
+
+    private static Employee employee(String name, LocalTime shiftStart, LocalTime shiftEnd) {
+        LocalDateTime start = DAY1.atTime(shiftStart);
+        LocalDateTime end = shiftEnd.isAfter(shiftStart) ? DAY1.atTime(shiftEnd) : DAY1.plusDays(1).atTime(shiftEnd);
+        Employee employee = new Employee(name, Set.of("Cutting"), new Shift(start, end, name));
+        int day = (int) DAY1.toEpochDay();
+        employee.setShiftCalendar(ShiftCalendar.of(employee.getShift(), day - 1, day + 3));
+        return employee;
+    }
+
+    private static Order order(String id, Employee employee, Line line, LocalDateTime start, int minutes) {
+        Order order = new Order("P", 1, minutes, DAY1, DAY1.plusDays(2), "Cutting", "Cutting");
+        order.setId(id);
+        order.setEmployee(employee);
+        order.setLine(line);
+        order.setStartingTimeGrain(new TimeGrain(id, 0, start));
+        return order;
+    }
+
+    @Test
+    void overlappingOrdersOnALineArePenalizedOncePerPair() {
+        Employee e1 = employee("E1", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        Employee e2 = employee("E2", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        Employee e3 = employee("E3", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        Employee e4 = employee("E4", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        // a 与 b 同时开始；c 与 a 重叠，与 b 首尾相接；d 不与任何订单重叠
+        Order a = order("a", e1, LINE, DAY1.atTime(8, 0), 60);
+        Order b = order("b", e2, LINE, DAY1.atTime(8, 0), 30);
+        Order c = order("c", e3, LINE, DAY1.atTime(8, 30), 60);
+        Order d = order("d", e4, LINE, DAY1.atTime(9, 30), 30);
+
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::uniqueLinePerShift)
+                .given(a, b, c, d)
+                .penalizesBy(2);
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::uniqueEmployeePerShift)
+                .given(a, b, c, d)
+                .penalizesBy(0);
+    }
+
+    @Test
+    void overlappingOrdersOfAnEmployeeArePenalizedOncePerPair() {
+        Employee employee = employee("E1", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        Line l2 = new Line("L2", List.of("Cutting"));
+        Line l3 = new Line("L3", List.of("Cutting"));
+        Order a = order("a", employee, LINE, DAY1.atTime(8, 0), 60);
+        Order b = order("b", employee, l2, DAY1.atTime(8, 0), 60);
+        Order c = order("c", employee, l3, DAY1.atTime(8, 15), 15);
+
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::uniqueEmployeePerShift)
+                .given(a, b, c)
+                .penalizesBy(3);
+    }
+
+    @Test
+    void orderStartingOnShiftAndRunningPastItsEnd() {
+        Employee employee = employee("E1", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        // 13:00 开始、15:00 结束：从班次内开始并超出班次结束 60 分钟
+        Order straddling = order("a", employee, LINE, DAY1.atTime(13, 0), 120);
+
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::overtimeMustFollowShiftEnd)
+                .given(straddling)
+                .penalizesBy(1);
+        // 开始日窗口的重叠被计算两次，超出的 60 分钟不计入
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::minimizeOvertime)
+                .given(straddling)
+                .penalizesBy(0);
+    }
+
+    @Test
+    void overtimeMustStartRightAfterShiftEnd() {
+        Employee employee = employee("E1", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        Order inTime = order("a", employee, LINE, DAY1.atTime(14, 5), 60);
+        Order late = order("b", employee, LINE, DAY1.atTime(14, 30), 60);
+
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::overtimeMustFollowShiftEnd)
+                .given(inTime, late)
+                .penalizesBy(1);
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::minimizeOvertime)
+                .given(inTime, late)
+                .penalizesBy(120);
+    }
+
+    @Test
+    void nightShiftOvertime() {
+        Employee employee = employee("E1", LocalTime.of(22, 0), LocalTime.of(6, 0));
+        LocalDate day2 = DAY1.plusDays(1);
+        // 05:00-07:00 在前一晚班次内开始，超出 06:00 的班次结束 60 分钟
+        Order straddling = order("a", employee, LINE, day2.atTime(5, 0), 120);
+        // 06:30 开始，距班次结束超过 5 分钟
+        Order late = order("b", employee, LINE, day2.atTime(6, 30), 60);
+        // 23:00 开始，完全处于当晚班次内
+        Order inside = order("c", employee, LINE, day2.atTime(23, 0), 120);
+
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::overtimeMustFollowShiftEnd)
+                .given(straddling, late, inside)
+                .penalizesBy(1);
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::minimizeOvertime)
+                .given(straddling, late, inside)
+                .penalizesBy(60 + 60);
+    }
+
+    @Test
+    void balancePenalizesOrderedPairsPerEmployeeAndLine() {
+        Employee e1 = employee("E1", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        Employee e2 = employee("E2", LocalTime.of(6, 0), LocalTime.of(14, 0));
+        Line l2 = new Line("L2", List.of("Cutting"));
+        Order a = order("a", e1, LINE, DAY1.atTime(6, 0), 60);
+        Order b = order("b", e1, LINE, DAY1.atTime(7, 0), 60);
+        Order c = order("c", e1, LINE, DAY1.atTime(8, 0), 60);
+        Order d = order("d", e2, l2, DAY1.atTime(6, 0), 60);
+
+        // E1 与 L1 各 3 个订单：3 * 2 = 6；E2 与 L2 各 1 个订单：0
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::balanceOrdersPerEmployee)
+                .given(a, b, c, d)
+                .penalizesBy(6);
+        constraintVerifier.verifyThat(OrderScheduleConstraintProvider::balanceOrdersPerLine)
+                .given(a, b, c, d)
+                .penalizesBy(6);
+    }
+
+    @Test
+    void orderedPairCountClampsInsteadOfOverflowing() {
+        assertEquals(0, OrderScheduleConstraintProvider.orderedPairCount(1));
+        assertEquals(46340 * 46339, OrderScheduleConstraintProvider.orderedPairCount(46340));
+        // 46342 * 46341 超出 int 范围，截断为最大值而不是变成负数
+        assertEquals(Integer.MAX_VALUE, OrderScheduleConstraintProvider.orderedPairCount(46342));
+        assertEquals(Integer.MAX_VALUE, OrderScheduleConstraintProvider.orderedPairCount(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CapabilityIndexTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2030, 4, 1);
+
+    private static Order order(String skill, String function) {
+        return new Order("P", 1, 60, DAY1, DAY1, skill, function);
+    }
+
+    @Test
+    void valueRangesFilterByMasks() {
+        Employee welder = new Employee("E1", Set.of("Welding", "Painting"));
+        Employee painter = new Employee("E2", Set.of("Painting"));
+        Line cutting = new Line("L1", List.of("Cutting"));
+        Line assembly = new Line("L2", List.of("Assembly", "Cutting"));
+        Order weld = order("Welding", "Assembly");
+        Order paint = order("Painting", "Cutting");
+        OrderSchedule schedule = new OrderSchedule(List.of(welder, painter), List.of(cutting, assembly),
+                TimeGrain.sequence(DAY1.atStartOfDay(), 4), List.of(weld, paint));
+
+        schedule.buildValueRanges();
+
+        assertNotEquals(0L, weld.getRequiredSkillMask());
+        assertNotEquals(weld.getRequiredSkillMask(), paint.getRequiredSkillMask());
+        assertEquals(weld.getRequiredSkillMask() | paint.getRequiredSkillMask(), welder.getSkillMask());
+        assertEquals(paint.getRequiredSkillMask(), painter.getSkillMask());
+        assertEquals(List.of(welder), weld.getEmployeeRange());
+        assertEquals(List.of(welder, painter), paint.getEmployeeRange());
+        assertEquals(List.of(assembly), weld.getLineRange());
+        assertEquals(List.of(cutting, assembly), paint.getLineRange());
+        assertTrue(assembly.hasFunction("Cutting", paint.getRequiredLineFunctionMask()));
+        assertFalse(cutting.hasFunction("Assembly", weld.getRequiredLineFunctionMask()));
+    }
+
+    @Test
+    void namesBeyondSixtyFourFallBackToLookup() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i <= Long.SIZE; i++) {
+            orders.add(order("S" + i, null));
+        }
+        CapabilityIndex index = CapabilityIndex.of(orders);
+        Employee employee = new Employee("E1", Set.of("S0", "S" + Long.SIZE));
+        index.apply(employee);
+
+        assertEquals(1L, index.skillBit("S0"));
+        assertEquals(Long.MIN_VALUE, index.skillBit("S" + (Long.SIZE - 1)));
+        assertEquals(0L, index.skillBit("S" + Long.SIZE));
+        assertEquals(1L, employee.getSkillMask());
+        assertTrue(employee.hasSkill("S" + Long.SIZE, index.skillBit("S" + Long.SIZE)));
+        assertFalse(employee.hasSkill("S1", index.skillBit("S1")));
+        // 未编号的技能（例如求解中新增订单带来的技能）按名称查找
+        assertFalse(employee.hasSkill("Unknown", index.skillBit("Unknown")));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class LineSequenceScheduleTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2030, 4, 1);
+
+    private static SequencedOrder sequenced(Order order, LineSchedule lineSchedule, Employee employee,
+            int startMinute) {
+        SequencedOrder sequencedOrder = new SequencedOrder(order, startMinute, List.of(employee));
+        sequencedOrder.setEmployee(employee);
+        sequencedOrder.setLineSchedule(lineSchedule);
+        sequencedOrder.setStartMinute(startMinute);
+        lineSchedule.getOrders().add(sequencedOrder);
+        return sequencedOrder;
+    }
+
+    @Test
+    void ordersStartingOutsideTheTimeGrainsStayUnassigned() {
+        Employee employee = new Employee("E1", Set.of("Cutting"));
+        Line line = new Line("L1", List.of("Cutting"));
+        List<TimeGrain> timeGrains = TimeGrain.sequence(DAY1.atStartOfDay(), 4);
+        Order inside = new Order("P", 1, 15, DAY1, DAY1, "Cutting", "Cutting");
+        inside.setId("inside");
+        Order pastHorizon = new Order("P", 1, 15, DAY1, DAY1, "Cutting", "Cutting");
+        pastHorizon.setId("pastHorizon");
+        Order offGrid = new Order("P", 1, 15, DAY1, DAY1, "Cutting", "Cutting");
+        offGrid.setId("offGrid");
+        OrderSchedule problem = new OrderSchedule(List.of(employee), List.of(line), timeGrains,
+                List.of(inside, pastHorizon, offGrid));
+
+        TimeGrain last = timeGrains.get(timeGrains.size() - 1);
+        LineSchedule lineSchedule = new LineSchedule(line, timeGrains.get(0).getStartMinute());
+        LineSequenceSchedule sequence = new LineSequenceSchedule(List.of(employee), List.of(lineSchedule), List.of(
+                sequenced(inside, lineSchedule, employee, last.getStartMinute()),
+                sequenced(pastHorizon, lineSchedule, employee, last.getStartMinute() + TimeGrain.GRAIN_LENGTH_IN_MINUTES),
+                sequenced(offGrid, lineSchedule, employee, timeGrains.get(0).getStartMinute() + 5)));
+
+        OrderSchedule result = sequence.toOrderSchedule(problem);
+
+        Order placed = result.getOrders().get(0);
+        assertSame(employee, placed.getEmployee());
+        assertSame(line, placed.getLine());
+        assertSame(last, placed.getStartingTimeGrain());
+        for (Order order : result.getOrders().subList(1, 3)) {
+            assertNull(order.getEmployee(), order.getId());
+            assertNull(order.getLine(), order.getId());
+            assertNull(order.getStartingTimeGrain(), order.getId());
+        }
+        assertEquals(3, result.getOrders().size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ShiftCalendarTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2030, 4, 1);
+    private static final int DAY1_EPOCH = (int) DAY1.toEpochDay();
+
+    @Test
+    void nightShiftSpansMidnight() {
+        ShiftCalendar calendar = calendar(DAY1.atTime(22, 0), DAY1.plusDays(1).atTime(6, 0));
+        int dayStart = minute(DAY1.atTime(0, 0));
+
+        // 02:00-04:00 is inside the previous day's night shift
+        assertEquals(0, calendar.overtimeMinutes(dayStart + 120, dayStart + 240));
+        assertTrue(calendar.isOnShift(dayStart + 120));
+        // 05:00-07:00 runs one hour past the 06:00 shift end
+        assertEquals(60, calendar.overtimeMinutes(dayStart + 300, dayStart + 420));
+        assertEquals(dayStart + 360, calendar.latestEndAtOrBefore(dayStart + 420));
+        assertFalse(calendar.isOnShift(dayStart + 360));
+    }
+
+    @Test
+    void fullDayShiftHasNoOvertime() {
+        ShiftCalendar calendar = calendar(DAY1.atTime(6, 0), DAY1.atTime(6, 0));
+        int dayStart = minute(DAY1.atTime(0, 0));
+
+        assertEquals(0, calendar.overtimeMinutes(dayStart + 60, dayStart + 3 * TimeGrain.MINUTES_PER_DAY));
+    }
+
+    @Test
+    void earliestStartWithinShiftSkipsToWindowThatFits() {
+        ShiftCalendar calendar = calendar(DAY1.atTime(6, 0), DAY1.atTime(14, 0));
+        int dayStart = minute(DAY1.atTime(0, 0));
+
+        assertEquals(dayStart + 360, calendar.earliestStartWithinShift(dayStart, 120));
+        assertEquals(dayStart + 600, calendar.earliestStartWithinShift(dayStart + 600, 240));
+        // 12:00 + 3h would run past 14:00, so the next morning window is used
+        assertEquals(dayStart + TimeGrain.MINUTES_PER_DAY + 360, calendar.earliestStartWithinShift(dayStart + 720, 180));
+        assertEquals(-1, calendar.earliestStartWithinShift(dayStart, 9 * 60));
+    }
+
+    @Test
+    void matchesMinuteByMinuteCount() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = DAY1.atTime(random.nextInt(24), random.nextInt(4) * 15);
+            LocalDateTime end = start.plusMinutes(60 + random.nextInt(23 * 60));
+            ShiftCalendar calendar = calendar(start, end);
+            int shiftStart = start.getHour() * 60 + start.getMinute();
+            int shiftLength = (int) java.time.Duration.between(start, end).toMinutes();
+
+            int from = minute(DAY1.atTime(0, 0)) + random.nextInt(3 * TimeGrain.MINUTES_PER_DAY);
+            int to = from + 1 + random.nextInt(600);
+            int expected = 0;
+            for (int m = from; m < to; m++) {
+                int offset = Math.floorMod(m - shiftStart, TimeGrain.MINUTES_PER_DAY);
+                if (offset >= shiftLength) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, calendar.overtimeMinutes(from, to), () -> start + " - " + end);
+        }
+    }
+
+    private static ShiftCalendar calendar(LocalDateTime start, LocalDateTime end) {
+        return ShiftCalendar.of(new Shift(start, end, "test"), DAY1_EPOCH - 1, DAY1_EPOCH + 5);
+    }
+
+    private static int minute(LocalDateTime dateTime) {
+        return TimeGrain.toMinute(dateTime);
+    }
+}
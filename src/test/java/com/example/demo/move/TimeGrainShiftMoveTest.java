@@ -0,0 +1,97 @@
+package com.example.demo.move;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+import com.example.demo.service.GeneratorParameters;
+import com.example.demo.service.ProblemGenerator;
+
+class TimeGrainShiftMoveTest {
+
+    private static OrderSchedule problem() {
+        GeneratorParameters parameters = GeneratorParameters.forOrderCount(100, 9);
+        parameters.setPinnedFraction(0.2);
+        OrderSchedule problem = new ProblemGenerator().generate(parameters);
+        problem.assignOrderIds();
+        problem.buildValueRanges();
+        return problem;
+    }
+
+    @Test
+    void createsMovesForUnpinnedOrdersOnly() {
+        OrderSchedule schedule = problem();
+        TimeGrainShiftMoveListFactory factory = new TimeGrainShiftMoveListFactory();
+        factory.setMaxGrainDelta(3);
+
+        List<TimeGrainShiftMove> moves = factory.createMoveList(schedule);
+
+        long unpinned = schedule.getOrders().stream().filter(order -> !order.isPinned()).count();
+        assertEquals(unpinned * 6, moves.size());
+        assertTrue(moves.stream().noneMatch(move -> move.getOrder().isPinned()));
+    }
+
+    @Test
+    void targetFollowsCurrentStartWithinRange() {
+        Order order = problem().getOrders().stream().filter(o -> !o.isPinned()).findFirst().orElseThrow();
+        List<TimeGrain> range = order.getTimeGrainRange();
+        TimeGrainShiftMove later = new TimeGrainShiftMove(order, 2);
+        TimeGrainShiftMove earlier = new TimeGrainShiftMove(order, -1);
+
+        order.setStartingTimeGrain(null);
+        assertNull(later.getTargetTimeGrain());
+        assertFalse(later.isMoveDoable(null));
+
+        order.setStartingTimeGrain(range.get(0));
+        assertSame(range.get(2), later.getTargetTimeGrain());
+        assertNull(earlier.getTargetTimeGrain());
+        assertFalse(earlier.isMoveDoable(null));
+
+        order.setStartingTimeGrain(range.get(5));
+        assertSame(range.get(7), later.getTargetTimeGrain());
+        assertSame(range.get(4), earlier.getTargetTimeGrain());
+        assertTrue(earlier.isMoveDoable(null));
+
+        order.setStartingTimeGrain(range.get(range.size() - 2));
+        assertNull(later.getTargetTimeGrain());
+    }
+
+    @Test
+    void fallbackRangeIsSortedForUnorderedTimeGrains() {
+        LocalDate day = LocalDate.of(2030, 4, 1);
+        List<TimeGrain> sorted = TimeGrain.sequence(day.atStartOfDay(), 12);
+        List<TimeGrain> shuffled = new ArrayList<>(sorted);
+        Collections.shuffle(shuffled, new Random(7));
+        // 日期窗口与所有时间槽都不相交，时间槽值域退回完整值域
+        Order outside = new Order("P", 1, 15, day.plusDays(5), day.plusDays(6), "Cutting", "Cutting");
+        Order added = new Order("P", 1, 15, day.plusDays(5), day.plusDays(6), "Cutting", "Cutting");
+        OrderSchedule schedule = new OrderSchedule(List.of(new Employee("E1", Set.of("Cutting"))),
+                List.of(new Line("L1", List.of("Cutting"))), shuffled, new ArrayList<>(List.of(outside)));
+
+        schedule.buildValueRanges();
+        schedule.buildValueRanges(added);
+
+        for (Order order : List.of(outside, added)) {
+            assertEquals(sorted, order.getTimeGrainRange());
+            order.setStartingTimeGrain(sorted.get(4));
+            assertSame(sorted.get(6), new TimeGrainShiftMove(order, 2).getTargetTimeGrain());
+            assertSame(sorted.get(3), new TimeGrainShiftMove(order, -1).getTargetTimeGrain());
+        }
+    }
+}
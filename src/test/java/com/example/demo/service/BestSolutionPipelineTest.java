@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class BestSolutionPipelineTest {
+
+    private final BestSolutionPipeline pipeline = new BestSolutionPipeline(Duration.ofMillis(200), null);
+    private final List<Integer> published = new CopyOnWriteArrayList<>();
+
+    private void awaitPublished(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (published.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, published.size(), "Published: " + published);
+    }
+
+    @Test
+    void coalescesToLatestWithinInterval() throws InterruptedException {
+        pipeline.offer("job", () -> published.add(0));
+        awaitPublished(1);
+
+        // 间隔内的更优解只发布最新的一个
+        long start = System.nanoTime();
+        for (int i = 1; i <= 100; i++) {
+            int value = i;
+            pipeline.offer("job", () -> published.add(value));
+        }
+        awaitPublished(2);
+        assertEquals(List.of(0, 100), published);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        // 其他任务不受该任务的间隔限制
+        pipeline.offer("other", () -> published.add(-1));
+        awaitPublished(3);
+        pipeline.destroy();
+    }
+
+    @Test
+    void discardDropsPendingPublication() throws InterruptedException {
+        pipeline.offer("job", () -> published.add(0));
+        awaitPublished(1);
+        pipeline.offer("job", () -> published.add(1));
+        pipeline.discard("job");
+
+        Thread.sleep(400);
+        assertEquals(List.of(0), published);
+        pipeline.destroy();
+    }
+}
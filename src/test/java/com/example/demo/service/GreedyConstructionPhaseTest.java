@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.phase.custom.CustomPhaseConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+
+import com.example.demo.constraint.OrderScheduleConstraintProvider;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+
+class GreedyConstructionPhaseTest {
+
+    private static OrderSchedule construct(OrderSchedule problem) {
+        SolverConfig solverConfig = new SolverConfig()
+                .withSolutionClass(OrderSchedule.class)
+                .withEntityClasses(Order.class)
+                .withConstraintProviderClass(OrderScheduleConstraintProvider.class)
+                .withPhases(new CustomPhaseConfig()
+                        .withCustomPhaseCommandClassList(List.of(GreedyConstructionPhase.class)));
+        return SolverFactory.<OrderSchedule>create(solverConfig).buildSolver().solve(problem);
+    }
+
+    private static OrderSchedule problem(GeneratorParameters parameters) {
+        OrderSchedule problem = new ProblemGenerator().generate(parameters);
+        problem.assignOrderIds();
+        problem.buildShiftCalendars();
+        problem.buildValueRanges();
+        return problem;
+    }
+
+    @Test
+    void assignsEveryOrderFromItsValueRanges() {
+        GeneratorParameters parameters = GeneratorParameters.forOrderCount(300, 3);
+        parameters.setPinnedFraction(0.1);
+        OrderSchedule problem = problem(parameters);
+        Map<String, Order> pinned = problem.getOrders().stream().filter(Order::isPinned)
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        OrderSchedule solution = construct(problem);
+
+        for (Order order : solution.getOrders()) {
+            assertNotNull(order.getEmployee(), order.getId());
+            assertNotNull(order.getLine(), order.getId());
+            assertNotNull(order.getStartingTimeGrain(), order.getId());
+            if (pinned.containsKey(order.getId())) {
+                assertEquals(pinned.get(order.getId()).getStartMinute(), order.getStartMinute());
+                continue;
+            }
+            assertTrue(order.getEmployeeRange().contains(order.getEmployee()), order.getId());
+            assertTrue(order.getLineRange().contains(order.getLine()), order.getId());
+            assertTrue(order.getTimeGrainRange().contains(order.getStartingTimeGrain()), order.getId());
+        }
+    }
+
+    @Test
+    void placesOrdersBackToBackWithinShifts() {
+        GeneratorParameters parameters = new GeneratorParameters();
+        parameters.setEmployeeCount(1);
+        parameters.setLineCount(1);
+        parameters.setSkillCount(1);
+        parameters.setEmployeeSkillProbability(1.0);
+        parameters.setHorizonDays(3);
+        parameters.setOrderCount(3);
+        parameters.setPinnedFraction(0.0);
+        parameters.setWindowTightness(0.0);
+        OrderSchedule problem = problem(parameters);
+
+        OrderSchedule solution = construct(problem);
+
+        List<Order> orders = solution.getOrders().stream()
+                .sorted(Comparator.comparingInt(Order::getStartMinute)).toList();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            assertSame(solution.getLines().get(0), order.getLine());
+            assertEquals(0, order.getEmployee().getShiftCalendar()
+                    .overtimeMinutes(order.getStartMinute(), order.getEndMinute()), order.getId());
+            if (i > 0) {
+                assertTrue(orders.get(i - 1).getEndMinute() <= order.getStartMinute(), order.getId());
+            }
+        }
+    }
+}
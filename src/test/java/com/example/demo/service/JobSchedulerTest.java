@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import com.example.demo.entity.OrderSchedule;
+
+class JobSchedulerTest {
+
+    private final List<String> started = new ArrayList<>();
+
+    private JobScheduler scheduler(int maxConcurrentSolves, int maxQueuedJobs, Duration ttl, long maxRetainedOrders) {
+        return new JobScheduler(maxConcurrentSolves, maxQueuedJobs, ttl, maxRetainedOrders, 1.0, Duration.ZERO,
+                new JobStore(null, Duration.ZERO), new SolutionDeltaBroadcaster(Duration.ZERO),
+                new BestSolutionPipeline(Duration.ZERO, null));
+    }
+
+    private void submit(JobScheduler scheduler, String jobId, String clientId, int priority) {
+        scheduler.submit(jobId, clientId, priority, null, 0, null, new OrderSchedule(),
+                job -> started.add(job.getJobId()));
+    }
+
+    @Test
+    void queuesBeyondConcurrencyLimit() {
+        JobScheduler scheduler = scheduler(1, 10, Duration.ofHours(1), 1_000);
+        submit(scheduler, "a", null, 0);
+        submit(scheduler, "b", null, 0);
+
+        assertEquals(List.of("a"), started);
+        assertEquals(JobState.SOLVING, scheduler.getJob("a").getState());
+        assertEquals(JobState.QUEUED, scheduler.getJob("b").getState());
+        assertEquals(1, scheduler.getQueuePosition("b"));
+        assertNull(scheduler.getQueuePosition("a"));
+
+        scheduler.complete("a", new OrderSchedule());
+        assertEquals(List.of("a", "b"), started);
+        assertEquals(JobState.COMPLETED, scheduler.getJob("a").getState());
+    }
+
+    @Test
+    void higherPriorityStartsFirstAndClientsTakeTurns() {
+        JobScheduler scheduler = scheduler(1, 10, Duration.ofHours(1), 1_000);
+        submit(scheduler, "running", "x", 0);
+        submit(scheduler, "x1", "x", 0);
+        submit(scheduler, "x2", "x", 0);
+        submit(scheduler, "x3", "x", 0);
+        submit(scheduler, "y1", "y", 0);
+        submit(scheduler, "urgent", "y", 5);
+
+        assertEquals(1, scheduler.getQueuePosition("urgent"));
+        // x 已有任务在求解，同一优先级内 y1 先于 x1
+        assertEquals(2, scheduler.getQueuePosition("y1"));
+        for (String jobId : List.of("running", "urgent", "y1", "x1", "x2")) {
+            scheduler.complete(jobId, new OrderSchedule());
+        }
+        assertEquals(List.of("running", "urgent", "y1", "x1", "x2", "x3"), started);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFullAndCancelsQueuedJobs() {
+        JobScheduler scheduler = scheduler(1, 1, Duration.ofHours(1), 1_000);
+        submit(scheduler, "a", null, 0);
+        submit(scheduler, "b", null, 0);
+        assertThrows(JobQueueFullException.class, () -> submit(scheduler, "c", null, 0));
+
+        assertTrue(scheduler.cancelQueued("b"));
+        assertFalse(scheduler.cancelQueued("a"));
+        assertEquals(JobState.CANCELLED, scheduler.getJob("b").getState());
+        submit(scheduler, "c", null, 0);
+        assertEquals(List.of("a"), started);
+    }
+
+    @Test
+    void failingStarterReleasesSlot() {
+        JobScheduler scheduler = scheduler(1, 10, Duration.ofHours(1), 1_000);
+        scheduler.submit("broken", null, 0, null, 0, null, new OrderSchedule(), job -> {
+            throw new IllegalStateException("boom");
+        });
+        submit(scheduler, "next", null, 0);
+
+        assertEquals(JobState.FAILED, scheduler.getJob("broken").getState());
+        assertEquals(List.of("next"), started);
+    }
+
+    @Test
+    void statusAdvancesWithEachVersion() {
+        JobScheduler scheduler = scheduler(1, 10, Duration.ofHours(1), 1_000);
+        submit(scheduler, "a", null, 0);
+        SolveJob job = scheduler.getJob("a");
+        JobStatus solving = job.getStatus();
+        assertEquals(JobState.SOLVING, solving.state());
+        assertEquals(SolverStatus.SOLVING_ACTIVE, solving.solverStatus());
+        assertNull(solving.lastImprovedAt());
+
+        scheduler.setMoveEvaluationCounter("a", () -> 42L);
+        scheduler.updateBestSolution("a", new OrderSchedule());
+        JobStatus improved = job.getStatus();
+        assertEquals(solving.version() + 1, improved.version());
+        assertNotNull(improved.lastImprovedAt());
+        assertEquals(42L, improved.moveEvaluationCount());
+        // 状态记录只在版本变化时重建
+        assertSame(improved, job.getStatus());
+
+        scheduler.complete("a", new OrderSchedule());
+        JobStatus completed = job.getStatus();
+        assertEquals(improved.version() + 1, completed.version());
+        assertEquals(SolverStatus.NOT_SOLVING, completed.solverStatus());
+        assertEquals(improved.lastImprovedAt(), completed.lastImprovedAt());
+    }
+
+    @Test
+    void changesOnlyQueuedProblems() {
+        JobScheduler scheduler = scheduler(1, 10, Duration.ofHours(1), 1_000);
+        submit(scheduler, "a", null, 0);
+        OrderSchedule problem = new ProblemGenerator().generate(GeneratorParameters.forOrderCount(20, 1));
+        problem.assignOrderIds();
+        problem.buildValueRanges();
+        scheduler.submit("b", null, 0, null, 0, null, problem, job -> started.add(job.getJobId()));
+        long version = scheduler.getJob("b").getVersion();
+
+        assertTrue(scheduler.changeQueuedProblem("b", OrderScheduleChanges.removeOrder("o3")));
+        assertEquals(19, scheduler.getSchedule("b").getOrders().size());
+        assertEquals(version + 1, scheduler.getJob("b").getVersion());
+        assertFalse(scheduler.changeQueuedProblem("a", OrderScheduleChanges.removeOrder("o3")));
+        assertFalse(scheduler.changeQueuedProblem("missing", OrderScheduleChanges.removeOrder("o3")));
+    }
+
+    @Test
+    void parsesOnlyVersionTagsOfThisProcess() {
+        assertEquals(7L, JobScheduler.parseVersionTag(JobScheduler.versionTag(7)));
+        assertEquals(7L, JobScheduler.parseVersionTag("7"));
+        assertNull(JobScheduler.parseVersionTag("otherepoch.7"));
+        assertNull(JobScheduler.parseVersionTag("abc"));
+        assertNull(JobScheduler.parseVersionTag(null));
+    }
+
+    @Test
+    void evictsOldestFinishedJobsOnly() {
+        JobScheduler scheduler = scheduler(2, 10, Duration.ZERO, 1_000);
+        submit(scheduler, "done", null, 0);
+        submit(scheduler, "running", null, 0);
+        scheduler.complete("done", new OrderSchedule());
+        submit(scheduler, "next", null, 0);
+
+        assertNull(scheduler.getJob("done"));
+        assertEquals(JobState.SOLVING, scheduler.getJob("running").getState());
+        assertEquals(JobState.SOLVING, scheduler.getJob("next").getState());
+    }
+
+    @Test
+    void evictsExpiredJobsWhileIdle() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(1, 10, Duration.ofMillis(100), 1_000, 1.0, Duration.ofMillis(20),
+                new JobStore(null, Duration.ZERO), new SolutionDeltaBroadcaster(Duration.ZERO),
+                new BestSolutionPipeline(Duration.ZERO, null));
+        scheduler.afterPropertiesSet();
+        submit(scheduler, "done", null, 0);
+        scheduler.complete("done", new OrderSchedule());
+        assertNotNull(scheduler.getJob("done"));
+
+        // 之后没有提交或结束任务，由周期性检查按 TTL 淘汰
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (scheduler.getJob("done") != null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(scheduler.getJob("done"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+
+class JobStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final ProblemGenerator generator = new ProblemGenerator();
+
+    private OrderSchedule problem() {
+        GeneratorParameters parameters = new GeneratorParameters();
+        parameters.setOrderCount(50);
+        parameters.setPinnedFraction(0.5);
+        return generator.generate(parameters);
+    }
+
+    private JobScheduler scheduler(JobStore store) {
+        return new JobScheduler(1, 10, Duration.ofHours(1), 1_000, 1.0, Duration.ZERO, store,
+                new SolutionDeltaBroadcaster(Duration.ZERO), new BestSolutionPipeline(Duration.ZERO, null));
+    }
+
+    @Test
+    void checkpointRoundTripRelinksPlanningValues() {
+        JobStore store = new JobStore(directory.toString(), Duration.ofHours(1));
+        OrderSchedule schedule = problem();
+        schedule.setScore(HardMediumSoftScore.of(-1, -2, -3));
+
+        store.checkpoint("job", schedule, true);
+        OrderSchedule loaded = store.loadSchedule("job");
+
+        assertEquals(HardMediumSoftScore.of(-1, -2, -3), loaded.getScore());
+        assertEquals(schedule.getOrders(), loaded.getOrders());
+        for (Order order : loaded.getOrders()) {
+            if (order.getEmployee() != null) {
+                assertSame(loaded.getEmployees().get(loaded.getEmployees().indexOf(order.getEmployee())),
+                        order.getEmployee());
+                assertSame(loaded.getLines().get(loaded.getLines().indexOf(order.getLine())), order.getLine());
+            }
+        }
+        // 节流：间隔内的非强制检查点被跳过
+        assertEquals(false, store.checkpoint("job", schedule, false));
+    }
+
+    @Test
+    void finishedSchedulesAreOffloadedAndPagedIn() {
+        JobStore store = new JobStore(directory.toString(), Duration.ZERO);
+        JobScheduler scheduler = scheduler(store);
+        scheduler.submit("job", null, 0, null, 0, null, problem(), job -> {
+        });
+        OrderSchedule solution = problem();
+        solution.setScore(HardMediumSoftScore.of(0, -5, 0));
+        scheduler.complete("job", solution);
+
+        SolveJob job = scheduler.getJob("job");
+        assertNull(job.getSchedule());
+        assertEquals(HardMediumSoftScore.of(0, -5, 0), job.getScore());
+        assertEquals(solution.getOrders(), scheduler.getSchedule("job").getOrders());
+    }
+
+    @Test
+    void recoversFinishedAndInterruptedJobs() {
+        JobScheduler before = scheduler(new JobStore(directory.toString(), Duration.ZERO));
+        before.submit("done", "a", 0, null, 0, null, problem(), job -> {
+        });
+        before.complete("done", problem());
+        before.submit("interrupted", "a", 2, PlanningModel.LINE_SEQUENCE, 0, null, problem(), job -> {
+        });
+        OrderSchedule best = problem();
+        best.setScore(HardMediumSoftScore.of(0, -1, -7));
+        before.updateBestSolution("interrupted", best);
+        Partitioning partitioning = new Partitioning(PartitionStrategy.DATE_WINDOW, 2, false);
+        before.submit("queued", "b", 0, null, 0, partitioning, problem(), job -> {
+        });
+        before.submit("cancelled", "b", 0, null, 0, null, problem(), job -> {
+        });
+        before.cancelQueued("cancelled");
+
+        // 模拟重启：新的调度器读取同一目录
+        List<SolveJob> started = new ArrayList<>();
+        JobScheduler after = scheduler(new JobStore(directory.toString(), Duration.ZERO));
+        after.recover(started::add);
+
+        assertEquals(List.of("interrupted"), started.stream().map(SolveJob::getJobId).toList());
+        SolveJob resumed = started.get(0);
+        assertEquals(PlanningModel.LINE_SEQUENCE, resumed.getModel());
+        assertEquals(2, resumed.getPriority());
+        assertEquals(HardMediumSoftScore.of(0, -1, -7), resumed.getSchedule().getScore());
+        assertEquals(best.getOrders(), resumed.getSchedule().getOrders());
+        assertEquals(JobState.QUEUED, after.getJob("queued").getState());
+        assertEquals(partitioning, after.getJob("queued").getPartitioning());
+        assertEquals(JobState.COMPLETED, after.getJob("done").getState());
+        assertEquals(JobState.CANCELLED, after.getJob("cancelled").getState());
+        assertEquals(50, after.getSchedule("done").getOrders().size());
+    }
+
+    @Test
+    void deletesEvictedJobsAndRejectsPathTraversal() {
+        JobStore store = new JobStore(directory.toString(), Duration.ZERO);
+        JobScheduler scheduler = new JobScheduler(2, 10, Duration.ZERO, 1_000, 1.0, Duration.ZERO, store,
+                new SolutionDeltaBroadcaster(Duration.ZERO), new BestSolutionPipeline(Duration.ZERO, null));
+        scheduler.submit("old", null, 0, null, 0, null, problem(), job -> {
+        });
+        scheduler.complete("old", problem());
+        scheduler.submit("new", null, 0, null, 0, null, problem(), job -> {
+        });
+
+        assertEquals(false, Files.exists(directory.resolve("old")));
+        assertEquals(true, Files.exists(directory.resolve("new").resolve(JobStore.CHECKPOINT_FILE)));
+        assertThrows(IllegalArgumentException.class, () -> store.checkpoint("../x", problem(), true));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.entity.Line;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.Shift;
+import com.example.demo.entity.TimeGrain;
+
+class OrderScheduleChangesTest {
+
+    private static OrderSchedule problem() {
+        GeneratorParameters parameters = GeneratorParameters.forOrderCount(200, 5);
+        parameters.setPinnedFraction(0.2);
+        OrderSchedule problem = new ProblemGenerator().generate(parameters);
+        problem.assignOrderIds();
+        problem.buildShiftCalendars();
+        problem.buildValueRanges();
+        return problem;
+    }
+
+    private static void apply(OrderSchedule schedule, ProblemChange<OrderSchedule> change) {
+        change.doChange(schedule, new DirectProblemChangeDirector(schedule));
+    }
+
+    private static Order order(OrderSchedule schedule, String id) {
+        return schedule.getOrders().stream().filter(order -> order.getId().equals(id)).findFirst().orElse(null);
+    }
+
+    @Test
+    void addsUnassignedOrderWithValueRanges() {
+        OrderSchedule schedule = problem();
+        Order template = schedule.getOrders().get(0);
+        Order rush = template.copy();
+        rush.setId("rush");
+        rush.setPinned(true);
+        List<Order> before = schedule.getOrders();
+
+        apply(schedule, OrderScheduleChanges.addOrder(rush));
+
+        assertEquals(before.size() + 1, schedule.getOrders().size());
+        // 列表在求解器的副本之间共享，只能替换，不能原地修改
+        assertEquals(200, before.size());
+        Order added = order(schedule, "rush");
+        assertNull(added.getEmployee());
+        assertNull(added.getStartingTimeGrain());
+        assertFalse(added.isPinned());
+        assertEquals(template.getEmployeeRange(), added.getEmployeeRange());
+        assertEquals(template.getLineRange(), added.getLineRange());
+        assertEquals(template.getTimeGrainRange(), added.getTimeGrainRange());
+    }
+
+    @Test
+    void removesLineFromFactsRangesAndOrders() {
+        OrderSchedule schedule = problem();
+        Line line = schedule.getOrders().stream().filter(Order::isPinned).findFirst().orElseThrow().getLine();
+        List<Order> onLine = schedule.getOrders().stream().filter(order -> order.getLine() == line).toList();
+        List<Line> before = schedule.getLines();
+
+        apply(schedule, OrderScheduleChanges.removeLine(line.getName()));
+
+        assertTrue(before.contains(line));
+        assertFalse(schedule.getLines().contains(line));
+        for (Order order : onLine) {
+            assertNull(order.getLine());
+            assertFalse(order.isPinned());
+        }
+        for (Order order : schedule.getOrders()) {
+            assertFalse(order.getLineRange().contains(line), "Line still in the range of " + order.getId());
+            assertFalse(order.getLineRange().isEmpty());
+        }
+    }
+
+    @Test
+    void changeShiftReplacesEmployeeInsteadOfMutatingIt() {
+        OrderSchedule schedule = problem();
+        Employee employee = schedule.getOrders().stream().filter(Order::isPinned).findFirst().orElseThrow()
+                .getEmployee();
+        Shift previousShift = employee.getShift();
+        List<Order> assigned = schedule.getOrders().stream().filter(order -> order.getEmployee() == employee).toList();
+        List<Employee> before = schedule.getEmployees();
+        Shift night = new Shift(LocalDateTime.of(2030, 4, 1, 22, 0), LocalDateTime.of(2030, 4, 2, 6, 0), "Night");
+
+        apply(schedule, OrderScheduleChanges.changeShift(employee.getName(), night));
+
+        // 原实例可能被已发布的结果共享，保持不变
+        assertSame(previousShift, employee.getShift());
+        assertTrue(before.contains(employee));
+        Employee replacement = schedule.getEmployees().stream()
+                .filter(e -> e.getName().equals(employee.getName())).findFirst().orElseThrow();
+        assertSame(night, replacement.getShift());
+        assertNotNull(replacement.getShiftCalendar());
+        assertEquals(before.size(), schedule.getEmployees().size());
+        for (Order order : assigned) {
+            assertSame(replacement, order.getEmployee());
+            assertTrue(order.isPinned() || order.getEmployeeRange().contains(replacement));
+        }
+        for (Order order : schedule.getOrders()) {
+            assertFalse(order.getEmployeeRange().stream().anyMatch(e -> e == employee),
+                    "Old employee still in the range of " + order.getId());
+        }
+    }
+
+    @Test
+    void pinsOrderAtGivenAssignment() {
+        OrderSchedule schedule = problem();
+        Order order = schedule.getOrders().stream().filter(o -> !o.isPinned()).findFirst().orElseThrow();
+        TimeGrain timeGrain = order.getTimeGrainRange().get(order.getTimeGrainRange().size() - 1);
+
+        apply(schedule, OrderScheduleChanges.pinOrder(order.getId(),
+                new OrderAssignment(null, null, null, timeGrain.getId())));
+        // 未分配的订单不会被固定
+        assertFalse(order.isPinned());
+
+        Line line = order.getLineRange().get(0);
+        apply(schedule, OrderScheduleChanges.pinOrder(order.getId(), new OrderAssignment(null,
+                order.getEmployeeRange().get(0).getName(), line.getName(), null)));
+        assertTrue(order.isPinned());
+        assertSame(line, order.getLine());
+        assertSame(timeGrain, order.getStartingTimeGrain());
+
+        apply(schedule, OrderScheduleChanges.unpinOrder(order.getId()));
+        assertFalse(order.isPinned());
+        apply(schedule, OrderScheduleChanges.removeOrder(order.getId()));
+        assertNull(order(schedule, order.getId()));
+        assertNotNull(order(schedule, schedule.getOrders().get(0).getId()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+
+class ProblemGeneratorTest {
+
+    private final ProblemGenerator generator = new ProblemGenerator();
+
+    @Test
+    void sameSeedGeneratesSameProblem() {
+        GeneratorParameters parameters = GeneratorParameters.forOrderCount(2_000, 11L);
+
+        assertEquals(generator.generate(parameters).getOrders(), generator.generate(parameters).getOrders());
+        parameters.setSeed(12L);
+        assertNotEquals(generator.generate(GeneratorParameters.forOrderCount(2_000, 11L)).getOrders(),
+                generator.generate(parameters).getOrders());
+    }
+
+    @Test
+    void respectsSizesAndWindows() {
+        GeneratorParameters parameters = new GeneratorParameters();
+        parameters.setEmployeeCount(9);
+        parameters.setLineCount(4);
+        parameters.setHorizonDays(5);
+        parameters.setOrderCount(500);
+        parameters.setWindowTightness(1.0);
+        OrderSchedule schedule = generator.generate(parameters);
+
+        assertEquals(9, schedule.getEmployees().size());
+        assertEquals(4, schedule.getLines().size());
+        assertEquals(5 * 96, schedule.getTimeGrains().size());
+        assertEquals(500, schedule.getOrders().size());
+        for (Order order : schedule.getOrders()) {
+            assertEquals(order.getEarliestDate(), order.getLatestDate());
+            assertFalse(order.getLatestDate().isAfter(parameters.getStartDate().plusDays(4)));
+        }
+    }
+
+    @Test
+    void pinnedOrdersMatchSkillFunctionAndShift() {
+        GeneratorParameters parameters = new GeneratorParameters();
+        parameters.setOrderCount(400);
+        parameters.setPinnedFraction(0.5);
+        OrderSchedule schedule = generator.generate(parameters);
+        schedule.buildShiftCalendars();
+
+        long pinnedCount = schedule.getOrders().stream().filter(Order::isPinned).count();
+        assertTrue(pinnedCount > 100 && pinnedCount < 300);
+        for (Order order : schedule.getOrders()) {
+            if (order.isPinned()) {
+                assertTrue(order.getEmployee().getSkills().contains(order.getRequiredSkill()));
+                assertTrue(order.getLine().getFunctions().contains(order.getRequiredLineFunction()));
+                assertTrue(order.getEmployee().getShiftCalendar().isOnShift(order.getStartMinute()));
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        GeneratorParameters parameters = new GeneratorParameters();
+        parameters.setPinnedFraction(1.5);
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(parameters));
+    }
+}
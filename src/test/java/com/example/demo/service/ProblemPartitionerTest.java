@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+class ProblemPartitionerTest {
+
+    private static OrderSchedule problem() {
+        GeneratorParameters parameters = GeneratorParameters.forOrderCount(600, 3);
+        parameters.setPinnedFraction(0.05);
+        OrderSchedule problem = new ProblemGenerator().generate(parameters);
+        problem.assignOrderIds();
+        problem.buildShiftCalendars();
+        problem.buildValueRanges();
+        return problem;
+    }
+
+    // 每个未固定的订单恰好出现在一个子问题中，且是副本
+    private static void assertCoversUnpinnedOrdersOnce(OrderSchedule problem, List<OrderSchedule> subProblems) {
+        Set<Order> originals = Collections.newSetFromMap(new IdentityHashMap<>());
+        originals.addAll(problem.getOrders());
+        Set<String> seen = new HashSet<>();
+        for (OrderSchedule subProblem : subProblems) {
+            for (Order order : subProblem.getOrders()) {
+                assertFalse(originals.contains(order));
+                if (!order.isPinned()) {
+                    assertTrue(seen.add(order.getId()), "Order in two partitions: " + order.getId());
+                }
+            }
+        }
+        assertEquals(problem.getOrders().stream().filter(order -> !order.isPinned()).count(), seen.size());
+    }
+
+    @Test
+    void functionPartitionsGetTheLinesTheirOrdersNeed() {
+        OrderSchedule problem = problem();
+        List<OrderSchedule> subProblems = new Partitioning(PartitionStrategy.FUNCTION, 1, true).partitioner()
+                .partition(problem);
+
+        assertEquals(3, subProblems.size());
+        assertCoversUnpinnedOrdersOnce(problem, subProblems);
+        for (OrderSchedule subProblem : subProblems) {
+            for (Order order : subProblem.getOrders()) {
+                if (!order.isPinned()) {
+                    // 值域按子问题的产线重新构建
+                    assertTrue(subProblem.getLines().containsAll(order.getLineRange()));
+                    assertTrue(order.getLineRange().stream().allMatch(
+                            line -> line.getFunctions().contains(order.getRequiredLineFunction())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void dateWindowPartitionsOnlyUseTheirOwnTimeGrains() {
+        OrderSchedule problem = problem();
+        int windowDays = 3;
+        List<OrderSchedule> subProblems = new Partitioning(PartitionStrategy.DATE_WINDOW, windowDays, true)
+                .partitioner().partition(problem);
+
+        assertTrue(subProblems.size() > 1);
+        assertCoversUnpinnedOrdersOnce(problem, subProblems);
+        Set<TimeGrain> allGrains = new HashSet<>();
+        for (OrderSchedule subProblem : subProblems) {
+            int firstDay = subProblem.getTimeGrains().stream().mapToInt(TimeGrain::getEpochDay).min().orElseThrow();
+            int lastDay = subProblem.getTimeGrains().stream().mapToInt(TimeGrain::getEpochDay).max().orElseThrow();
+            assertTrue(lastDay - firstDay < windowDays);
+            assertTrue(subProblem.getTimeGrains().stream().allMatch(allGrains::add), "Overlapping windows");
+            assertEquals(problem.getEmployees(), subProblem.getEmployees());
+        }
+    }
+
+    @Test
+    void singleGroupIsNotPartitioned() {
+        OrderSchedule problem = problem();
+        problem.getOrders().forEach(order -> order.setRequiredLineFunction("Assembly"));
+
+        assertEquals(List.of(problem), new Partitioning(PartitionStrategy.FUNCTION, 1, true).partitioner()
+                .partition(problem));
+    }
+}
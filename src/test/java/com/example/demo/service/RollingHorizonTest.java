@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.entity.TimeGrain;
+
+class RollingHorizonTest {
+
+    // 所有订单都已分配、未固定的上一轮方案
+    private static OrderSchedule previousSolution(GeneratorParameters parameters) {
+        parameters.setPinnedFraction(1.0);
+        OrderSchedule solution = new ProblemGenerator().generate(parameters);
+        solution.getOrders().forEach(order -> order.setPinned(false));
+        return solution;
+    }
+
+    @Test
+    void dropsFinishedPinsFrozenAndRestrictsMovableOrders() {
+        GeneratorParameters parameters = GeneratorParameters.forOrderCount(500, 3);
+        OrderSchedule previous = previousSolution(parameters);
+        LocalDateTime now = parameters.getStartDate().plusDays(2).atTime(12, 0);
+        Duration freeze = Duration.ofDays(1);
+        int nowMinute = TimeGrain.toMinute(now);
+        int freezeEndMinute = TimeGrain.toMinute(now.plus(freeze));
+
+        OrderSchedule problem = RollingHorizon.replan(previous, now, freeze);
+        problem.buildShiftCalendars();
+        problem.buildValueRanges();
+
+        long finished = previous.getOrders().stream().filter(order -> order.getEndMinute() <= nowMinute).count();
+        assertTrue(finished > 0);
+        assertEquals(previous.getOrders().size() - finished, problem.getOrders().size());
+        assertEquals(now.plus(freeze), problem.getPlanningStart());
+        for (Order order : problem.getOrders()) {
+            assertTrue(order.getEndMinute() > nowMinute);
+            assertEquals(order.getStartMinute() < freezeEndMinute, order.isPinned(), order.getId());
+            // 员工已复制，订单引用新问题中的实例
+            assertNotSame(previous.getEmployees().get(0), problem.getEmployees().get(0));
+            assertSame(problem.getEmployees().stream()
+                    .filter(employee -> employee.getName().equals(order.getEmployee().getName()))
+                    .findFirst().orElseThrow(), order.getEmployee());
+            if (!order.isPinned()) {
+                assertTrue(order.getStartingTimeGrain() == null || order.getStartMinute() >= freezeEndMinute);
+                assertTrue(order.getTimeGrainRange().stream().allMatch(g -> g.getStartMinute() >= freezeEndMinute));
+            }
+        }
+        assertFalse(previous.getOrders().stream().anyMatch(Order::isPinned));
+    }
+
+    @Test
+    void rejectsNegativeFreezeWindow() {
+        OrderSchedule previous = previousSolution(GeneratorParameters.forOrderCount(10, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> RollingHorizon.replan(previous, LocalDateTime.now(), Duration.ofHours(-1)));
+    }
+}
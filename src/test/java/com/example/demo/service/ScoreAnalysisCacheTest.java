@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+
+import com.example.demo.entity.OrderSchedule;
+
+class ScoreAnalysisCacheTest {
+
+    private static final SolutionManager<OrderSchedule, HardMediumSoftScore> SOLUTION_MANAGER =
+            SolutionManager.create(SolverFactory.createFromXmlResource("solverConfig.xml"));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<OrderSchedule> schedule() {
+        return () -> {
+            loads.incrementAndGet();
+            GeneratorParameters parameters = GeneratorParameters.forOrderCount(200, 3);
+            parameters.setPinnedFraction(1.0);
+            OrderSchedule schedule = new ProblemGenerator().generate(parameters);
+            schedule.assignOrderIds();
+            schedule.buildShiftCalendars();
+            schedule.buildValueRanges();
+            return schedule;
+        };
+    }
+
+    @Test
+    void analyzesEachVersionOnce() {
+        ScoreAnalysisCache cache = new ScoreAnalysisCache(SOLUTION_MANAGER, 4, 100);
+
+        ScheduleAnalysis first = cache.get("a", 1, schedule());
+        assertSame(first, cache.get("a", 1, schedule()));
+        assertEquals(1, loads.get());
+
+        ScheduleAnalysis second = cache.get("a", 2, schedule());
+        assertEquals(2, second.version());
+        assertEquals(2, loads.get());
+        // 已缓存更新的版本时，旧版本的请求直接得到新版本
+        assertSame(second, cache.get("a", 1, schedule()));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedJob() {
+        ScoreAnalysisCache cache = new ScoreAnalysisCache(SOLUTION_MANAGER, 2, 100);
+        cache.get("a", 1, schedule());
+        cache.get("b", 1, schedule());
+        cache.get("a", 1, schedule());
+        cache.get("c", 1, schedule());
+        assertEquals(3, loads.get());
+
+        cache.get("a", 1, schedule());
+        assertEquals(3, loads.get());
+        cache.get("b", 1, schedule());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void projectsByDetail() {
+        ScoreAnalysisCache cache = new ScoreAnalysisCache(SOLUTION_MANAGER, 4, 5);
+        ScheduleAnalysis analysis = cache.get("a", 1, schedule());
+
+        assertNull(analysis.project(AnalysisDetail.SUMMARY, 10).constraints());
+        assertEquals(analysis.score(), analysis.project(AnalysisDetail.SUMMARY, 10).score());
+        for (ScheduleAnalysis.ConstraintSummary constraint : analysis.project(AnalysisDetail.CONSTRAINTS, 10)
+                .constraints()) {
+            assertNull(constraint.matches());
+        }
+        for (ScheduleAnalysis.ConstraintSummary constraint : analysis.project(AnalysisDetail.MATCHES, 3)
+                .constraints()) {
+            assertNotNull(constraint.matches());
+            assertTrue(constraint.matches().size() <= Math.min(3, constraint.matchCount()));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+
+class SolutionDeltaBroadcasterTest {
+
+    // 记录发送的事件，不需要 Servlet 容器
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<SolutionDelta> deltas = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                    .filter(part -> part.getData() instanceof SolutionDelta)
+                    .forEach(part -> deltas.add((SolutionDelta) part.getData()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    private final SolutionDeltaBroadcaster broadcaster = new SolutionDeltaBroadcaster(Duration.ZERO) {
+        @Override
+        SseEmitter createEmitter(long timeoutMillis) {
+            return new RecordingEmitter();
+        }
+    };
+    private final JobScheduler scheduler = new JobScheduler(1, 10, Duration.ofHours(1), 1_000_000, 1.0,
+            Duration.ZERO, new JobStore(null, Duration.ZERO), broadcaster,
+            new BestSolutionPipeline(Duration.ZERO, null));
+
+    private RecordingEmitter subscribe(String jobId, Long fromVersion) {
+        return (RecordingEmitter) broadcaster.subscribe(scheduler.getJob(jobId), fromVersion,
+                () -> scheduler.getSchedule(jobId));
+    }
+
+    private static void await(RecordingEmitter emitter, Predicate<List<SolutionDelta>> condition)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test(emitter.deltas) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.test(emitter.deltas), "Timed out, received: " + emitter.deltas);
+    }
+
+    @Test
+    void sendsSnapshotThenOnlyChangedOrders() throws InterruptedException {
+        GeneratorParameters parameters = new GeneratorParameters();
+        parameters.setOrderCount(30);
+        OrderSchedule schedule = new ProblemGenerator().generate(parameters);
+        scheduler.submit("job", null, 0, null, 0, null, schedule, job -> {
+        });
+
+        RecordingEmitter first = subscribe("job", null);
+        await(first, deltas -> deltas.size() == 1);
+        SolutionDelta snapshot = first.deltas.get(0);
+        assertTrue(snapshot.snapshot());
+        assertEquals(30, snapshot.changes().size());
+        assertEquals(JobState.SOLVING, snapshot.state());
+
+        Order moved = schedule.getOrders().get(7);
+        moved.setEmployee(schedule.getEmployees().get(1));
+        moved.setStartingTimeGrain(schedule.getTimeGrains().get(5));
+        scheduler.updateBestSolution("job", schedule);
+        await(first, deltas -> deltas.size() == 2);
+        SolutionDelta delta = first.deltas.get(1);
+        assertEquals(snapshot.version() + 1, delta.version());
+        assertEquals(List.of(OrderAssignment.of(moved)), delta.changes());
+
+        // 从快照版本恢复：只补发之后的增量
+        RecordingEmitter resumed = subscribe("job", snapshot.version());
+        await(resumed, deltas -> deltas.size() == 1);
+        assertEquals(delta, resumed.deltas.get(0));
+        // 未知版本：重新发送快照
+        RecordingEmitter stale = subscribe("job", 999L);
+        await(stale, deltas -> deltas.size() == 1);
+        assertTrue(stale.deltas.get(0).snapshot());
+
+        scheduler.complete("job", schedule);
+        await(first, deltas -> deltas.size() == 3);
+        assertEquals(JobState.COMPLETED, first.deltas.get(2).state());
+        assertTrue(first.deltas.get(2).changes().isEmpty());
+        assertTrue(first.completed);
+    }
+}
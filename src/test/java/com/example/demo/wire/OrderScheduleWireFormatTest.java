@@ -0,0 +1,231 @@
+package com.example.demo.wire;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderSchedule;
+import com.example.demo.service.GeneratorParameters;
+import com.example.demo.service.ProblemGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+class OrderScheduleWireFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static OrderSchedule schedule() {
+        GeneratorParameters parameters = GeneratorParameters.forOrderCount(300, 4);
+        parameters.setPinnedFraction(0.5);
+        OrderSchedule schedule = new ProblemGenerator().generate(parameters);
+        schedule.assignOrderIds();
+        schedule.setScore(HardMediumSoftScore.of(-2, 0, -15));
+        return schedule;
+    }
+
+    private static void assertSameSchedule(OrderSchedule expected, OrderSchedule actual) {
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getEmployees(), actual.getEmployees());
+        assertEquals(expected.getLines(), actual.getLines());
+        assertEquals(expected.getTimeGrains(), actual.getTimeGrains());
+        assertEquals(expected.getOrders(), actual.getOrders());
+        // 订单引用方案中的同一个实例，而不是各自的副本
+        for (Order order : actual.getOrders()) {
+            if (order.getEmployee() != null) {
+                assertSame(actual.getEmployees().get(actual.getEmployees().indexOf(order.getEmployee())),
+                        order.getEmployee());
+                assertSame(actual.getLines().get(actual.getLines().indexOf(order.getLine())), order.getLine());
+            }
+        }
+    }
+
+    @Test
+    void compactJsonRoundTrip() throws IOException {
+        OrderSchedule schedule = schedule();
+        byte[] compact = objectMapper.writeValueAsBytes(CompactSchedule.of(schedule));
+
+        OrderSchedule read = objectMapper.readValue(compact, CompactSchedule.class).toSchedule();
+
+        assertSameSchedule(schedule, read);
+        assertTrue(objectMapper.writeValueAsBytes(CompactSchedule.of(schedule).orders()).length
+                < objectMapper.writeValueAsBytes(schedule.getOrders()).length);
+    }
+
+    @Test
+    void columnarRoundTrip() throws IOException {
+        OrderSchedule schedule = schedule();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ColumnarScheduleCodec.write(schedule, out);
+
+        OrderSchedule read = ColumnarScheduleCodec.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertSameSchedule(schedule, read);
+    }
+
+    @Test
+    void ndjsonRoundTrip() throws IOException {
+        OrderSchedule schedule = schedule();
+        NdjsonScheduleCodec codec = new NdjsonScheduleCodec(objectMapper);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(schedule, out);
+
+        OrderSchedule read = codec.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertSameSchedule(schedule, read);
+        assertEquals(schedule.getOrders().size() + 1, out.toString(StandardCharsets.UTF_8).strip().split("\n").length);
+    }
+
+    @Test
+    void ndjsonBuildsHorizonAndReportsLine() throws IOException {
+        NdjsonScheduleCodec codec = new NdjsonScheduleCodec(objectMapper);
+        String header = "{\"employees\":[{\"name\":\"E1\",\"skills\":[\"Welding\"]}],"
+                + "\"lines\":[{\"name\":\"L1\",\"functions\":[\"Welding\"]}],"
+                + "\"horizon\":{\"start\":\"2030-04-01T06:00:00\",\"days\":2}}\n";
+        String order = "{\"id\":\"a\",\"workHours\":60,\"requiredSkill\":\"Welding\",\"employee\":\"E1\"}\n";
+
+        OrderSchedule read = codec.read(new ByteArrayInputStream(
+                (header + order).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2 * 96, read.getTimeGrains().size());
+        assertSame(read.getEmployees().get(0), read.getOrders().get(0).getEmployee());
+        assertSame(read.getEmployees().get(0).getSkills().iterator().next(), read.getOrders().get(0).getRequiredSkill());
+
+        String unknown = "{\"id\":\"b\",\"workHours\":60,\"line\":\"L9\"}\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> codec.read(
+                new ByteArrayInputStream((header + order + unknown).getBytes(StandardCharsets.UTF_8))));
+        assertTrue(e.getMessage().startsWith("Line 3:"), e.getMessage());
+    }
+
+    @Test
+    void ndjsonRejectsOversizedHorizonBeforeAllocating() {
+        OrderScheduleHttpMessageConverter converter = new OrderScheduleHttpMessageConverter(objectMapper, 366);
+        for (int days : new int[] { 100_000, 30_000_000 }) {
+            MockHttpInputMessage message = new MockHttpInputMessage(
+                    ("{\"horizon\":{\"start\":\"2030-04-01T06:00:00\",\"days\":" + days + "}}\n")
+                            .getBytes(StandardCharsets.UTF_8));
+            message.getHeaders().setContentType(OrderScheduleHttpMessageConverter.NDJSON);
+
+            HttpMessageNotReadableException e = assertThrows(HttpMessageNotReadableException.class,
+                    () -> converter.read(OrderSchedule.class, message));
+            assertTrue(e.getMessage().contains("Line 1:"), e.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsUnknownReference() {
+        CompactSchedule compact = CompactSchedule.of(schedule());
+        CompactSchedule.CompactOrder order = compact.orders().get(0);
+        CompactSchedule broken = new CompactSchedule(compact.id(), compact.solverStatus(), compact.score(),
+                compact.planningStart(), compact.employees(), compact.lines(), compact.timeGrains(),
+                List.of(new CompactSchedule.CompactOrder(order.id(), order.productName(), order.quantity(),
+                        order.workHours(), order.earliestDate(), order.latestDate(), order.requiredSkill(),
+                        order.requiredLineFunction(), "nobody", null, null, false)));
+
+        assertThrows(IllegalArgumentException.class, broken::toSchedule);
+    }
+
+    @Test
+    void columnarDoesNotPreallocateFromClaimedCounts() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x41505343);
+        out.writeInt(1);
+        for (int i = 0; i < 4; i++) {
+            out.writeBoolean(false);
+        }
+        // 声称有 2^31-1 个员工，但请求体随即结束
+        out.writeInt(Integer.MAX_VALUE);
+
+        assertThrows(EOFException.class,
+                () -> ColumnarScheduleCodec.read(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    void columnarRejectsMalformedDatesAsBadRequest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x41505343);
+        out.writeInt(1);
+        for (int i = 0; i < 3; i++) {
+            out.writeBoolean(false);
+        }
+        out.writeBoolean(true);
+        out.writeUTF("2030-13-45T25:00:00");
+        MockHttpInputMessage message = new MockHttpInputMessage(bytes.toByteArray());
+        message.getHeaders().setContentType(OrderScheduleHttpMessageConverter.COLUMNAR);
+
+        assertThrows(HttpMessageNotReadableException.class, () -> new OrderScheduleHttpMessageConverter(objectMapper,
+                NdjsonScheduleCodec.DEFAULT_MAX_HORIZON_DAYS).read(OrderSchedule.class, message));
+    }
+
+    @Test
+    void columnarSharesStringsWithinOneRead() throws IOException {
+        OrderSchedule schedule = schedule();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ColumnarScheduleCodec.write(schedule, out);
+
+        OrderSchedule read = ColumnarScheduleCodec.read(new ByteArrayInputStream(out.toByteArray()));
+
+        Order order = read.getOrders().stream().filter(o -> o.getEmployee() != null).findFirst().orElseThrow();
+        String skill = order.getEmployee().getSkills().stream()
+                .filter(order.getRequiredSkill()::equals).findFirst().orElseThrow();
+        assertSame(skill, order.getRequiredSkill());
+        String function = order.getLine().getFunctions().stream()
+                .filter(order.getRequiredLineFunction()::equals).findFirst().orElseThrow();
+        assertSame(function, order.getRequiredLineFunction());
+    }
+
+    @Test
+    void gzipFilterLimitsInflatedSize() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(new byte[64 * 1024]);
+        }
+        GzipRequestFilter filter = new GzipRequestFilter(DataSize.ofKilobytes(16));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/schedules");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        request.setContent(compressed.toByteArray());
+        IOException e = assertThrows(IOException.class, () -> filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> StreamUtils.copyToByteArray(req.getInputStream())));
+        assertTrue(e.getMessage().contains("exceeds"), e.getMessage());
+
+        GzipRequestFilter larger = new GzipRequestFilter(DataSize.ofKilobytes(64));
+        MockHttpServletRequest accepted = new MockHttpServletRequest("POST", "/schedules");
+        accepted.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        accepted.setContent(compressed.toByteArray());
+        larger.doFilter(accepted, new MockHttpServletResponse(), (req, res) -> {
+            assertEquals(64 * 1024, StreamUtils.copyToByteArray(req.getInputStream()).length);
+            assertNull(((HttpServletRequest) req).getHeader(HttpHeaders.CONTENT_ENCODING));
+        });
+    }
+}